@@ -10,15 +10,18 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 import it.unibo.oop.model.GameState;
 import it.unibo.oop.model.GameStateImpl;
 import it.unibo.oop.model.Record;
 import it.unibo.oop.model.RecordImpl;
 import it.unibo.oop.model.Score;
+import it.unibo.oop.utilities.FlightEvents;
 import it.unibo.oop.utilities.MusicPlayer;
 import it.unibo.oop.utilities.MusicPlayerImpl;
 import it.unibo.oop.utilities.Settings;
+import it.unibo.oop.utilities.StartupTimer;
 import it.unibo.oop.view.View;
 import it.unibo.oop.view.ViewImpl;
 
@@ -28,17 +31,28 @@ import it.unibo.oop.view.ViewImpl;
 public final class ControllerImpl implements Controller {
 
     private static final int LEVELS = 10;
+    /* guards the high-score file, read while getInstance() holds the lock of the class */
+    private static final Object STATS_LOCK = new Object();
     private static Optional<ControllerImpl> singleton = Optional.empty();
     private Optional<AgentInterface> gLAgent = Optional.empty();
-    private final View view = ViewImpl.getInstance();
+    private final View view;
     private final GameState gameState = GameStateImpl.getInstance();
     private final Record record = RecordImpl.getInstance();
-    private final MusicPlayer mPlayer = MusicPlayerImpl.getInstance();
+    private final MusicPlayer mPlayer;
+    private final Random random = new Random();
+    private int nextLevel;
 
     private ControllerImpl() {
-        this.record.setValue(this.getStatFromFile());
+        /* independent subsystems, initialized in background while the view is built; they don't use this */
+        final CompletableFuture<MusicPlayer> audio = StartupTimer.async("audio", MusicPlayerImpl::getInstance);
+        final CompletableFuture<Score> stats = StartupTimer.async("high-score file", ControllerImpl::getStatFromFile);
+        this.view = StartupTimer.time("view", ViewImpl::getInstance);
+        StartupTimer.time("launcher", () -> this.view.showView(AppState.LAUNCHING));
+        this.record.setValue(stats.join());
+        this.mPlayer = audio.join();
         this.mPlayer.setMusic(true);
-        this.view.showView(AppState.LAUNCHING);
+        this.prefetchNextLevel();
+        StartupTimer.report();
     }
 
     /**
@@ -53,18 +67,24 @@ public final class ControllerImpl implements Controller {
 
     @Override
     public void start() { // launcher -> play / pause -> replay
-        final int levelNumber = new Random().nextInt(LEVELS);
+        final int levelNumber = this.nextLevel;
         this.gameState.initialize(levelNumber);
         this.view.getLevelView().initialize(levelNumber);
+        this.prefetchNextLevel();
         this.play();
     }
 
+    /* chooses the next level in advance, so it is decoded while playing */
+    private void prefetchNextLevel() {
+        this.nextLevel = this.random.nextInt(LEVELS);
+        this.view.getLevelView().prefetch(this.nextLevel);
+    }
+
     @Override
     public void play() { // pause -> play
         view.reset();
         this.view.hideView();
-        this.mPlayer.stopAll();
-        this.mPlayer.playLoop(MusicPlayerImpl.LEVEL_BACKGROUND);
+        this.mPlayer.playLoop(MusicPlayerImpl.LEVEL_BACKGROUND); // cross-fades from any other music
         if (!this.gLAgent.isPresent()) {
             this.gLAgent = Optional.ofNullable(new GameLoopAgent());
             new Thread(this.gLAgent.get()).start();
@@ -73,36 +93,60 @@ public final class ControllerImpl implements Controller {
         }
     }
 
-    private synchronized void createStatFile() {
-        final File statDir = new File(Settings.HIGHSCORE_FOLDER);
-        final File statFile = new File(Settings.HIGHSCORE_FOLDER + Settings.HIGHSCORE_FILE);
-        try {
-            final boolean a = statDir.mkdir();
-            final boolean b = statFile.createNewFile();
-            System.out.println(a && b ? "StatFile created." : "File still exist.");
-        } catch (IOException e) {
-            System.out.println("Error in file reading, is it empty?");
+    /* static, as the file is read while the controller is being built */
+    private static void createStatFile() {
+        synchronized (STATS_LOCK) {
+            final File statDir = new File(Settings.HIGHSCORE_FOLDER);
+            final File statFile = new File(Settings.HIGHSCORE_FOLDER + Settings.HIGHSCORE_FILE);
+            try {
+                final boolean a = statDir.mkdir();
+                final boolean b = statFile.createNewFile();
+                System.out.println(a && b ? "StatFile created." : "File still exist.");
+            } catch (IOException e) {
+                System.out.println("Error in file reading, is it empty?");
+            }
         }
     }
 
-    private synchronized Score getStatFromFile() {
-        Score topScore = new Score();
-        try (ObjectInputStream inStream = new ObjectInputStream(
-                new BufferedInputStream(new FileInputStream(Settings.HIGHSCORE_FOLDER + Settings.HIGHSCORE_FILE)))) {
-            topScore = (Score) inStream.readObject();
-        } catch (IOException | ClassNotFoundException e) {
-            System.out.println("Error in file reading, is it empty?");
-            this.createStatFile();
+    private static Score getStatFromFile() {
+        synchronized (STATS_LOCK) {
+            final FlightEvents.Event event = FlightEvents.HIGH_SCORE_IO.begin();
+            Score topScore = new Score();
+            boolean success = false;
+            try (ObjectInputStream inStream = new ObjectInputStream(new BufferedInputStream(
+                    new FileInputStream(Settings.HIGHSCORE_FOLDER + Settings.HIGHSCORE_FILE)))) {
+                topScore = (Score) inStream.readObject();
+                success = true;
+            } catch (IOException | ClassNotFoundException e) {
+                System.out.println("Error in file reading, is it empty?");
+                createStatFile();
+            }
+            commitStatEvent(event, false, success);
+            return topScore;
         }
-        return topScore;
     }
 
     @Override
-    public synchronized void putStatToFile() throws IOException {
-        try (ObjectOutputStream outStream = new ObjectOutputStream(
-                new BufferedOutputStream(new FileOutputStream(Settings.HIGHSCORE_FOLDER + Settings.HIGHSCORE_FILE)))) {
-            this.createStatFile();
-            outStream.writeObject(this.record.getValue());
+    public void putStatToFile() throws IOException {
+        synchronized (STATS_LOCK) {
+            final FlightEvents.Event event = FlightEvents.HIGH_SCORE_IO.begin();
+            boolean success = false;
+            try (ObjectOutputStream outStream = new ObjectOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(Settings.HIGHSCORE_FOLDER + Settings.HIGHSCORE_FILE)))) {
+                createStatFile();
+                outStream.writeObject(this.record.getValue());
+                success = true;
+            } finally {
+                commitStatEvent(event, true, success);
+            }
+        }
+    }
+
+    private static void commitStatEvent(final FlightEvents.Event event, final boolean write,
+            final boolean success) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit(Settings.HIGHSCORE_FOLDER + Settings.HIGHSCORE_FILE, write, success);
         }
     }
 }
\ No newline at end of file
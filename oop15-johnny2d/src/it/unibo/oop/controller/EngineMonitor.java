@@ -0,0 +1,181 @@
+package it.unibo.oop.controller;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import it.unibo.oop.model.EntityCount;
+import it.unibo.oop.model.GameStateImpl;
+
+/**
+ * Implementation of {@link EngineMonitorMBean} over the {@link GameStateImpl}
+ * and the {@link GameLoopAgent}. It only reads the values published by the
+ * game thread and writes volatile tunables, so it never locks the game loop.
+ */
+public final class EngineMonitor implements EngineMonitorMBean {
+
+    /**
+     * Name of the MBean.
+     */
+    public static final String NAME = "it.unibo.oop:type=EngineMonitor";
+    private static final double TO_MILLIS = 1e6;
+
+    private final GameLoopAgent agent;
+    private final GameStateImpl gameState = GameStateImpl.getInstance();
+    private final LoopProfiler profiler = LoopProfiler.getInstance();
+
+    private EngineMonitor(final GameLoopAgent agent) {
+        this.agent = agent;
+    }
+
+    /**
+     * Registers the MBean of the game loop, replacing any previous one.
+     *
+     * @param agent
+     *            the game loop
+     */
+    public static void register(final GameLoopAgent agent) {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(new EngineMonitor(agent), name);
+        } catch (JMException e) {
+            System.out.println("Error registering the engine MBean");
+        }
+    }
+
+    @Override
+    public int getMovables() {
+        return this.gameState.getCount(EntityCount.MOVABLES);
+    }
+
+    @Override
+    public int getStables() {
+        return this.gameState.getCount(EntityCount.STABLES);
+    }
+
+    @Override
+    public int getBullets() {
+        return this.gameState.getCount(EntityCount.BULLETS);
+    }
+
+    @Override
+    public int getBasicMonsters() {
+        return this.gameState.getCount(EntityCount.BASIC_MONSTERS);
+    }
+
+    @Override
+    public int getInvisibleMonsters() {
+        return this.gameState.getCount(EntityCount.INVISIBLE_MONSTERS);
+    }
+
+    @Override
+    public int getCollectables() {
+        return this.gameState.getCount(EntityCount.COLLECTABLES);
+    }
+
+    @Override
+    public long getShotsFired() {
+        return this.gameState.getShotsFired();
+    }
+
+    @Override
+    public int getMonstersCapRemaining() {
+        return this.gameState.getMonstersCap();
+    }
+
+    @Override
+    public double getCurrentTickMillis() {
+        return this.profiler.getLastTick() / TO_MILLIS;
+    }
+
+    @Override
+    public double getAverageTickMillis() {
+        return this.profiler.getTick().getMean() / TO_MILLIS;
+    }
+
+    @Override
+    public double getFps() {
+        return this.profiler.getFps();
+    }
+
+    @Override
+    public String getCurrentPhase() {
+        return this.profiler.getCurrentPhase().toString();
+    }
+
+    @Override
+    public int getAiThinking() {
+        return this.gameState.getAiScheduler().getThoughtLastUpdate();
+    }
+
+    @Override
+    public int getAiExtrapolated() {
+        return this.gameState.getAiScheduler().getExtrapolatedLastUpdate();
+    }
+
+    @Override
+    public int getTickRate() {
+        return this.agent.getTickRate();
+    }
+
+    @Override
+    public void setTickRate(final int tickRate) {
+        this.agent.setTickRate(tickRate);
+    }
+
+    @Override
+    public int getMonsterCap() {
+        return this.gameState.getMonsterCapSetting();
+    }
+
+    @Override
+    public void setMonsterCap(final int cap) {
+        this.gameState.setMonsterCapSetting(cap);
+    }
+
+    @Override
+    public int getBasicScale() {
+        return this.gameState.getBasicScale();
+    }
+
+    @Override
+    public void setBasicScale(final int scale) {
+        this.gameState.setBasicScale(scale);
+    }
+
+    @Override
+    public int getMonstersDelay() {
+        return this.gameState.getMonstersDelay();
+    }
+
+    @Override
+    public void setMonstersDelay(final int delay) {
+        this.gameState.setMonstersDelay(delay);
+    }
+
+    @Override
+    public int getCollectiblesDelay() {
+        return this.gameState.getCollectiblesDelay();
+    }
+
+    @Override
+    public void setCollectiblesDelay(final int delay) {
+        this.gameState.setCollectiblesDelay(delay);
+    }
+
+    @Override
+    public long getAiBudget() {
+        return this.gameState.getAiScheduler().getBudget();
+    }
+
+    @Override
+    public void setAiBudget(final long micros) {
+        this.gameState.getAiScheduler().setBudget(micros);
+    }
+}
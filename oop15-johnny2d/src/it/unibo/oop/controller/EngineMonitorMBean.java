@@ -0,0 +1,146 @@
+package it.unibo.oop.controller;
+
+/**
+ * Management interface of the game engine, registered with the platform
+ * MBean server as {@value EngineMonitor#NAME} so that JConsole or VisualVM can
+ * read the live statistics and change some tunables while playing.
+ */
+public interface EngineMonitorMBean {
+
+    /**
+     * @return the movable entities, bullets included
+     */
+    int getMovables();
+
+    /**
+     * @return the stable entities, walls included
+     */
+    int getStables();
+
+    /**
+     * @return the bullets flying
+     */
+    int getBullets();
+
+    /**
+     * @return the basic monsters alive
+     */
+    int getBasicMonsters();
+
+    /**
+     * @return the invisible monsters alive
+     */
+    int getInvisibleMonsters();
+
+    /**
+     * @return the collectables to take
+     */
+    int getCollectables();
+
+    /**
+     * @return the bullets fired since the application started
+     */
+    long getShotsFired();
+
+    /**
+     * @return the monsters that can still be spawned in this level
+     */
+    int getMonstersCapRemaining();
+
+    /**
+     * @return the duration of the last tick in milliseconds, without sleeping
+     */
+    double getCurrentTickMillis();
+
+    /**
+     * @return the mean duration of the ticks in milliseconds
+     */
+    double getAverageTickMillis();
+
+    /**
+     * @return the frames per second
+     */
+    double getFps();
+
+    /**
+     * @return the phase executed now by the game loop
+     */
+    String getCurrentPhase();
+
+    /**
+     * @return the enemies which thought their movement in the last tick
+     */
+    int getAiThinking();
+
+    /**
+     * @return the enemies which kept their last movement in the last tick
+     */
+    int getAiExtrapolated();
+
+    /**
+     * @return the ticks per second the game loop aims to
+     */
+    int getTickRate();
+
+    /**
+     * @param tickRate
+     *            the ticks per second the game loop aims to
+     */
+    void setTickRate(int tickRate);
+
+    /**
+     * @return the maximum number of monsters spawned in a level
+     */
+    int getMonsterCap();
+
+    /**
+     * @param cap
+     *            the maximum number of monsters spawned in a level, used from
+     *            the next level
+     */
+    void setMonsterCap(int cap);
+
+    /**
+     * @return the basic monsters spawned at each wave
+     */
+    int getBasicScale();
+
+    /**
+     * @param scale
+     *            the basic monsters spawned at each wave
+     */
+    void setBasicScale(int scale);
+
+    /**
+     * @return the minimum ticks between two waves of monsters
+     */
+    int getMonstersDelay();
+
+    /**
+     * @param delay
+     *            the minimum ticks between two waves of monsters
+     */
+    void setMonstersDelay(int delay);
+
+    /**
+     * @return the minimum ticks between two collectables
+     */
+    int getCollectiblesDelay();
+
+    /**
+     * @param delay
+     *            the minimum ticks between two collectables
+     */
+    void setCollectiblesDelay(int delay);
+
+    /**
+     * @return the microseconds the enemies can spend thinking in a tick
+     */
+    long getAiBudget();
+
+    /**
+     * @param micros
+     *            the microseconds the enemies can spend thinking in a tick
+     */
+    void setAiBudget(long micros);
+}
@@ -0,0 +1,135 @@
+package it.unibo.oop.controller;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import it.unibo.oop.model.EntityCount;
+import it.unibo.oop.model.GameStateImpl;
+import it.unibo.oop.utilities.LogImpl;
+import it.unibo.oop.utilities.LogLevel;
+import it.unibo.oop.utilities.Settings;
+
+/**
+ * Daemon thread which checks the game loop a few times per frame: when a
+ * tick lasts more than the budget (by default twice the target period, see
+ * {@value #FACTOR_PROPERTY}) it captures the stack of the game thread, the
+ * phase being executed and the entity counts, and appends them to stalls.log
+ * in the game folder. A stall is recorded once, while it's still running, so
+ * even a tick which never ends is caught.
+ */
+public final class FrameWatchdog implements Runnable {
+
+    /**
+     * System property with the budget as a multiple of the target period; 0
+     * disables the watchdog.
+     */
+    public static final String FACTOR_PROPERTY = "johnny2d.watchdog.factor";
+    private static final double DEFAULT_FACTOR = 2;
+    private static final int CHECKS_PER_FRAME = 4;
+    private static final long MIN_SLEEP = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int MAX_DEPTH = 64;
+    private static final long MAX_LOG_SIZE = 1024 * 1024;
+    private static final String LOG_FILE = "stalls.log";
+    private static final double TO_MILLIS = 1e6;
+
+    private static volatile boolean started;
+
+    private final LoopProfiler profiler = LoopProfiler.getInstance();
+    private final GameStateImpl gameState = GameStateImpl.getInstance();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final double factor;
+    private long reportedTick = -1;
+
+    private FrameWatchdog(final double factor) {
+        this.factor = factor;
+    }
+
+    /**
+     * Starts the watchdog, once.
+     */
+    public static synchronized void start() {
+        final double factor = readFactor();
+        if (started || factor <= 0) {
+            return;
+        }
+        started = true;
+        final Thread t = new Thread(new FrameWatchdog(factor), "FrameWatchdog");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /* a wrong value of the property mustn't stop the game */
+    private static double readFactor() {
+        final String value = System.getProperty(FACTOR_PROPERTY);
+        if (value == null) {
+            return DEFAULT_FACTOR;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            LogImpl.getInstance().log(LogLevel.WARN, "Wrong " + FACTOR_PROPERTY + " \"%s\", the default is used",
+                    value);
+            return DEFAULT_FACTOR;
+        }
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            final long budget = (long) (this.profiler.getTargetPeriod() * this.factor);
+            try {
+                TimeUnit.NANOSECONDS.sleep(Math.max(MIN_SLEEP, this.profiler.getTargetPeriod() / CHECKS_PER_FRAME));
+            } catch (InterruptedException e) {
+                return;
+            }
+            this.check(budget);
+        }
+    }
+
+    private void check(final long budget) {
+        final long tick = this.profiler.getTicks();
+        final long start = this.profiler.getTickStart();
+        final LoopPhase phase = this.profiler.getCurrentPhase();
+        final long elapsed = System.nanoTime() - start;
+        if (budget <= 0 || phase == LoopPhase.IDLE || tick == this.reportedTick || elapsed <= budget
+                || tick != this.profiler.getTicks()) {
+            return;
+        }
+        this.reportedTick = tick;
+        final long threadId = this.profiler.getGameThreadId();
+        final ThreadInfo info = threadId < 0 ? null : this.threads.getThreadInfo(threadId, MAX_DEPTH);
+        final File file = new File(Settings.MY_FOLDER + LOG_FILE);
+        if (file.length() > MAX_LOG_SIZE) { // keeps the last two files
+            final File old = new File(Settings.MY_FOLDER + LOG_FILE + ".1");
+            if (old.exists() && !old.delete() || !file.renameTo(old)) {
+                System.out.println("Error rolling " + file);
+            }
+        }
+        try (PrintWriter out = new PrintWriter(new FileWriter(file, true))) {
+            out.println(String.format("%s stall: tick %d running for %.1f ms (budget %.1f ms), phase %s, "
+                    + "current phase running for %.1f ms", new Date(), tick, elapsed / TO_MILLIS, budget / TO_MILLIS,
+                    phase, (System.nanoTime() - this.profiler.getPhaseStart()) / TO_MILLIS));
+            final StringBuilder counts = new StringBuilder("  entities:");
+            for (final EntityCount count : EntityCount.values()) {
+                counts.append(' ').append(count).append('=').append(this.gameState.getCount(count));
+            }
+            out.println(counts.append(" spawnAttempts=").append(this.gameState.getSpawnAttempts()));
+            if (info != null) {
+                out.println("  thread " + info.getThreadName() + " " + info.getThreadState());
+                for (final StackTraceElement frame : info.getStackTrace()) {
+                    out.println("    at " + frame);
+                }
+            }
+            out.println();
+        } catch (IOException e) {
+            System.out.println("Error writing " + file);
+        }
+    }
+}
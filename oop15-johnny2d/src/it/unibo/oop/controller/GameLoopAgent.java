@@ -2,12 +2,15 @@ package it.unibo.oop.controller;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
+import it.unibo.oop.model.EntityCount;
 import it.unibo.oop.model.GameState;
 import it.unibo.oop.model.GameStateImpl;
 import it.unibo.oop.utilities.Action;
 import it.unibo.oop.utilities.Direction;
+import it.unibo.oop.utilities.FlightEvents;
 import it.unibo.oop.view.ESource;
 import it.unibo.oop.view.View;
 import it.unibo.oop.view.ViewImpl;
@@ -17,22 +20,45 @@ import it.unibo.oop.view.ViewImpl;
  */
 public class GameLoopAgent implements AgentInterface, ESource<StateObserver> {
 
-    private static final double FPS = 30;
+    private static final int FPS = 30;
     private static final int TO_SECONDS = 1000;
-    private static final int SLEEPING_TIME = (int) (1 / FPS * TO_SECONDS);
     private final GameState gameState = GameStateImpl.getInstance();
     private final View view = ViewImpl.getInstance();
+    private final LoopProfiler profiler = LoopProfiler.getInstance();
     private final List<StateObserver> stateObs;
     private volatile Direction mainCharDir;
     private volatile boolean isMainCharShooting;
     private volatile boolean pause;
     private volatile boolean gameOver;
+    private volatile int tickRate = FPS;
 
     /**
      * Class's constructor.
      */
     public GameLoopAgent() {
         this.stateObs = Arrays.asList(new StateObserverImpl(this.view));
+        this.profiler.setTargetPeriod(TimeUnit.SECONDS.toNanos(1) / this.tickRate);
+        EngineMonitor.register(this);
+        FrameWatchdog.start();
+    }
+
+    /**
+     * @return the ticks per second the loop aims to.
+     */
+    public int getTickRate() {
+        return this.tickRate;
+    }
+
+    /**
+     * @param tickRate
+     *            the ticks per second the loop aims to, between 1 and 1000.
+     */
+    public void setTickRate(final int tickRate) {
+        if (tickRate <= 0 || tickRate > TO_SECONDS) {
+            throw new IllegalArgumentException("Tick rate out of range: " + tickRate);
+        }
+        this.tickRate = tickRate;
+        this.profiler.setTargetPeriod(TimeUnit.SECONDS.toNanos(1) / tickRate);
     }
 
     @Override
@@ -48,6 +74,7 @@ public class GameLoopAgent implements AgentInterface, ESource<StateObserver> {
         /* GAME LOOP */
         while (true) {
             while (this.pause || this.gameOver) {
+                this.profiler.suspend();
                 try {
                     this.doAction(e -> e.stateAction(this.pause ? AppState.PAUSE : AppState.GAME_OVER));
                     this.wait();
@@ -57,30 +84,53 @@ public class GameLoopAgent implements AgentInterface, ESource<StateObserver> {
             }
 
             /* ACQUISIZIONE TASTI PREMUTI */
+            final long shotsBefore = this.gameState.getShotsFired();
+            final FlightEvents.Event tick = FlightEvents.TICK.begin(); // nothing allocated if not recorded
+            this.profiler.startTick();
             this.processEvents();
 //            this.dbgKeysMan(); /* per debugging */
 
             /* AGGIORNAMENTO GAMESTATE */
+            this.profiler.enter(LoopPhase.SIMULATION);
             this.gameState.updatePositions(this.mainCharDir, this.isMainCharShooting);
 
             /* CHECK GIOCO FINITO */
+            this.profiler.enter(LoopPhase.END_CHECK);
             this.gameOver = this.gameState.isGameEnded();
 
             /* AGGIORNAMENTO E PRINTING DEL FRAME */
+            this.profiler.enter(LoopPhase.RENDER);
             this.view.getLevelView().updateLevel();
+            this.profiler.endTick();
+            this.commitTick(tick, shotsBefore);
 
             try {
-                Thread.sleep(SLEEPING_TIME);
+                Thread.sleep(TO_SECONDS / this.tickRate);
             } catch (InterruptedException e) {
                 e.printStackTrace();
             }
         }
     }
 
+    private void commitTick(final FlightEvents.Event tick, final long shotsBefore) {
+        tick.end();
+        if (tick.shouldCommit()) {
+            tick.commit(this.gameState.getCount(EntityCount.MOVABLES), this.gameState.getCount(EntityCount.STABLES),
+                    this.gameState.getCount(EntityCount.BASIC_MONSTERS)
+                            + this.gameState.getCount(EntityCount.INVISIBLE_MONSTERS),
+                    this.gameState.getCount(EntityCount.BULLETS),
+                    (int) (this.gameState.getShotsFired() - shotsBefore));
+        }
+    }
+
     private void processEvents() {
+        this.view.processInput();
         final Action action = this.view.getAction();
         this.pause = action == Action.PAUSE;
         this.isMainCharShooting = action == Action.SHOOT;
+        if (action == Action.DEBUG) {
+            this.view.getLevelView().toggleOverlay();
+        }
         this.mainCharDir = this.view.getMovement();
     }
 
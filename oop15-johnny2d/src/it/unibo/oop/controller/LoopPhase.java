@@ -0,0 +1,34 @@
+package it.unibo.oop.controller;
+
+/**
+ * Enumeration with the phases of a tick of the game loop, measured by the
+ * {@link LoopProfiler}.
+ */
+public enum LoopPhase {
+
+    /**
+     * Acquisition of the keys pressed.
+     */
+    INPUT,
+
+    /**
+     * Update of the game state.
+     */
+    SIMULATION,
+
+    /**
+     * Check of the end of the game.
+     */
+    END_CHECK,
+
+    /**
+     * Printing of the frame: the hand-off of the repaint to the Event
+     * Dispatch Thread, not the painting itself.
+     */
+    RENDER,
+
+    /**
+     * Outside of a tick: sleeping, paused or game over.
+     */
+    IDLE;
+}
@@ -0,0 +1,275 @@
+package it.unibo.oop.controller;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import it.unibo.oop.utilities.Histogram;
+import it.unibo.oop.utilities.Settings;
+
+/**
+ * A singleton class which measures the duration of each {@link LoopPhase} of
+ * the game loop, the work of the whole tick and the period between two ticks.
+ * The values are recorded in {@link Histogram}s by the game thread, so the
+ * timers only cost a {@link System#nanoTime()} per phase, and can be read at
+ * runtime by any thread.
+ */
+public final class LoopProfiler {
+
+    private static final LoopProfiler SINGLETON = new LoopProfiler();
+    private static final String DUMP_FILE = "loop-timings.txt";
+    private static final double TO_SECONDS = 1e9;
+    private static final double SMOOTHING = 0.1;
+    private static final int RECENT_PERIODS = 128; // power of 2
+
+    private final Histogram[] phases = new Histogram[LoopPhase.values().length];
+    private final Histogram tick = new Histogram();
+    private final Histogram period = new Histogram();
+    private final AtomicLongArray lastPhases = new AtomicLongArray(LoopPhase.values().length);
+    private final AtomicLongArray recentPeriods = new AtomicLongArray(RECENT_PERIODS);
+    private volatile int periodsCount;
+    private volatile LoopPhase current = LoopPhase.IDLE;
+    private volatile long phaseStart;
+    private volatile long lastTick;
+    private volatile double fps;
+    private volatile long gameThreadId = -1;
+    private volatile long targetPeriod;
+    private volatile long tickStart;
+    private volatile long ticks;
+    private long lastTickStart;
+    private int games;
+
+    private LoopProfiler() {
+        for (final LoopPhase phase : LoopPhase.values()) {
+            this.phases[phase.ordinal()] = new Histogram();
+        }
+    }
+
+    /**
+     * Getter for the singleton pattern.
+     *
+     * @return the singleton instance of the {@link LoopProfiler}
+     */
+    public static LoopProfiler getInstance() {
+        return SINGLETON;
+    }
+
+    /**
+     * Starts a tick with the {@link LoopPhase#INPUT} phase.
+     */
+    public void startTick() {
+        final long now = System.nanoTime();
+        if (this.gameThreadId < 0) {
+            this.gameThreadId = Thread.currentThread().getId();
+        }
+        if (this.lastTickStart != 0) {
+            final long elapsed = now - this.lastTickStart;
+            this.period.record(elapsed);
+            this.recentPeriods.lazySet(this.periodsCount & (RECENT_PERIODS - 1), elapsed);
+            this.periodsCount = this.periodsCount + 1;
+            final double current = TO_SECONDS / Math.max(1, elapsed);
+            this.fps = this.fps == 0 ? current : this.fps + SMOOTHING * (current - this.fps);
+        }
+        this.lastTickStart = now;
+        this.tickStart = now;
+        this.ticks = this.ticks + 1; // after the start, see getTicks()
+        this.phaseStart = now;
+        this.current = LoopPhase.INPUT;
+    }
+
+    /**
+     * Ends the current phase and starts the next one.
+     *
+     * @param next
+     *            the phase which starts.
+     */
+    public void enter(final LoopPhase next) {
+        final long now = System.nanoTime();
+        this.phases[this.current.ordinal()].record(now - this.phaseStart);
+        this.lastPhases.lazySet(this.current.ordinal(), now - this.phaseStart);
+        this.phaseStart = now;
+        this.current = next;
+    }
+
+    /**
+     * Ends the current phase and the tick.
+     */
+    public void endTick() {
+        this.enter(LoopPhase.IDLE);
+        this.lastTick = this.phaseStart - this.tickStart;
+        this.tick.record(this.lastTick);
+    }
+
+    /**
+     * Signals that the loop is stopped (pause or game over), so the next
+     * period between two ticks isn't recorded.
+     */
+    public void suspend() {
+        this.lastTickStart = 0;
+        this.fps = 0;
+    }
+
+    /**
+     * The counter is updated after the start of the tick: reading it before and
+     * after {@link #getTickStart()} tells if the start belongs to the tick.
+     *
+     * @return the number of ticks started.
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} when the current tick started.
+     */
+    public long getTickStart() {
+        return this.tickStart;
+    }
+
+    /**
+     * @return the phase executed now by the game loop.
+     */
+    public LoopPhase getCurrentPhase() {
+        return this.current;
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} when the current phase started.
+     */
+    public long getPhaseStart() {
+        return this.phaseStart;
+    }
+
+    /**
+     * @param nanos
+     *            the period between two ticks the game loop aims to.
+     */
+    public void setTargetPeriod(final long nanos) {
+        this.targetPeriod = nanos;
+    }
+
+    /**
+     * @return the period between two ticks the game loop aims to, in
+     *         nanoseconds.
+     */
+    public long getTargetPeriod() {
+        return this.targetPeriod;
+    }
+
+    /**
+     * @return the id of the thread running the game loop, or -1 if it hasn't
+     *         started yet.
+     */
+    public long getGameThreadId() {
+        return this.gameThreadId;
+    }
+
+    /**
+     * @return the duration of the last tick in nanoseconds.
+     */
+    public long getLastTick() {
+        return this.lastTick;
+    }
+
+    /**
+     * @param phase
+     *            a phase of the tick, except {@link LoopPhase#IDLE}.
+     * @return the last duration of the phase in nanoseconds.
+     */
+    public long getLastPhase(final LoopPhase phase) {
+        return this.lastPhases.get(phase.ordinal());
+    }
+
+    /**
+     * Copies the last periods between two ticks, from the oldest to the
+     * newest.
+     *
+     * @param dest
+     *            the array which receives the periods in nanoseconds.
+     * @return the number of periods copied.
+     */
+    public int copyRecentPeriods(final long[] dest) {
+        final int count = this.periodsCount;
+        final int n = Math.min(Math.min(count, RECENT_PERIODS), dest.length);
+        for (int i = 0; i < n; i++) {
+            dest[i] = this.recentPeriods.get((count - n + i) & (RECENT_PERIODS - 1));
+        }
+        return n;
+    }
+
+    /**
+     * @return the frames per second, smoothed over the last ticks; 0 when the
+     *         loop is stopped.
+     */
+    public double getFps() {
+        return this.fps;
+    }
+
+    /**
+     * @param phase
+     *            a phase of the tick, except {@link LoopPhase#IDLE}.
+     * @return the durations of the phase in nanoseconds.
+     */
+    public Histogram getPhase(final LoopPhase phase) {
+        return this.phases[phase.ordinal()];
+    }
+
+    /**
+     * @return the durations of the ticks in nanoseconds, without sleeping.
+     */
+    public Histogram getTick() {
+        return this.tick;
+    }
+
+    /**
+     * @return the periods between the start of two consecutive ticks in
+     *         nanoseconds.
+     */
+    public Histogram getPeriod() {
+        return this.period;
+    }
+
+    /**
+     * @return the percentiles of every histogram, one per line.
+     */
+    public String summary() {
+        final StringBuilder sb = new StringBuilder("Game loop timings (ms):");
+        for (final LoopPhase phase : LoopPhase.values()) {
+            if (phase != LoopPhase.IDLE) {
+                sb.append(String.format("%n  %-10s %s", phase, this.getPhase(phase).toMillisString()));
+            }
+        }
+        sb.append(String.format("%n  %-10s %s", "TICK", this.tick.toMillisString()));
+        sb.append(String.format("%n  %-10s %s", "PERIOD", this.period.toMillisString()));
+        return sb.toString();
+    }
+
+    /**
+     * Appends the timings of the game just ended to loop-timings.txt, in the
+     * game folder, and resets them. It must be called by the game loop and it
+     * does nothing if the game isn't launched in debug mode.
+     */
+    public void dump() {
+        if (!Settings.DEBUG) {
+            return;
+        }
+        this.games++;
+        final String summary = this.summary();
+        System.out.println(summary);
+        final File file = new File(Settings.MY_FOLDER + DUMP_FILE);
+        try (PrintWriter out = new PrintWriter(new FileWriter(file, true))) {
+            out.println("Game " + this.games + " - " + new Date());
+            out.println(summary);
+        } catch (IOException e) {
+            System.out.println("Error writing " + file);
+        }
+        for (final Histogram h : this.phases) {
+            h.reset();
+        }
+        this.tick.reset();
+        this.period.reset();
+    }
+}
@@ -0,0 +1,174 @@
+package it.unibo.oop.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import it.unibo.oop.model.EntityCount;
+import it.unibo.oop.model.GameStateImpl;
+import it.unibo.oop.utilities.Histogram;
+import it.unibo.oop.view.AssetManager;
+import it.unibo.oop.view.AssetManagerImpl;
+
+/**
+ * Optional HTTP server which exposes the engine metrics at /metrics, in the
+ * Prometheus text format, on the loopback interface. It's started only if the
+ * game is launched with -Djohnny2d.metrics.port=&lt;port&gt;.
+ *
+ * <p>
+ * The metrics are read from the values published by the game thread
+ * (histograms, volatile counters), so a scrape never locks nor slows down the
+ * game loop.
+ */
+public final class MetricsServer {
+
+    /**
+     * System property with the port to listen on.
+     */
+    public static final String PORT_PROPERTY = "johnny2d.metrics.port";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final double TO_SECONDS = 1e9;
+    /* upper bounds of the buckets, in seconds */
+    private static final double[] BUCKETS = { 0.0005, 0.001, 0.002, 0.004, 0.008, 0.016, 0.033, 0.066, 0.1, 0.25,
+        0.5, 1 };
+
+    private final GameStateImpl gameState = GameStateImpl.getInstance();
+    private final LoopProfiler profiler = LoopProfiler.getInstance();
+    private final AssetManager assets = AssetManagerImpl.getInstance();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    private MetricsServer() {
+    }
+
+    /**
+     * Starts the server if the port has been set.
+     */
+    public static void startIfEnabled() {
+        final Integer port = Integer.getInteger(PORT_PROPERTY);
+        if (port == null) {
+            return;
+        }
+        try {
+            final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                    0);
+            final MetricsServer metrics = new MetricsServer();
+            server.createContext("/metrics", metrics::handle);
+            server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+                final Thread t = new Thread(r, "MetricsServer");
+                t.setDaemon(true);
+                return t;
+            }));
+            server.start();
+            System.out.println("Metrics served at http://localhost:" + server.getAddress().getPort() + "/metrics");
+        } catch (IOException e) {
+            System.out.println("Error starting the metrics server on port " + port);
+        }
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final byte[] body = this.scrape().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * @return the current metrics in the Prometheus text format.
+     */
+    String scrape() {
+        final StringBuilder sb = new StringBuilder();
+        histogram(sb, "johnny2d_tick_seconds", "Duration of the game loop ticks, without sleeping", "",
+                this.profiler.getTick(), true);
+        histogram(sb, "johnny2d_frame_period_seconds", "Period between the start of two ticks", "",
+                this.profiler.getPeriod(), true);
+        boolean first = true;
+        for (final LoopPhase phase : LoopPhase.values()) {
+            if (phase != LoopPhase.IDLE) {
+                histogram(sb, "johnny2d_phase_seconds", "Duration of each phase of the ticks",
+                        "phase=\"" + phase.name().toLowerCase(Locale.ROOT) + "\"", this.profiler.getPhase(phase),
+                        first);
+                first = false;
+            }
+        }
+        header(sb, "johnny2d_fps", "gauge", "Frames per second");
+        sample(sb, "johnny2d_fps", "", this.profiler.getFps());
+
+        header(sb, "johnny2d_entities", "gauge", "Entities in the arena by type");
+        for (final EntityCount count : EntityCount.values()) {
+            sample(sb, "johnny2d_entities", "type=\"" + count.name().toLowerCase(Locale.ROOT) + "\"",
+                    this.gameState.getCount(count));
+        }
+        header(sb, "johnny2d_monsters_cap_remaining", "gauge", "Monsters that can still be spawned in the level");
+        sample(sb, "johnny2d_monsters_cap_remaining", "", this.gameState.getMonstersCap());
+        header(sb, "johnny2d_shots_fired_total", "counter", "Bullets fired by the main character");
+        sample(sb, "johnny2d_shots_fired_total", "", this.gameState.getShotsFired());
+        header(sb, "johnny2d_spawn_attempts_total", "counter", "Random positions tried to spawn monsters");
+        sample(sb, "johnny2d_spawn_attempts_total", "", this.gameState.getSpawnAttempts());
+
+        final long gameThread = this.profiler.getGameThreadId();
+        if (gameThread >= 0 && this.threads instanceof com.sun.management.ThreadMXBean) {
+            final long bytes = ((com.sun.management.ThreadMXBean) this.threads).getThreadAllocatedBytes(gameThread);
+            if (bytes >= 0) {
+                header(sb, "johnny2d_game_thread_allocated_bytes_total", "counter",
+                        "Bytes allocated by the game loop thread, use rate() for the allocation rate");
+                sample(sb, "johnny2d_game_thread_allocated_bytes_total", "", bytes);
+            }
+        }
+
+        header(sb, "johnny2d_asset_cache_requests_total", "counter", "Requests to the asset cache by result");
+        sample(sb, "johnny2d_asset_cache_requests_total", "result=\"hit\"", this.assets.getHits());
+        sample(sb, "johnny2d_asset_cache_requests_total", "result=\"miss\"", this.assets.getMisses());
+        header(sb, "johnny2d_asset_cache_evictions_total", "counter", "Images evicted from the asset cache");
+        sample(sb, "johnny2d_asset_cache_evictions_total", "", this.assets.getEvictions());
+        header(sb, "johnny2d_asset_cache_bytes", "gauge", "Decoded bytes kept in the asset cache");
+        sample(sb, "johnny2d_asset_cache_bytes", "", this.assets.getCachedBytes());
+        return sb.toString();
+    }
+
+    private static void histogram(final StringBuilder sb, final String name, final String help, final String labels,
+            final Histogram histogram, final boolean withHeader) {
+        if (withHeader) {
+            header(sb, name, "histogram", help);
+        }
+        final String prefix = labels.isEmpty() ? "" : labels + ",";
+        final long count = histogram.getCount(); // read first, the buckets are at least as recent
+        for (final double bound : BUCKETS) {
+            sample(sb, name + "_bucket", prefix + "le=\"" + BigDecimal.valueOf(bound).toPlainString() + "\"",
+                    Math.min(count, histogram.getCountAtOrBelow((long) (bound * TO_SECONDS))));
+        }
+        sample(sb, name + "_bucket", prefix + "le=\"+Inf\"", count);
+        sample(sb, name + "_sum", labels, histogram.getSum() / TO_SECONDS);
+        sample(sb, name + "_count", labels, count);
+    }
+
+    private static void header(final StringBuilder sb, final String name, final String type, final String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(final StringBuilder sb, final String name, final String labels, final double value) {
+        sb.append(name);
+        if (!labels.isEmpty()) {
+            sb.append('{').append(labels).append('}');
+        }
+        sb.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < Long.MAX_VALUE) {
+            sb.append((long) value);
+        } else {
+            sb.append(value);
+        }
+        sb.append('\n');
+    }
+}
@@ -4,6 +4,8 @@ import java.io.IOException;
 
 import it.unibo.oop.model.GameStateImpl;
 import it.unibo.oop.utilities.MusicPlayerImpl;
+import it.unibo.oop.utilities.SoundMixerImpl;
+import it.unibo.oop.view.InputLatencyMonitor;
 import it.unibo.oop.view.View;
 
 /**
@@ -42,13 +44,18 @@ public class StateObserverImpl implements StateObserver {
         case BACK:
             this.view.showLast();
             break;
+        case PAUSE:
+            InputLatencyMonitor.getInstance().report();
+            break;
         case GAME_OVER:
+            InputLatencyMonitor.getInstance().report();
+            LoopProfiler.getInstance().dump();
             GameStateImpl.getInstance().checkTopScore();
-            MusicPlayerImpl.getInstance().stopAll();
-            MusicPlayerImpl.getInstance().play(MusicPlayerImpl.GAME_OVER);
+            MusicPlayerImpl.getInstance().play(MusicPlayerImpl.GAME_OVER); // cross-fades the level music
             break;
         case EXIT:
             MusicPlayerImpl.getInstance().closeMusicPlayer();
+            SoundMixerImpl.getInstance().closeMixer();
             try {
                 ControllerImpl.getInstance().putStatToFile();
             } catch (IOException e) {
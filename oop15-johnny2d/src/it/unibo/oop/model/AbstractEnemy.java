@@ -3,6 +3,9 @@ package it.unibo.oop.model;
 import java.util.Optional;
 
 import it.unibo.oop.exceptions.CollisionHandlingException;
+import it.unibo.oop.utilities.Log;
+import it.unibo.oop.utilities.LogImpl;
+import it.unibo.oop.utilities.LogLevel;
 import it.unibo.oop.utilities.Position;
 import it.unibo.oop.utilities.Vector2;
 import it.unibo.oop.utilities.Velocity;
@@ -13,7 +16,20 @@ import it.unibo.oop.utilities.Velocity;
  */
 public abstract class AbstractEnemy extends MovableEntity implements Enemy {
 
+    private static final Log LOG = LogImpl.getInstance();
+    // Local steering in the crowd
+    private static final double NEIGHBOUR_RADIUS = 56;
+    private static final double SEPARATION_RADIUS = 40;
+    private static final double AVOIDANCE_WIDTH = 32;
+    private static final double SEPARATION_WEIGHT = 1.5;
+    private static final double COHESION_WEIGHT = 0.2;
+    private static final double AVOIDANCE_WEIGHT = 0.8;
+    private static final int MAX_NEIGHBOURS = 6;
+    private static final double MIN_STEERING = 1e-6;
+    /* only the game thread updates the enemies, so they share the buffer */
+    private static final AbstractEnemy[] NEIGHBOURS = new AbstractEnemy[MAX_NEIGHBOURS];
     private Optional<MovementBehavior> behavior;
+    private long lastThought = -1;
 
     /**
      * Constructor with all the parameters to create an {@link Enemy} without a
@@ -54,26 +70,124 @@ public abstract class AbstractEnemy extends MovableEntity implements Enemy {
     }
 
     /**
-     * Method that updates the {@link Enemy} to the next position using his
-     * {@link Vector2}, his {@link Velocity}, his {@link Position} and his
-     * {@link MovementBehavior} and checks the collisions.
+     * Method that updates the {@link Enemy} to the next position, thinking
+     * again its movement or keeping the last one as decided by the
+     * {@link AiScheduler} of the game.
      */
     public void update() {
+        this.getEnvironment().getAiScheduler().update(this);
+    }
+
+    /**
+     * Moves the {@link Enemy} using his {@link Vector2}, his {@link Velocity},
+     * his {@link Position} and his {@link MovementBehavior}, corrected by the
+     * near enemies, and checks the collisions. If the corrected movement
+     * collides, it tries the one of the {@link MovementBehavior}.
+     */
+    void think() {
+        final Vector2 newMovement;
+        if (this.getEnvironment().getMainChar().isPresent() && this.getBehavior().isPresent()) {
+            newMovement = this.getBehavior().get()
+                    .getNextMove(this.getEnvironment().getMainChar().get().getPosition());
+        } else {
+            newMovement = new Vector2();
+        }
+        final Vector2 steered = this.steer(newMovement);
+        if (!this.tryMove(steered) && (steered == newMovement || !this.tryMove(newMovement))) {
+            LOG.log(LogLevel.DEBUG, "The monster collided so he cant move and %s",
+                    this.isDead() ? "is dead" : "is not dead");
+        }
+    }
+
+    /**
+     * Moves the {@link Enemy} with his last movement, if it doesn't collide.
+     */
+    void extrapolate() {
+        if (!this.tryMove(this.getMovement())) {
+            this.setMovement(new Vector2());
+        }
+    }
+
+    /**
+     * @return the update when the {@link Enemy} last thought, -1 if never
+     */
+    long getLastThought() {
+        return this.lastThought;
+    }
+
+    /**
+     * @param update
+     *            the update when the {@link Enemy} thought
+     */
+    void setLastThought(final long update) {
+        this.lastThought = update;
+    }
+
+    private boolean tryMove(final Vector2 newMovement) {
         try {
-            Vector2 newMovement;
-            if (this.getEnvironment().getMainChar().isPresent() && this.getBehavior().isPresent()) {
-                newMovement = this.getBehavior().get()
-                        .getNextMove(this.getEnvironment().getMainChar().get().getPosition());
-            } else {
-                newMovement = new Vector2();
-            }
             this.checkCollision(this.getPosition().sumVector(newMovement));
             this.setMovement(newMovement);
             this.move();
+            return true;
         } catch (CollisionHandlingException e) {
-            System.out.println("The monster collided so he cant move and" + (this.isDead()?" is dead":" is not dead"));
+            return false;
         }
+    }
 
+    /*
+     * Adds to the movement the separation from the too near enemies, the
+     * cohesion with the group and the avoidance of the enemies ahead, keeping
+     * its length. Only a few neighbours found in the CrowdGrid are considered,
+     * so the cost doesn't grow with the crowd.
+     */
+    private Vector2 steer(final Vector2 movement) {
+        final double speed = movement.length();
+        if (speed < MIN_STEERING) {
+            return movement;
+        }
+        final int found = this.getEnvironment().getCrowdGrid().queryNeighbours(this.getX(), this.getY(),
+                NEIGHBOUR_RADIUS, this, NEIGHBOURS);
+        if (found == 0) {
+            return movement;
+        }
+        final double dirX = movement.getX() / speed;
+        final double dirY = movement.getY() / speed;
+        double separationX = 0;
+        double separationY = 0;
+        double centreX = 0;
+        double centreY = 0;
+        double avoidance = 0; // along the left perpendicular (-dirY, dirX)
+        for (int i = 0; i < found; i++) {
+            final AbstractEnemy other = NEIGHBOURS[i];
+            NEIGHBOURS[i] = null;
+            final double dx = other.getX() - this.getX();
+            final double dy = other.getY() - this.getY();
+            final double distance = Math.sqrt(dx * dx + dy * dy);
+            final double ahead = dx * dirX + dy * dirY;
+            final double side = dy * dirX - dx * dirY;
+            if (distance < MIN_STEERING) { // on the same point: they split sideways, one per side
+                final int way = System.identityHashCode(this) < System.identityHashCode(other) ? 1 : -1;
+                separationX -= way * dirY;
+                separationY += way * dirX;
+            } else if (distance < SEPARATION_RADIUS) {
+                final double weight = (SEPARATION_RADIUS - distance) / SEPARATION_RADIUS / distance;
+                separationX -= dx * weight;
+                separationY -= dy * weight;
+            }
+            if (ahead > 0 && Math.abs(side) < AVOIDANCE_WIDTH) {
+                avoidance += (side > 0 ? -1 : 1) * (1 - ahead / NEIGHBOUR_RADIUS);
+            }
+            centreX += dx;
+            centreY += dy;
+        }
+        final double steeredX = dirX + SEPARATION_WEIGHT * separationX
+                + COHESION_WEIGHT * centreX / found / NEIGHBOUR_RADIUS - AVOIDANCE_WEIGHT * avoidance * dirY;
+        final double steeredY = dirY + SEPARATION_WEIGHT * separationY
+                + COHESION_WEIGHT * centreY / found / NEIGHBOUR_RADIUS + AVOIDANCE_WEIGHT * avoidance * dirX;
+        if (Math.abs(steeredX) < MIN_STEERING && Math.abs(steeredY) < MIN_STEERING) {
+            return movement;
+        }
+        return new Vector2(steeredX, steeredY).setLength(speed);
     }
 
     /**
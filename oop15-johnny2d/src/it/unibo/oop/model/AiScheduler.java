@@ -0,0 +1,158 @@
+package it.unibo.oop.model;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Level of detail of the enemies AI. The enemies near the
+ * {@link MainCharacter} think (follow their {@link MovementBehavior} and the
+ * crowd) at every update; the farther ones every few updates, and in the other
+ * ones they keep going with their last movement. All the thinking, near or
+ * far, is charged to a time budget per update: when it's spent, the enemies
+ * left wait for the next updates. Only the ones which have waited twice their
+ * period still think, at most {@value #OVERDUE_QUOTA} per update, so the AI
+ * cost of an update is bounded by the budget plus that quota even in a crowd,
+ * and every enemy thinks again in turn.
+ *
+ * <p>
+ * The budget can be changed while playing; its initial value, in
+ * microseconds, is read from the property {@value #BUDGET_PROPERTY}.
+ */
+public class AiScheduler {
+
+    /**
+     * System property with the initial budget in microseconds.
+     */
+    public static final String BUDGET_PROPERTY = "johnny2d.ai.budget";
+    private static final int DEFAULT_BUDGET = 2000; // us
+    private static final double NEAR_DISTANCE = 250;
+    private static final double MIDDLE_DISTANCE = 550;
+    private static final int MIDDLE_PERIOD = 2;
+    private static final int FAR_PERIOD = 4;
+    private static final int NEAR_PERIOD = 1;
+    private static final int OVERDUE_QUOTA = 8; // overdue enemies which think over the budget
+
+    private volatile long budget = TimeUnit.MICROSECONDS.toNanos(Integer.getInteger(BUDGET_PROPERTY, DEFAULT_BUDGET));
+    private long tick;
+    private long tickStart;
+    private double heroX;
+    private double heroY;
+    private boolean hasHero;
+    private long spent;
+    private int thought;
+    private int overdue;
+    private int extrapolated;
+    private volatile int lastThought;
+    private volatile int lastExtrapolated;
+
+    /**
+     * Starts a new update.
+     *
+     * @param hero
+     *            the {@link MainCharacter}, null if there's none
+     */
+    public void beginTick(final Entity hero) {
+        this.lastThought = this.thought;
+        this.lastExtrapolated = this.extrapolated;
+        this.thought = 0;
+        this.overdue = 0;
+        this.extrapolated = 0;
+        this.spent = 0;
+        this.tick++;
+        this.tickStart = System.nanoTime();
+        this.hasHero = hero != null;
+        if (this.hasHero) {
+            this.heroX = hero.getPosition().getX();
+            this.heroY = hero.getPosition().getY();
+        }
+    }
+
+    /**
+     * Updates an enemy, thinking or keeping its movement according to its
+     * distance and the budget left.
+     *
+     * @param enemy
+     *            the {@link AbstractEnemy} to update
+     */
+    public void update(final AbstractEnemy enemy) {
+        final int period = this.periodOf(enemy);
+        final long waited = enemy.getLastThought() < 0 ? Long.MAX_VALUE : this.tick - enemy.getLastThought();
+        if (waited >= period && this.spent < this.budget) {
+            this.think(enemy);
+        } else if (waited >= 2L * period && this.overdue < OVERDUE_QUOTA) {
+            this.overdue++;
+            this.think(enemy);
+        } else {
+            this.extrapolated++;
+            enemy.extrapolate();
+        }
+    }
+
+    private void think(final AbstractEnemy enemy) {
+        final long start = System.nanoTime();
+        this.thought++;
+        enemy.setLastThought(this.tick);
+        enemy.think();
+        this.spent += System.nanoTime() - start;
+    }
+
+    /* the visible invisible enemies think as the near ones */
+    private int periodOf(final AbstractEnemy enemy) {
+        if (!this.hasHero || enemy instanceof InvisibleMonster && ((InvisibleMonster) enemy).isVisible()) {
+            return NEAR_PERIOD;
+        }
+        final double distance2 = this.distance2(enemy);
+        return distance2 < NEAR_DISTANCE * NEAR_DISTANCE ? NEAR_PERIOD
+                : distance2 < MIDDLE_DISTANCE * MIDDLE_DISTANCE ? MIDDLE_PERIOD : FAR_PERIOD;
+    }
+
+    private double distance2(final AbstractEnemy enemy) {
+        final double dx = enemy.getX() - this.heroX;
+        final double dy = enemy.getY() - this.heroY;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Tells the {@link BehaviorTree} visits if they have to stop, because the
+     * budget has passed since the beginning of the update (never before the
+     * first update).
+     *
+     * @return true if the AI time of the update is spent
+     */
+    public boolean isOverBudget() {
+        return this.tick > 0 && System.nanoTime() - this.tickStart >= this.budget;
+    }
+
+    /**
+     * @return the time the enemies can spend thinking in an update, in
+     *         microseconds
+     */
+    public long getBudget() {
+        return TimeUnit.NANOSECONDS.toMicros(this.budget);
+    }
+
+    /**
+     * @param micros
+     *            the time the enemies can spend thinking in an update, in
+     *            microseconds
+     */
+    public void setBudget(final long micros) {
+        if (micros < 0) {
+            throw new IllegalArgumentException("Negative budget: " + micros);
+        }
+        this.budget = TimeUnit.MICROSECONDS.toNanos(micros);
+    }
+
+    /**
+     * @return the enemies which thought in the last update
+     */
+    public int getThoughtLastUpdate() {
+        return this.lastThought;
+    }
+
+    /**
+     * @return the enemies which kept their movement in the last update
+     */
+    public int getExtrapolatedLastUpdate() {
+        return this.lastExtrapolated;
+    }
+}
@@ -3,8 +3,11 @@ package it.unibo.oop.model;
 import static it.unibo.oop.utilities.CharactersSettings.WALL;
 
 import java.awt.Rectangle;
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Random;
 
 import it.unibo.oop.utilities.CharactersSettings;
@@ -17,11 +20,15 @@ import it.unibo.oop.utilities.Position;
 public class Arena {
 
     private static final int EMPTY_SPACES = 2;
+    private static final int MAX_TRIES = 100; // random positions tried to get out of the walls
 
     private final List<Wall> boundsList;
+    private final List<Wall> borderList;
     private final Rectangle playableRectangle;
 
     private final List<Position> spawnPoints;
+    private final TileGrid tileGrid;
+    private Optional<String> background = Optional.empty();
 
     /**
      * Constructor that creates an {@link Arena} made by {@link Wall} inside a
@@ -63,6 +70,64 @@ public class Arena {
                 (int) (heightBlocks - 2 * EMPTY_SPACES - 2) * WALL.getHeight());
 
         this.spawnPoints = new ArrayList<>();
+        this.borderList = new ArrayList<>(this.boundsList);
+
+        // Grid of the tiles, aligned to the walls: only the cells inside them are walkable
+        this.tileGrid = new TileGrid(widthRest / 2, hudDimension + heightRest / 2, widthBlocks, heightBlocks,
+                WALL.getWidth(), WALL.getHeight());
+        this.reset();
+    }
+
+    /**
+     * Brings the arena back to its border walls, without the walls, the
+     * spawn points and the background of a loaded level
+     */
+    public void reset() {
+        this.boundsList.clear();
+        this.boundsList.addAll(this.borderList);
+        this.spawnPoints.clear();
+        this.background = Optional.empty();
+        for (int cell = 0; cell < this.tileGrid.size(); cell++) {
+            this.tileGrid.setBlocked(cell % this.tileGrid.getColumns(), cell / this.tileGrid.getColumns(),
+                    !this.playableRectangle.contains(this.tileGrid.getCenterX(cell), this.tileGrid.getCenterY(cell)));
+        }
+        this.boundsList.forEach(this.tileGrid::block);
+    }
+
+    /**
+     * Loads a designed level in the arena, in the {@link LevelFormat}: its
+     * walls go in the {@link TileGrid}, merged in few {@link Wall} for the
+     * collisions, and its spawn points in the spawn points list. The border
+     * walls stay, the tiles outside them are left out.
+     * @param level the channel of the level file
+     * @throws IOException if the level can't be read; the arena is reset
+     */
+    public void loadLevel(final ReadableByteChannel level) throws IOException {
+        this.reset();
+        try {
+            this.background = Optional.of(LevelFormat.read(level, this.tileGrid, this.spawnPoints::add));
+        } catch (IOException e) {
+            this.reset();
+            throw e;
+        }
+        // the blocked cells inside the border become the walls of the level
+        final TileMap walls = new TileMap(this.tileGrid.getColumns(), this.tileGrid.getRows());
+        for (int cell = 0; cell < this.tileGrid.size(); cell++) {
+            if (!this.tileGrid.isWalkable(cell)
+                    && this.playableRectangle.contains(this.tileGrid.getCenterX(cell), this.tileGrid.getCenterY(cell))) {
+                walls.set(cell % this.tileGrid.getColumns(), cell / this.tileGrid.getColumns(), TileMap.WALL);
+            }
+        }
+        this.boundsList.addAll(Factory.WallFactory.generateWalls(walls, this.tileGrid));
+    }
+
+    /**
+     * Returns the background key of the loaded level, the resource of its
+     * field
+     * @return the background, empty if no level is loaded
+     */
+    public Optional<String> getBackground() {
+        return this.background;
     }
 
     /**
@@ -73,6 +138,15 @@ public class Arena {
         return this.boundsList;
     }
 
+    /**
+     * Returns the {@link TileGrid} of the arena, used by the navigation of the
+     * enemies
+     * @return the grid of the tiles
+     */
+    public TileGrid getTileGrid() {
+        return this.tileGrid;
+    }
+
     /**
      * Getter that returns a {@link Rectangle} of the playable place inside the
      * {@link List} of {@link Wall}
@@ -83,7 +157,7 @@ public class Arena {
     }
 
     /**
-     * Return the possible spawn points (NOT used for now)
+     * Return the possible spawn points, the ones of the loaded level
      * 
      */
     public List<Position> getSpawnPoints() {
@@ -105,8 +179,7 @@ public class Arena {
      * @return a random spawn {@link Position}
      */
     public Position getRandomSpawnPoint() {
-        final Random tmpRandom = new Random(this.spawnPoints.size());
-        return this.spawnPoints.get(tmpRandom.nextInt());
+        return this.spawnPoints.get(new Random().nextInt(this.spawnPoints.size()));
     }
 
     /**
@@ -138,16 +211,42 @@ public class Arena {
     }
 
     /**
-     * Gets a position inside the playable {@link Rectangle}
+     * Gets a position inside the playable {@link Rectangle}, where the bounds
+     * of the character are out of the walls of the loaded level
      * @param characterType the type of Character to spawn inside the area
-     * @return a {@link Position} inside the area
-     */
-    public Position getPositionInside(final CharactersSettings characterType) {
-        final double newX = this.playableRectangle.getX() + characterType.getWidth() / 2;
-        final double newY = this.playableRectangle.getY() + characterType.getHeight() / 2;
-        final double newWidth = this.playableRectangle.getWidth() - characterType.getWidth();
-        final double newHeight = this.playableRectangle.getHeight() - characterType.getHeight();
-        return new Position(newX + new Random().nextInt((int) newWidth), newY + new Random().nextInt((int) newHeight));
+     * @return a {@link Position} inside the area, empty if no free one has
+     *         been found
+     */
+    public Optional<Position> getPositionInside(final CharactersSettings characterType) {
+        final int width = characterType.getWidth();
+        final int height = characterType.getHeight();
+        final double newX = this.playableRectangle.getX() + width / 2;
+        final double newY = this.playableRectangle.getY() + height / 2;
+        final double newWidth = this.playableRectangle.getWidth() - width;
+        final double newHeight = this.playableRectangle.getHeight() - height;
+        final Random random = new Random();
+        for (int tries = 0; tries < MAX_TRIES; tries++) {
+            final Position position = new Position(newX + random.nextInt((int) newWidth),
+                    newY + random.nextInt((int) newHeight));
+            if (this.isWalkable(position.getIntX() - width / 2, position.getIntY() - height / 2, width, height)) {
+                return Optional.of(position);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /* all the cells under the area are walkable */
+    private boolean isWalkable(final int left, final int top, final int width, final int height) {
+        final int lastColumn = this.tileGrid.columnOf(left + width - 1);
+        final int lastRow = this.tileGrid.rowOf(top + height - 1);
+        for (int row = this.tileGrid.rowOf(top); row <= lastRow; row++) {
+            for (int column = this.tileGrid.columnOf(left); column <= lastColumn; column++) {
+                if (!this.tileGrid.isWalkable(column, row)) {
+                    return false;
+                }
+            }
+        }
+        return true;
     }
 
     /**
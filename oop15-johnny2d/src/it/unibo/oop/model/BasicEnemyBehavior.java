@@ -21,12 +21,12 @@ public class BasicEnemyBehavior implements MovementBehavior {
 
     /**
      * Returns a {@link Vector2} that indicates where the {@link Enemy} should
-     * go to follow the {@link MainCharacter}.
+     * go to follow the {@link MainCharacter}, going around the walls with the
+     * {@link FlowField} of the game.
      * @return The next movement vector
      */
     public Vector2 getNextMove(final Position targetPosition) {
-        final double distanceX = targetPosition.getX() - playerPosition.getX();
-        final double distanceY = targetPosition.getY() - playerPosition.getY();
-        return new Vector2(distanceX, distanceY).setLength(playerPosition.getVelocity().getMaxVelocity());
+        return playerPosition.getEnvironment().getFlowField().getNextMove(playerPosition.getPosition(),
+                targetPosition, playerPosition.getVelocity().getMaxVelocity());
     }
 }
@@ -2,9 +2,6 @@ package it.unibo.oop.model;
 
 import static it.unibo.oop.utilities.CharactersSettings.BASIC_ENEMY;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 import it.unibo.oop.exceptions.CollisionHandlingException;
 import it.unibo.oop.utilities.Position;
 import it.unibo.oop.utilities.Vector2;;
@@ -52,11 +49,8 @@ public class BasicMonster extends AbstractEnemy {
         if (numWallCollisions > 0) {
             throw new CollisionHandlingException("Next movement collides a wall");
         }
-        final List<AbstractEnemy> enemyCollisions = this.getEnvironment().getMovableList().stream()
-                .filter(x -> x instanceof AbstractEnemy).filter(tmpEnemy::intersecate).map(x -> (AbstractEnemy) x)
-                .collect(Collectors.toList());
-        // If the monster collides with other enemies except himself (1)
-        if (enemyCollisions.size() > 1) {
+        // If the monster collides with other enemies except himself
+        if (this.getEnvironment().getCrowdGrid().intersectsOther(tmpEnemy.getBounds(), this)) {
             throw new CollisionHandlingException();
         }
 
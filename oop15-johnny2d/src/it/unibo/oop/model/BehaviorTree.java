@@ -0,0 +1,252 @@
+package it.unibo.oop.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A behavior tree made of selectors, sequences, conditions and actions. The
+ * tree is only a description, shared by all the enemies which use it: the
+ * nodes are flattened in arrays and every enemy keeps its own state (the
+ * {@link Blackboard}) in small arrays of its own.
+ *
+ * <p>
+ * A tick visits the tree from the root without recursion, with the stack in
+ * the {@link Blackboard}; when the AI time of the update is spent the visit
+ * stops before the next condition or action and goes on at the next tick, so
+ * a large tree never makes a frame late. At least one condition or action is
+ * run at each tick.
+ */
+public final class BehaviorTree {
+
+    /**
+     * Result of a node.
+     */
+    public enum Status {
+        /**
+         * The node has done its job.
+         */
+        SUCCESS,
+        /**
+         * The node can't do its job.
+         */
+        FAILURE,
+        /**
+         * The node is doing its job, which takes more ticks.
+         */
+        RUNNING
+    }
+
+    /**
+     * A test on the state of an enemy.
+     */
+    @FunctionalInterface
+    public interface Condition {
+        /**
+         * @param blackboard
+         *            the state of the enemy
+         * @return true if the condition holds
+         */
+        boolean test(Blackboard blackboard);
+    }
+
+    /**
+     * Something an enemy does, usually setting its movement.
+     */
+    @FunctionalInterface
+    public interface Action {
+        /**
+         * @param blackboard
+         *            the state of the enemy
+         * @return the result of the action
+         */
+        Status run(Blackboard blackboard);
+    }
+
+    /**
+     * Description of a node, to build a tree. It has no state, so the same
+     * node can appear in many trees.
+     */
+    public static final class Node {
+        private final int kind;
+        private final Node[] children;
+        private final Condition condition;
+        private final Action action;
+
+        private Node(final int kind, final Node[] children, final Condition condition, final Action action) {
+            this.kind = kind;
+            this.children = children.clone();
+            this.condition = condition;
+            this.action = action;
+        }
+    }
+
+    private static final int SELECTOR = 0;
+    private static final int SEQUENCE = 1;
+    private static final int CONDITION = 2;
+    private static final int ACTION = 3;
+    private static final Node[] LEAF = {};
+
+    private final int[] kinds;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final Condition[] conditions;
+    private final Action[] actions;
+    private final int depth;
+    private final int intSlots;
+    private final int doubleSlots;
+
+    /**
+     * Creates a tree.
+     *
+     * @param root
+     *            the root node
+     * @param intSlots
+     *            the int values of the {@link Blackboard}
+     * @param doubleSlots
+     *            the double values of the {@link Blackboard}
+     */
+    public BehaviorTree(final Node root, final int intSlots, final int doubleSlots) {
+        final List<Node> nodes = new ArrayList<>();
+        nodes.add(root);
+        // breadth first, so the children of a node have consecutive indexes
+        for (int i = 0; i < nodes.size(); i++) {
+            for (final Node child : nodes.get(i).children) {
+                nodes.add(child);
+            }
+        }
+        this.kinds = new int[nodes.size()];
+        this.firstChild = new int[nodes.size()];
+        this.childCount = new int[nodes.size()];
+        this.conditions = new Condition[nodes.size()];
+        this.actions = new Action[nodes.size()];
+        int next = 1;
+        for (int i = 0; i < nodes.size(); i++) {
+            final Node node = nodes.get(i);
+            this.kinds[i] = node.kind;
+            this.conditions[i] = node.condition;
+            this.actions[i] = node.action;
+            this.firstChild[i] = next;
+            this.childCount[i] = node.children.length;
+            next += node.children.length;
+        }
+        this.depth = depthOf(root);
+        this.intSlots = intSlots;
+        this.doubleSlots = doubleSlots;
+    }
+
+    /**
+     * @param children
+     *            the children, tried in order
+     * @return a node which succeeds with the first child which doesn't fail
+     */
+    public static Node selector(final Node... children) {
+        return new Node(SELECTOR, children, null, null);
+    }
+
+    /**
+     * @param children
+     *            the children, run in order
+     * @return a node which fails with the first child which doesn't succeed
+     */
+    public static Node sequence(final Node... children) {
+        return new Node(SEQUENCE, children, null, null);
+    }
+
+    /**
+     * @param condition
+     *            the test
+     * @return a node which succeeds if the test holds, fails otherwise
+     */
+    public static Node condition(final Condition condition) {
+        return new Node(CONDITION, LEAF, condition, null);
+    }
+
+    /**
+     * @param action
+     *            the action
+     * @return a node with the result of the action
+     */
+    public static Node action(final Action action) {
+        return new Node(ACTION, LEAF, null, action);
+    }
+
+    /**
+     * Creates the state of an entity for this tree.
+     *
+     * @param entity
+     *            the entity which uses the tree
+     * @return a new {@link Blackboard}
+     */
+    public Blackboard newBlackboard(final MovableEntity entity) {
+        return new Blackboard(entity, this.depth, this.intSlots, this.doubleSlots);
+    }
+
+    /**
+     * Visits the tree, or goes on with the visit stopped at the last tick.
+     *
+     * @param blackboard
+     *            the state of the entity, created by this tree
+     * @param outOfTime
+     *            tells if the AI time of the update is spent
+     * @return true if the visit has ended, false if it has been stopped
+     */
+    public boolean tick(final Blackboard blackboard, final BooleanSupplier outOfTime) {
+        final int[] stack = blackboard.getStack();
+        final int[] cursors = blackboard.getCursors();
+        int top = blackboard.getTop();
+        Status result = blackboard.getStatus();
+        if (top == 0) {
+            stack[0] = 0;
+            cursors[0] = -1;
+            top = 1;
+        }
+        boolean leafRun = false;
+        while (top > 0) {
+            final int node = stack[top - 1];
+            if (this.kinds[node] == CONDITION || this.kinds[node] == ACTION) {
+                if (leafRun && outOfTime.getAsBoolean()) {
+                    blackboard.suspend(top, result);
+                    return false;
+                }
+                leafRun = true;
+            }
+            switch (this.kinds[node]) {
+            case CONDITION:
+                result = this.conditions[node].test(blackboard) ? Status.SUCCESS : Status.FAILURE;
+                top--;
+                break;
+            case ACTION:
+                result = this.actions[node].run(blackboard);
+                top--;
+                break;
+            default: { // composite: the result is the one of the last child, if any
+                final boolean selector = this.kinds[node] == SELECTOR;
+                final int cursor = cursors[top - 1];
+                if (cursor >= 0 && result != (selector ? Status.FAILURE : Status.SUCCESS)) {
+                    top--; // a selector stops at the first child which doesn't fail, a sequence at the first
+                           // which doesn't succeed, keeping its result
+                } else if (cursor + 1 < this.childCount[node]) {
+                    cursors[top - 1] = cursor + 1;
+                    stack[top] = this.firstChild[node] + cursor + 1;
+                    cursors[top] = -1;
+                    top++;
+                } else {
+                    result = selector ? Status.FAILURE : Status.SUCCESS;
+                    top--;
+                }
+            }
+            }
+        }
+        blackboard.suspend(0, result);
+        return true;
+    }
+
+    private static int depthOf(final Node node) {
+        int max = 0;
+        for (final Node child : node.children) {
+            max = Math.max(max, depthOf(child));
+        }
+        return max + 1;
+    }
+}
@@ -0,0 +1,134 @@
+package it.unibo.oop.model;
+
+import it.unibo.oop.utilities.Position;
+import it.unibo.oop.utilities.Vector2;
+
+/**
+ * State of an entity driven by a {@link BehaviorTree}: its target, the
+ * movement chosen by the actions, a few int and double values the nodes can
+ * use, indexed by the constants of the tree, and the visit of the tree
+ * stopped when the AI time ran out.
+ */
+public class Blackboard {
+
+    private final MovableEntity entity;
+    private final int[] ints;
+    private final double[] doubles;
+    private final int[] stack;
+    private final int[] cursors;
+    private int top;
+    private BehaviorTree.Status status = BehaviorTree.Status.FAILURE;
+    private Position target = new Position(0, 0);
+    private Vector2 movement = new Vector2();
+
+    /**
+     * Creates an empty state, use {@link BehaviorTree#newBlackboard}.
+     */
+    Blackboard(final MovableEntity entity, final int depth, final int intSlots, final int doubleSlots) {
+        this.entity = entity;
+        this.ints = new int[intSlots];
+        this.doubles = new double[doubleSlots];
+        this.stack = new int[depth];
+        this.cursors = new int[depth];
+    }
+
+    /**
+     * @return the entity driven by the tree
+     */
+    public MovableEntity getEntity() {
+        return this.entity;
+    }
+
+    /**
+     * @return the {@link Position} to reach
+     */
+    public Position getTarget() {
+        return this.target;
+    }
+
+    /**
+     * @param target
+     *            the {@link Position} to reach
+     */
+    public void setTarget(final Position target) {
+        this.target = target;
+    }
+
+    /**
+     * @return the movement chosen by the last action
+     */
+    public Vector2 getMovement() {
+        return this.movement;
+    }
+
+    /**
+     * @param movement
+     *            the movement of the entity
+     */
+    public void setMovement(final Vector2 movement) {
+        this.movement = movement;
+    }
+
+    /**
+     * @param slot
+     *            index of the value
+     * @return the int value
+     */
+    public int getInt(final int slot) {
+        return this.ints[slot];
+    }
+
+    /**
+     * @param slot
+     *            index of the value
+     * @param value
+     *            the new value
+     */
+    public void setInt(final int slot, final int value) {
+        this.ints[slot] = value;
+    }
+
+    /**
+     * @param slot
+     *            index of the value
+     * @return the double value
+     */
+    public double getDouble(final int slot) {
+        return this.doubles[slot];
+    }
+
+    /**
+     * @param slot
+     *            index of the value
+     * @param value
+     *            the new value
+     */
+    public void setDouble(final int slot, final double value) {
+        this.doubles[slot] = value;
+    }
+
+    /**
+     * @return the result of the last visit of the tree, or of the last node
+     *         if the visit has been stopped
+     */
+    public BehaviorTree.Status getStatus() {
+        return this.status;
+    }
+
+    int[] getStack() {
+        return this.stack;
+    }
+
+    int[] getCursors() {
+        return this.cursors;
+    }
+
+    int getTop() {
+        return this.top;
+    }
+
+    void suspend(final int newTop, final BehaviorTree.Status newStatus) {
+        this.top = newTop;
+        this.status = newStatus;
+    }
+}
@@ -7,7 +7,12 @@ import java.util.Random;
 import java.util.stream.Collectors;
 
 import it.unibo.oop.exceptions.CollisionHandlingException;
+import it.unibo.oop.utilities.Log;
+import it.unibo.oop.utilities.LogImpl;
+import it.unibo.oop.utilities.LogLevel;
 import it.unibo.oop.utilities.Position;
+import it.unibo.oop.utilities.SoundEffect;
+import it.unibo.oop.utilities.SoundMixerImpl;
 import it.unibo.oop.utilities.Vector2;
 
 /**
@@ -16,10 +21,12 @@ import it.unibo.oop.utilities.Vector2;
  */
 public class Bullet extends MovableEntity implements Shot {
 
+    private static final Log LOG = LogImpl.getInstance();
     private static final double BULLET_BASE = 500;
     private static final int BULLET_RANDOM = 500;
 
-    private double remainingDistance = BULLET_BASE + new Random().nextInt(BULLET_RANDOM);
+    private final double range = BULLET_BASE + new Random().nextInt(BULLET_RANDOM);
+    private final TimerWheel.Timer expiration = new TimerWheel.Timer(this::killEntity);
 
     /**
      * Constructor that takes the basic informations of the {@link Bullet}
@@ -81,6 +88,7 @@ public class Bullet extends MovableEntity implements Shot {
             // Removes the monsters from the envirnoment
             enemyCollisions.stream().forEach(x -> x.killEntity());
             this.killEntity();
+            SoundMixerImpl.getInstance().trigger(SoundEffect.HIT);
             // Throws the exception avoiding the next movement
             throw new CollisionHandlingException("This bullet collided an enemy");
         }
@@ -99,15 +107,38 @@ public class Bullet extends MovableEntity implements Shot {
             // moves if no exception
             this.setMovement(newMovement);
             this.move();
-            this.remainingDistance -= newLength;
-            if (this.getRemainingDistance() <= 0) {
-                this.killEntity();
-            }
         } catch (CollisionHandlingException e) {
-            System.out.println("The bullet collided with something");
+            LOG.log(LogLevel.DEBUG, "The bullet collided with something");
         }
     }
 
+    /**
+     * Schedules the death of the {@link Bullet} at the update when it will
+     * have travelled its distance, instead of checking it at every update.
+     * @param timers the {@link TimerWheel} of the game
+     */
+    void startLifetime(final TimerWheel timers) {
+        double length = this.getMovement().length();
+        double distance = this.range;
+        int updates = 0;
+        while (distance > 0) {
+            length = this.getVelocity().accelerate(length);
+            distance -= length;
+            updates++;
+        }
+        // the wheel advances at the end of the update, the first move is at the next one
+        timers.schedule(this.expiration, updates + 1);
+    }
+
+    /**
+     * Kills the {@link Bullet}, cancelling its expiration.
+     */
+    @Override
+    public void killEntity() {
+        super.killEntity();
+        this.expiration.cancel();
+    }
+
     /**
      * Gets the {@link Bullet} height
      * @return Entity height
@@ -125,10 +156,22 @@ public class Bullet extends MovableEntity implements Shot {
     }
 
     /**
-     * Gets the remaining distance of the {@link Bullet}
+     * Gets the remaining distance of the {@link Bullet}, computed from the
+     * updates left before its expiration, so there's no distance to keep
+     * up to date at every update
      * @return remaining distance
      */
     public double getRemainingDistance() {
-        return this.remainingDistance;
+        if (!this.expiration.isScheduled()) {
+            return this.isDead() ? 0 : this.range;
+        }
+        // the last update before the expiration doesn't move the bullet
+        double length = this.getMovement().length();
+        double distance = 0;
+        for (long moves = this.expiration.getRemaining() - 1; moves > 0; moves--) {
+            length = this.getVelocity().accelerate(length);
+            distance += length;
+        }
+        return distance;
     }
 }
@@ -0,0 +1,178 @@
+package it.unibo.oop.model;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform grid of the {@link AbstractEnemy} in the {@link Arena}, rebuilt at
+ * the beginning of every update, to find the near enemies without scanning
+ * the whole list. The enemies are sorted by cell (counting sort) into a
+ * single array, so a cell is a contiguous range and a rebuild doesn't
+ * allocate once the arrays are big enough.
+ *
+ * <p>
+ * The positions are the ones at the rebuild: during the update the enemies
+ * move by a few pixels, so the queries for collisions look a bit farther.
+ */
+public class CrowdGrid {
+
+    private static final int MIN_CAPACITY = 64;
+    private static final int DRIFT = 16; // more than an enemy moves in an update
+
+    private final int originX;
+    private final int originY;
+    private final int columns;
+    private final int rows;
+    private final int cellSize;
+    private final int[] cellStart;
+    private final int[] cursors;
+    private AbstractEnemy[] entries = new AbstractEnemy[MIN_CAPACITY];
+    private AbstractEnemy[] unsorted = new AbstractEnemy[MIN_CAPACITY];
+    private int[] unsortedCells = new int[MIN_CAPACITY];
+
+    /**
+     * Creates an empty grid.
+     *
+     * @param area
+     *            the area covered by the grid, the enemies outside are put in
+     *            the border cells
+     * @param cellSize
+     *            the side of a cell, at least the largest query radius
+     */
+    public CrowdGrid(final Rectangle area, final int cellSize) {
+        this.originX = area.x;
+        this.originY = area.y;
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (area.width + cellSize - 1) / cellSize);
+        this.rows = Math.max(1, (area.height + cellSize - 1) / cellSize);
+        this.cellStart = new int[this.columns * this.rows + 1];
+        this.cursors = new int[this.columns * this.rows];
+    }
+
+    /**
+     * Puts in the grid the living enemies of the list.
+     *
+     * @param movables
+     *            the {@link MovableEntity} of the game
+     */
+    public void rebuild(final List<MovableEntity> movables) {
+        if (this.entries.length < movables.size()) {
+            final int capacity = Math.max(movables.size(), this.entries.length * 2);
+            this.entries = new AbstractEnemy[capacity];
+            this.unsorted = new AbstractEnemy[capacity];
+            this.unsortedCells = new int[capacity];
+        }
+        Arrays.fill(this.cellStart, 0);
+        int size = 0;
+        for (int i = 0; i < movables.size(); i++) {
+            final MovableEntity e = movables.get(i);
+            if (e instanceof AbstractEnemy && !e.isDead()) {
+                final int cell = this.cellOf(e.getX(), e.getY());
+                this.unsortedCells[size] = cell;
+                this.unsorted[size++] = (AbstractEnemy) e;
+                this.cellStart[cell + 1]++;
+            }
+        }
+        for (int c = 1; c < this.cellStart.length; c++) {
+            this.cellStart[c] += this.cellStart[c - 1];
+        }
+        System.arraycopy(this.cellStart, 0, this.cursors, 0, this.cursors.length);
+        for (int i = 0; i < size; i++) {
+            this.entries[this.cursors[this.unsortedCells[i]]++] = this.unsorted[i];
+            this.unsorted[i] = null;
+        }
+        Arrays.fill(this.entries, size, this.entries.length, null); // no references to the old enemies
+    }
+
+    /**
+     * Finds the enemies whose centre is within a radius, up to the length of
+     * the result array; the scan stops after a few times that length, so the
+     * cost is bounded even in a crowd.
+     *
+     * @param x
+     *            X of the centre
+     * @param y
+     *            Y of the centre
+     * @param radius
+     *            the radius, not larger than a cell
+     * @param self
+     *            the entity which is asking, not included
+     * @param result
+     *            the array where the neighbours are put
+     * @return the number of neighbours found
+     */
+    public int queryNeighbours(final double x, final double y, final double radius, final Entity self,
+            final AbstractEnemy[] result) {
+        final int maxScanned = result.length * 4;
+        final double radius2 = radius * radius;
+        final int column = this.columnOf(x);
+        final int row = this.rowOf(y);
+        int found = 0;
+        int scanned = 0;
+        for (int r = Math.max(0, row - 1); r <= Math.min(this.rows - 1, row + 1); r++) {
+            for (int c = Math.max(0, column - 1); c <= Math.min(this.columns - 1, column + 1); c++) {
+                final int cell = c + r * this.columns;
+                for (int i = this.cellStart[cell]; i < this.cellStart[cell + 1]; i++) {
+                    final AbstractEnemy e = this.entries[i];
+                    if (e != self && !e.isDead()) {
+                        final double dx = e.getX() - x;
+                        final double dy = e.getY() - y;
+                        if (dx * dx + dy * dy <= radius2) {
+                            result[found++] = e;
+                            if (found == result.length) {
+                                return found;
+                            }
+                        }
+                    }
+                    if (++scanned == maxScanned) {
+                        return found;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Checks if an area intersects a living enemy.
+     *
+     * @param bounds
+     *            the area to check
+     * @param self
+     *            the entity which is asking, not checked
+     * @return true if any other enemy intersects the area
+     */
+    public boolean intersectsOther(final Rectangle bounds, final Entity self) {
+        // the enemies are in the cell of their centre, so they can stick out half a cell
+        final int firstColumn = this.columnOf(bounds.getMinX() - DRIFT - this.cellSize / 2);
+        final int lastColumn = this.columnOf(bounds.getMaxX() + DRIFT + this.cellSize / 2);
+        final int firstRow = this.rowOf(bounds.getMinY() - DRIFT - this.cellSize / 2);
+        final int lastRow = this.rowOf(bounds.getMaxY() + DRIFT + this.cellSize / 2);
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                final int cell = c + r * this.columns;
+                for (int i = this.cellStart[cell]; i < this.cellStart[cell + 1]; i++) {
+                    final AbstractEnemy e = this.entries[i];
+                    if (e != self && !e.isDead() && bounds.intersects(e.getBounds())) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /* the positions outside the grid are in the border cells */
+    private int columnOf(final double x) {
+        return Math.max(0, Math.min(this.columns - 1, (int) Math.floor((x - this.originX) / this.cellSize)));
+    }
+
+    private int rowOf(final double y) {
+        return Math.max(0, Math.min(this.rows - 1, (int) Math.floor((y - this.originY) / this.cellSize)));
+    }
+
+    private int cellOf(final double x, final double y) {
+        return this.columnOf(x) + this.rowOf(y) * this.columns;
+    }
+}
@@ -0,0 +1,123 @@
+package it.unibo.oop.model;
+
+import java.util.Random;
+
+/**
+ * Generator of dungeons made of rooms and corridors, by binary space
+ * partitioning: the map is split in two again and again, a room is carved in
+ * each last part and the two halves of every split are joined by a
+ * corridor, so every room can be reached. The same seed gives the same
+ * dungeon.
+ *
+ * <p>
+ * The parts are kept in arrays, in the order they're created, so the
+ * corridors are made walking them backwards, without recursion.
+ */
+public class DungeonGenerator {
+
+    private static final int MIN_PART = 10; // tiles, with the walls around the room
+    private static final int MAX_PART = 24;
+    private static final int MIN_ROOM = 4;
+    private static final int CORRIDOR = 2; // width of the corridors
+    private static final double SPLIT_RATIO = 1.25; // parts longer than this are split across
+
+    private final long seed;
+
+    /**
+     * @param seed
+     *            the seed of the dungeons
+     */
+    public DungeonGenerator(final long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Generates a dungeon. The border of the map is always wall and each room
+     * has a spawn point in its centre.
+     *
+     * @param columns
+     *            number of columns
+     * @param rows
+     *            number of rows
+     * @return the {@link TileMap} of the dungeon
+     */
+    public TileMap generate(final int columns, final int rows) {
+        if (columns < MIN_PART + 2 || rows < MIN_PART + 2) {
+            throw new IllegalArgumentException("The dungeon must be at least " + (MIN_PART + 2) + " tiles wide");
+        }
+        final Random random = new Random(this.seed);
+        final TileMap map = new TileMap(columns, rows);
+        map.fill(0, 0, columns, rows, TileMap.WALL);
+        // a binary tree has less than twice the leaves, which are at most the area over MIN_PART squared
+        final int capacity = 2 * (columns / MIN_PART + 1) * (rows / MIN_PART + 1);
+        final int[] x = new int[capacity];
+        final int[] y = new int[capacity];
+        final int[] width = new int[capacity];
+        final int[] height = new int[capacity];
+        final int[] firstChild = new int[capacity]; // the second one follows, 0 for the leaves
+        final int[] pointX = new int[capacity]; // a floor tile of the part, where the corridors arrive
+        final int[] pointY = new int[capacity];
+        x[0] = 1;
+        y[0] = 1;
+        width[0] = columns - 2;
+        height[0] = rows - 2;
+        int parts = 1;
+        for (int p = 0; p < parts; p++) {
+            final boolean across = width[p] > height[p] * SPLIT_RATIO
+                    || height[p] <= width[p] * SPLIT_RATIO && random.nextBoolean();
+            final int length = across ? width[p] : height[p];
+            if (length < 2 * MIN_PART || length <= MAX_PART && random.nextInt(MAX_PART) < length - MIN_PART) {
+                // a leaf: the room leaves at least a wall around it
+                final int roomWidth = MIN_ROOM + random.nextInt(width[p] - MIN_ROOM - 1);
+                final int roomHeight = MIN_ROOM + random.nextInt(height[p] - MIN_ROOM - 1);
+                final int roomX = x[p] + random.nextInt(width[p] - roomWidth - 1) + 1;
+                final int roomY = y[p] + random.nextInt(height[p] - roomHeight - 1) + 1;
+                map.fill(roomX, roomY, roomWidth, roomHeight, TileMap.FLOOR);
+                pointX[p] = roomX + roomWidth / 2;
+                pointY[p] = roomY + roomHeight / 2;
+                map.addSpawnPoint(pointX[p], pointY[p]);
+                continue;
+            }
+            final int cut = MIN_PART + random.nextInt(length - 2 * MIN_PART + 1);
+            firstChild[p] = parts;
+            for (int c = 0; c < 2; c++) {
+                final int child = parts++;
+                x[child] = across && c == 1 ? x[p] + cut : x[p];
+                y[child] = !across && c == 1 ? y[p] + cut : y[p];
+                width[child] = across ? (c == 0 ? cut : width[p] - cut) : width[p];
+                height[child] = across ? height[p] : (c == 0 ? cut : height[p] - cut);
+            }
+        }
+        // the children come after their parent, so walking backwards they're done first
+        for (int p = parts - 1; p >= 0; p--) {
+            if (firstChild[p] != 0) {
+                final int a = firstChild[p];
+                final int b = a + 1;
+                carveCorridor(map, pointX[a], pointY[a], pointX[b], pointY[b], random.nextBoolean());
+                final int kept = random.nextBoolean() ? a : b;
+                pointX[p] = pointX[kept];
+                pointY[p] = pointY[kept];
+            }
+        }
+        return map;
+    }
+
+    /* an L-shaped corridor, horizontal or vertical first */
+    private static void carveCorridor(final TileMap map, final int fromX, final int fromY, final int toX,
+            final int toY, final boolean horizontalFirst) {
+        final int cornerX = horizontalFirst ? toX : fromX;
+        final int cornerY = horizontalFirst ? fromY : toY;
+        carveLine(map, fromX, fromY, cornerX, cornerY);
+        carveLine(map, cornerX, cornerY, toX, toY);
+    }
+
+    private static void carveLine(final TileMap map, final int fromX, final int fromY, final int toX,
+            final int toY) {
+        final int left = Math.min(fromX, toX);
+        final int top = Math.min(fromY, toY);
+        // the corridor is cut to the inside of the map, so the border stays wall
+        final int right = Math.min(map.getColumns() - 1, Math.max(fromX, toX) + CORRIDOR);
+        final int bottom = Math.min(map.getRows() - 1, Math.max(fromY, toY) + CORRIDOR);
+        map.fill(left, top, right - left, bottom - top, TileMap.FLOOR);
+    }
+}
@@ -0,0 +1,81 @@
+package it.unibo.oop.model;
+
+import static it.unibo.oop.model.BehaviorTree.action;
+import static it.unibo.oop.model.BehaviorTree.condition;
+import static it.unibo.oop.model.BehaviorTree.selector;
+import static it.unibo.oop.model.BehaviorTree.sequence;
+
+import java.awt.Rectangle;
+
+import it.unibo.oop.model.BehaviorTree.Status;
+import it.unibo.oop.utilities.Vector2;
+
+/**
+ * The {@link BehaviorTree} of the enemies, shared by all the enemies of a
+ * type.
+ */
+public final class EnemyTrees {
+
+    // int values of the stalker: the last line of sight, valid until one of the cells or the grid change
+    private static final int SIGHT_FROM = 0;
+    private static final int SIGHT_TO = 1;
+    private static final int SIGHT_VERSION = 2;
+    private static final int SIGHT = 3; // 0 not known yet
+    private static final int STALKER_INTS = 4;
+    private static final int SEEN = 1;
+    private static final int HIDDEN = 2;
+
+    /**
+     * Tree of the {@link InvisibleMonster}: if the target is in its action
+     * area and in sight it shows itself and chases it along the
+     * {@link FlowField}, otherwise it hides and goes back to the centre of the
+     * area.
+     */
+    public static final BehaviorTree STALKER = new BehaviorTree(
+            selector(
+                    sequence(condition(EnemyTrees::targetInArea), condition(EnemyTrees::targetInSight),
+                            action(EnemyTrees::chase)),
+                    action(EnemyTrees::goHome)),
+            STALKER_INTS, 0);
+
+    private EnemyTrees() {
+    }
+
+    private static boolean targetInArea(final Blackboard blackboard) {
+        final Rectangle area = ((InvisibleMonster) blackboard.getEntity()).getActionRadius();
+        return area.contains(blackboard.getTarget().getIntX(), blackboard.getTarget().getIntY());
+    }
+
+    private static boolean targetInSight(final Blackboard blackboard) {
+        final MovableEntity entity = blackboard.getEntity();
+        final LineOfSight lineOfSight = entity.getEnvironment().getLineOfSight();
+        final TileGrid grid = lineOfSight.getGrid();
+        final int from = grid.cellAt(entity.getX(), entity.getY());
+        final int to = grid.cellAt(blackboard.getTarget().getX(), blackboard.getTarget().getY());
+        if (blackboard.getInt(SIGHT) == 0 || from != blackboard.getInt(SIGHT_FROM)
+                || to != blackboard.getInt(SIGHT_TO) || grid.getVersion() != blackboard.getInt(SIGHT_VERSION)) {
+            blackboard.setInt(SIGHT_FROM, from);
+            blackboard.setInt(SIGHT_TO, to);
+            blackboard.setInt(SIGHT_VERSION, grid.getVersion());
+            blackboard.setInt(SIGHT, lineOfSight.hasSight(from, to) ? SEEN : HIDDEN);
+        }
+        return blackboard.getInt(SIGHT) == SEEN;
+    }
+
+    private static Status chase(final Blackboard blackboard) {
+        final InvisibleMonster monster = (InvisibleMonster) blackboard.getEntity();
+        monster.setVisible(true);
+        blackboard.setMovement(monster.getEnvironment().getFlowField().getNextMove(monster.getPosition(),
+                blackboard.getTarget(), monster.getVelocity().getMaxVelocity()));
+        return Status.RUNNING;
+    }
+
+    private static Status goHome(final Blackboard blackboard) {
+        final InvisibleMonster monster = (InvisibleMonster) blackboard.getEntity();
+        monster.setVisible(false);
+        final Rectangle area = monster.getActionRadius();
+        blackboard.setMovement(new Vector2(area.getCenterX() - monster.getX(), area.getCenterY() - monster.getY())
+                .setLength(monster.getVelocity().getMaxVelocity()));
+        return Status.RUNNING;
+    }
+}
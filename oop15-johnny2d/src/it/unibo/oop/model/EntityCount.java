@@ -0,0 +1,38 @@
+package it.unibo.oop.model;
+
+/**
+ * Enumeration of the entity counts published by the {@link GameState} at the
+ * end of every update, for monitoring.
+ */
+public enum EntityCount {
+
+    /**
+     * Every {@link MovableEntity}, bullets included.
+     */
+    MOVABLES,
+
+    /**
+     * Every stable {@link AbstractEntity}, walls included.
+     */
+    STABLES,
+
+    /**
+     * {@link Bullet}s flying.
+     */
+    BULLETS,
+
+    /**
+     * {@link BasicMonster}s alive.
+     */
+    BASIC_MONSTERS,
+
+    /**
+     * {@link InvisibleMonster}s alive.
+     */
+    INVISIBLE_MONSTERS,
+
+    /**
+     * {@link Collectable}s to take.
+     */
+    COLLECTABLES;
+}
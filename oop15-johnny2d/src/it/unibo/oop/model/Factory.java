@@ -33,8 +33,8 @@ public class Factory {
          */
         public static List<Wall> generateHorizontalWall(final int startingX, final int startingY, final int dimension) {
             final List<Wall> resultList = new ArrayList<>(dimension);
-            for (int offset = 0; offset < WALL.getWidth() * dimension; offset++) {
-                resultList.add(new Wall(offset + WALL.getWidth() / 2, startingY));
+            for (int brick = 0; brick < dimension; brick++) {
+                resultList.add(new Wall(startingX + brick * WALL.getWidth() + WALL.getWidth() / 2, startingY));
             }
             return resultList;
         }
@@ -48,8 +48,33 @@ public class Factory {
          */
         public static List<Wall> generateVerticalWall(final int startingX, final int startingY, final int dimension) {
             final List<Wall> resultList = new ArrayList<>(dimension);
-            for (int offset = 0; offset < WALL.getHeight() * dimension; offset++) {
-                resultList.add(new Wall(startingX, offset + WALL.getHeight() / 2));
+            for (int brick = 0; brick < dimension; brick++) {
+                resultList.add(new Wall(startingX, startingY + brick * WALL.getHeight() + WALL.getHeight() / 2));
+            }
+            return resultList;
+        }
+
+        /**
+         * Creates the walls of a {@link TileMap} laid over a {@link TileGrid},
+         * the map starting at the first cell of the grid: each rectangle of
+         * wall tiles becomes a single {@link Wall}, and the tiles outside the
+         * grid are left out
+         * @param map the {@link TileMap}, b.p. from the {@link DungeonGenerator}
+         * @param grid the {@link TileGrid} where the map is placed
+         * @return the walls of the map
+         */
+        public static List<Wall> generateWalls(final TileMap map, final TileGrid grid) {
+            final Rectangle gridBounds = new Rectangle(grid.getColumns(), grid.getRows());
+            final List<Wall> resultList = new ArrayList<>();
+            for (final Rectangle tiles : map.getWallRectangles()) {
+                final Rectangle inside = tiles.intersection(gridBounds);
+                if (!inside.isEmpty()) {
+                    final int first = grid.cellOf(inside.x, inside.y);
+                    final int last = grid.cellOf(inside.x + inside.width - 1, inside.y + inside.height - 1);
+                    resultList.add(new Wall((grid.getCenterX(first) + grid.getCenterX(last)) / 2,
+                            (grid.getCenterY(first) + grid.getCenterY(last)) / 2, inside.width * grid.getCellWidth(),
+                            inside.height * grid.getCellHeight()));
+                }
             }
             return resultList;
         }
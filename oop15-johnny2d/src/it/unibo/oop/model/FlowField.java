@@ -0,0 +1,214 @@
+package it.unibo.oop.model;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+import it.unibo.oop.utilities.Position;
+import it.unibo.oop.utilities.Vector2;
+
+/**
+ * Navigation field towards a target, usually the {@link MainCharacter}, over
+ * the {@link TileGrid} of the {@link Arena}. Every walkable cell stores its
+ * distance from the target and the next cell of a shortest path, so every
+ * enemy reads its direction in constant time, however many enemies there
+ * are. The field is computed with a single multi-source Dijkstra from the
+ * cells covered by the target, and only when these cells or the grid change.
+ *
+ * <p>
+ * The moves are in 8 directions, with cost 2 for the straight ones and 3 for
+ * the diagonal ones, which are allowed only if they don't cut a blocked
+ * corner. With such small integer costs the priority queue is a ring of
+ * buckets (Dial's algorithm), so a computation is linear in the cells and
+ * doesn't allocate.
+ */
+public class FlowField {
+
+    /**
+     * Distance of the cells which can't reach the target.
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    private static final int STRAIGHT = 2;
+    private static final int DIAGONAL = 3;
+    private static final int BUCKETS = 4; // > DIAGONAL
+    private static final int[] DX = { 1, -1, 0, 0, 1, 1, -1, -1 };
+    private static final int[] DY = { 0, 0, 1, -1, 1, -1, 1, -1 };
+
+    private final TileGrid grid;
+    private final int[] distance;
+    private final int[] nextCell;
+    private final int[][] buckets = new int[BUCKETS][];
+    private final int[] bucketSizes = new int[BUCKETS];
+    private int version = -1;
+    private int minColumn;
+    private int minRow;
+    private int maxColumn = -1;
+    private int maxRow = -1;
+    private long computations;
+
+    /**
+     * Creates an empty field, without target.
+     *
+     * @param grid
+     *            the {@link TileGrid} to navigate
+     */
+    public FlowField(final TileGrid grid) {
+        this.grid = grid;
+        this.distance = new int[grid.size()];
+        this.nextCell = new int[grid.size()];
+        Arrays.fill(this.distance, UNREACHABLE);
+        Arrays.fill(this.nextCell, -1);
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets[i] = new int[grid.size()];
+        }
+    }
+
+    /**
+     * Moves the target of the field; the field is computed again only if the
+     * target covers different cells or the grid has changed.
+     *
+     * @param target
+     *            the bounds of the target
+     */
+    public void update(final Rectangle target) {
+        final int newMinColumn = this.grid.columnOf(target.getMinX());
+        final int newMinRow = this.grid.rowOf(target.getMinY());
+        final int newMaxColumn = this.grid.columnOf(target.getMaxX() - 1);
+        final int newMaxRow = this.grid.rowOf(target.getMaxY() - 1);
+        if (newMinColumn == this.minColumn && newMinRow == this.minRow && newMaxColumn == this.maxColumn
+                && newMaxRow == this.maxRow && this.grid.getVersion() == this.version) {
+            return;
+        }
+        this.minColumn = newMinColumn;
+        this.minRow = newMinRow;
+        this.maxColumn = newMaxColumn;
+        this.maxRow = newMaxRow;
+        this.version = this.grid.getVersion();
+        this.compute();
+    }
+
+    /**
+     * @return how many times the field has been computed
+     */
+    public long getComputations() {
+        return this.computations;
+    }
+
+    /**
+     * @param cell
+     *            index of the cell
+     * @return the distance of the cell from the target, in half cells, or
+     *         {@link #UNREACHABLE}
+     */
+    public int getDistance(final int cell) {
+        return cell < 0 ? UNREACHABLE : this.distance[cell];
+    }
+
+    /**
+     * @param cell
+     *            index of the cell
+     * @return the next cell towards the target, -1 if the cell is a target
+     *         one or it can't reach the target
+     */
+    public int getNextCell(final int cell) {
+        return cell < 0 ? -1 : this.nextCell[cell];
+    }
+
+    /**
+     * @param cell
+     *            index of the cell
+     * @return true if the cell is covered by the target
+     */
+    public boolean isTargetCell(final int cell) {
+        if (cell < 0) {
+            return false;
+        }
+        final int column = cell % this.grid.getColumns();
+        final int row = cell / this.grid.getColumns();
+        return column >= this.minColumn && column <= this.maxColumn && row >= this.minRow && row <= this.maxRow;
+    }
+
+    /**
+     * Returns the movement to follow the field from a {@link Position}: towards
+     * the centre of the next cell, or straight to the target if it's in the
+     * same cell or the field doesn't lead to it (no path or a target which
+     * isn't the one of the field).
+     *
+     * @param from
+     *            the {@link Position} of the entity
+     * @param target
+     *            the {@link Position} to reach
+     * @param length
+     *            the length of the movement
+     * @return the movement
+     */
+    public Vector2 getNextMove(final Position from, final Position target, final double length) {
+        final int cell = this.grid.cellAt(from.getX(), from.getY());
+        final int next = this.getNextCell(cell);
+        if (next < 0 || !this.isTargetCell(this.grid.cellAt(target.getX(), target.getY()))) {
+            return new Vector2(target.getX() - from.getX(), target.getY() - from.getY()).setLength(length);
+        }
+        return new Vector2(this.grid.getCenterX(next) - from.getX(), this.grid.getCenterY(next) - from.getY())
+                .setLength(length);
+    }
+
+    private void compute() {
+        this.computations++;
+        Arrays.fill(this.distance, UNREACHABLE);
+        Arrays.fill(this.nextCell, -1);
+        Arrays.fill(this.bucketSizes, 0);
+        int queued = 0;
+        for (int row = Math.max(0, this.minRow); row <= Math.min(this.grid.getRows() - 1, this.maxRow); row++) {
+            for (int column = Math.max(0, this.minColumn); column <= Math.min(this.grid.getColumns() - 1,
+                    this.maxColumn); column++) {
+                if (this.grid.isWalkable(column, row)) {
+                    final int cell = this.grid.cellOf(column, row);
+                    this.distance[cell] = 0;
+                    this.push(0, cell);
+                    queued++;
+                }
+            }
+        }
+        final int columns = this.grid.getColumns();
+        for (int d = 0; queued > 0; d++) {
+            final int b = d % BUCKETS;
+            final int[] bucket = this.buckets[b];
+            // the relaxed cells go in the next buckets, never in this one
+            for (int i = 0; i < this.bucketSizes[b]; i++) {
+                final int cell = bucket[i];
+                if (this.distance[cell] != d) {
+                    continue; // already reached with a shorter path
+                }
+                final int column = cell % columns;
+                final int row = cell / columns;
+                for (int k = 0; k < DX.length; k++) {
+                    final int nc = column + DX[k];
+                    final int nr = row + DY[k];
+                    if (!this.grid.isWalkable(nc, nr)) {
+                        continue;
+                    }
+                    final boolean diagonal = DX[k] != 0 && DY[k] != 0;
+                    if (diagonal && (!this.grid.isWalkable(nc, row) || !this.grid.isWalkable(column, nr))) {
+                        continue;
+                    }
+                    final int neighbour = nc + nr * columns;
+                    final int nd = d + (diagonal ? DIAGONAL : STRAIGHT);
+                    if (nd < this.distance[neighbour]) {
+                        this.distance[neighbour] = nd;
+                        this.nextCell[neighbour] = cell;
+                        this.push(nd % BUCKETS, neighbour);
+                        queued++;
+                    }
+                }
+            }
+            queued -= this.bucketSizes[b];
+            this.bucketSizes[b] = 0;
+        }
+    }
+
+    private void push(final int b, final int cell) {
+        if (this.bucketSizes[b] == this.buckets[b].length) {
+            this.buckets[b] = Arrays.copyOf(this.buckets[b], this.buckets[b].length * 2);
+        }
+        this.buckets[b][this.bucketSizes[b]++] = cell;
+    }
+}
@@ -62,4 +62,19 @@ public interface GameState {
      * @return hero's score.
      */
     Score getScore();
+
+    /**
+     * Gets a count of entities as published at the end of the last update; it
+     * can be called by any thread.
+     *
+     * @param count
+     *            the {@link EntityCount} to read
+     * @return the number of entities
+     */
+    int getCount(EntityCount count);
+
+    /**
+     * @return the number of bullets fired since the application started
+     */
+    long getShotsFired();
 }
\ No newline at end of file
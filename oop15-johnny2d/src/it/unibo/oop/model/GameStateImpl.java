@@ -3,55 +3,80 @@ package it.unibo.oop.model;
 import static it.unibo.oop.utilities.Settings.SCREEN_HEIGHT;
 import static it.unibo.oop.utilities.Settings.SCREEN_WIDTH;
 
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 import it.unibo.oop.utilities.CharactersSettings;
 import it.unibo.oop.utilities.Direction;
+import it.unibo.oop.utilities.FlightEvents;
 import it.unibo.oop.utilities.Position;
+import it.unibo.oop.utilities.SoundEffect;
+import it.unibo.oop.utilities.SoundMixerImpl;
 
 public final class GameStateImpl implements GameState {
 
-    private static final int BASIC_DEFAULT = 17;
-    private static final int BASIC_SCALE = 4;
-    private static final int MONSTERS_DELAY = 130;
-
-    private static final int INVISIBLE_DEFAULT = 3;
-    private static final int MONSTER_CAP=50;
-
-    private int monstersCap=0;
+    private volatile int monstersCap=0;
 
     private static final int MAX_COLLECTIBLES = 4;
+    private static final int CROWD_CELL = 64;
+    private static final String LEVEL_RESOURCE = "/levels/level%d.j2l";
     private static final int COLLECTIBLES_DELAY = 120;
+    private static final int SPAWN_TRIES = 50; // random positions tried per monster before giving up
     
     private static final int BASIC_DISTANCE = (int) (Math.max(SCREEN_WIDTH, SCREEN_HEIGHT)/2 *0.5);
     private static final int INVISIBLE_DISTANCE = (int) (Math.max(SCREEN_WIDTH, SCREEN_HEIGHT)/2 *0.7);
 
-    private int randomCollectiblesDelay = COLLECTIBLES_DELAY;
-    private int randomMonstersDelay = MONSTERS_DELAY;
+    /* tunables, changed at runtime by the EngineMonitor */
+    private volatile int monsterCapSetting;
+    private volatile int collectiblesDelay = COLLECTIBLES_DELAY;
+
 
     private static final GameStateImpl SINGLETON = new GameStateImpl();
     private final List<MovableEntity> movableList;
     private final List<AbstractEntity> stableList;
     private Optional<MainCharacter> johnnyCharacter;
     private final Arena gameArena;
-
-    private long updatesNumber;
-    private long lastShotFrame;
+    private final FlowField flowField;
+    private final CrowdGrid crowdGrid;
+    private final HierarchicalPathfinder pathfinder;
+    private final LineOfSight lineOfSight;
+    private final AiScheduler aiScheduler = new AiScheduler();
+    private final WaveDirector waveDirector;
+
+    private static final int SHOT_COOLDOWN = 6;
+    private final TimerWheel timers = new TimerWheel();
+    private final Random random = new Random();
+    private final TimerWheel.Timer collectiblesTimer = new TimerWheel.Timer(this::spawnCollectable);
+    private final TimerWheel.Timer monstersTimer = new TimerWheel.Timer(this::startWave);
+    private final TimerWheel.Timer reloadTimer = new TimerWheel.Timer(() -> this.shotReady = true);
+    private boolean shotReady = true;
+    private volatile long shotsFired;
+    private volatile long spawnAttempts;
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(EntityCount.values().length);
 
     /**
      * Constructor that initializes the entire game logic
      */
     private GameStateImpl() {
-        this.updatesNumber = 0;
-        this.lastShotFrame = 0;
         this.movableList = new ArrayList<>();
         this.stableList = new ArrayList<>();
         this.johnnyCharacter = Optional.empty();
         this.gameArena = Factory.WallFactory.generateArena(SCREEN_HEIGHT, SCREEN_WIDTH);
+        this.flowField = new FlowField(this.gameArena.getTileGrid());
+        this.pathfinder = new HierarchicalPathfinder(this.gameArena.getTileGrid());
+        this.lineOfSight = new LineOfSight(this.gameArena.getTileGrid());
+        this.crowdGrid = new CrowdGrid(this.gameArena.getPlayableRectangle(), CROWD_CELL);
+        this.waveDirector = new WaveDirector(WaveSchedule.getDefault(), this.gameArena.getTileGrid());
+        this.monsterCapSetting = this.waveDirector.getSchedule().getCap();
     }
 
     /**
@@ -70,80 +95,150 @@ public final class GameStateImpl implements GameState {
     public void initialize(final int levelNumber) {
         this.movableList.clear();
         this.stableList.clear();
+        this.loadLevel(levelNumber);
         this.stableList.addAll(this.gameArena.getBoundsList());
-        this.johnnyCharacter = Optional.ofNullable(
-                Factory.MainCharacterFactory.generateCentredCharacter(this.getArena().getPlayableRectangle()));
-        monstersCap = MONSTER_CAP;
-        this.spawnBasicMonsters(BASIC_DEFAULT);
-        this.spawnInvisibleMonsters(INVISIBLE_DEFAULT);
+        // in a designed level the hero starts at the first spawn point
+        this.johnnyCharacter = Optional.ofNullable(this.gameArena.getSpawnPoints().isEmpty()
+                ? Factory.MainCharacterFactory.generateCentredCharacter(this.getArena().getPlayableRectangle())
+                : Factory.MainCharacterFactory.generateStillCharacter(this.gameArena.getSpawnPoints().get(0).getX(),
+                        this.gameArena.getSpawnPoints().get(0).getY()));
+        monstersCap = this.monsterCapSetting;
+        this.crowdGrid.rebuild(this.movableList);
+        this.spawnWave(this.waveDirector.start());
+        this.timers.clear();
+        this.shotReady = true;
+        this.timers.schedule(this.collectiblesTimer, this.randomDelay(this.collectiblesDelay));
+        this.timers.schedule(this.monstersTimer, this.waveDirector.getNextDelay());
+        this.publishCounts();
     }
 
     /**
-     * A method that creates a defined number of {@link BasicMonster} in N free
-     * random position
-     * @param number The number of enemies to spawn
+     * Loads in the {@link Arena} the designed level, if there's a file for it
+     * in the resources, or leaves the arena empty
+     * @param levelNumber The level to load
      */
-    private void spawnBasicMonsters(final int number) {
-        BasicMonster tmpMonster;
-        Position randomPos;
-        long monsterConfilicts;
-        boolean distanceCondition;
-        this.monstersCap -= number;
+    private void loadLevel(final int levelNumber) {
+        final String resource = String.format(LEVEL_RESOURCE, levelNumber);
+        try (InputStream level = GameStateImpl.class.getResourceAsStream(resource)) {
+            if (level == null) {
+                this.gameArena.reset();
+            } else {
+                this.gameArena.loadLevel(Channels.newChannel(level));
+            }
+        } catch (IOException e) {
+            System.out.println("Error loading the level " + resource + ", the arena is empty");
+        }
+    }
+
+    /**
+     * A method that creates a defined number of enemies in free random
+     * positions, far enough from the {@link MainCharacter}; a monster which
+     * doesn't find a position in {@link #SPAWN_TRIES} tries isn't spawned
+     */
+    private void spawnRandom(final String type, final int number, final CharactersSettings size,
+            final double distance, final BiFunction<Double, Double, ? extends AbstractEnemy> factory) {
+        final FlightEvents.Event event = FlightEvents.SPAWN_BATCH.begin();
+        final Position hero = this.getMainChar().get().getPosition();
+        int spawned = 0;
+        int attempts = 0;
         for (int nMonsters = 0; nMonsters < number; nMonsters++) {
-            do {
-                randomPos = this.gameArena.getPositionInside(CharactersSettings.BASIC_ENEMY);
-                tmpMonster = Factory.EnemiesFactory.generateStillBasicEnemy(randomPos.getX(), randomPos.getY());
-                final BasicMonster finalMonster = tmpMonster;
-                monsterConfilicts = this.movableList.stream().filter(x -> x.intersecate(finalMonster))
+            for (int tries = 0; tries < SPAWN_TRIES; tries++) {
+                attempts++;
+                final Optional<Position> randomPos = this.gameArena.getPositionInside(size);
+                if (!randomPos.isPresent()) {
+                    break; // the arena is too crowded with walls, trying again is useless
+                }
+                final AbstractEnemy tmpMonster = factory.apply(randomPos.get().getX(), randomPos.get().getY());
+                final long monsterConfilicts = this.movableList.stream().filter(x -> x.intersecate(tmpMonster))
                         .filter(x -> x instanceof AbstractEnemy).count();
-                distanceCondition = Position.pointsDistance(this.getMainChar().get().getPosition(),
-                        tmpMonster.getPosition()) > BASIC_DISTANCE ? false : true;
-            } while (monsterConfilicts != 0 || distanceCondition);
-            this.addMovableEntity(tmpMonster);
+                if (monsterConfilicts == 0 && Position.pointsDistance(hero, tmpMonster.getPosition()) > distance) {
+                    this.addMovableEntity(tmpMonster);
+                    spawned++;
+                    break;
+                }
+            }
+        }
+        this.monstersCap -= spawned;
+        this.spawnAttempts += attempts;
+        commitSpawn(event, type, spawned, attempts);
+    }
+
+    /**
+     * Spawns a wave planned by the {@link WaveDirector}, at the first free
+     * positions of the plan; if they aren't enough, the positions left are
+     * searched at random.
+     * @param plan the {@link WaveDirector.SpawnPlan} of the wave
+     */
+    private void spawnWave(final WaveDirector.SpawnPlan plan) {
+        final int basicLeft = this.spawnPlanned("basic", plan.getBasic(), plan.getBasicPositions(),
+                CharactersSettings.BASIC_ENEMY, BASIC_DISTANCE,
+                Factory.EnemiesFactory::generateStillBasicEnemy);
+        final int invisibleLeft = this.spawnPlanned("invisible", plan.getInvisible(), plan.getInvisiblePositions(),
+                CharactersSettings.INVISIBLE_ENEMY, INVISIBLE_DISTANCE,
+                Factory.EnemiesFactory::generateStillInvisibleEnemy);
+        if (basicLeft > 0) {
+            this.spawnRandom("basic", basicLeft, CharactersSettings.BASIC_ENEMY, BASIC_DISTANCE,
+                    Factory.EnemiesFactory::generateStillBasicEnemy);
+        }
+        if (invisibleLeft > 0) {
+            this.spawnRandom("invisible", invisibleLeft, CharactersSettings.INVISIBLE_ENEMY, INVISIBLE_DISTANCE,
+                    Factory.EnemiesFactory::generateStillInvisibleEnemy);
         }
     }
 
     /**
-     * A method that creates a defined number of {@link InvisibleMonster} in N
-     * free random position
-     * @param number The number of enemies to spawn
+     * Spawns the monsters at the candidate positions far enough from the
+     * {@link MainCharacter} and not on other enemies.
+     * @return the monsters which haven't found a position
      */
-    private void spawnInvisibleMonsters(final int number) {
-        this.monstersCap -= number;
-        InvisibleMonster tmpMonster;
-        Position randomPos;
-        long monsterConfilicts;
-        boolean distanceCondition;
+    private int spawnPlanned(final String type, final int number, final double[] positions,
+            final CharactersSettings size, final double distance,
+            final BiFunction<Double, Double, ? extends AbstractEnemy> factory) {
+        final FlightEvents.Event event = FlightEvents.SPAWN_BATCH.begin();
+        final Position hero = this.getMainChar().get().getPosition();
+        int spawned = 0;
+        int attempts = 0;
+        for (int i = 0; i < positions.length && spawned < number; i += 2) {
+            attempts++;
+            final Position candidate = new Position(positions[i], positions[i + 1]);
+            final Rectangle bounds = new Rectangle(candidate.getIntX() - size.getWidth() / 2,
+                    candidate.getIntY() - size.getHeight() / 2, size.getWidth(), size.getHeight());
+            if (Position.pointsDistance(hero, candidate) > distance
+                    && !this.crowdGrid.intersectsOther(bounds, null)) {
+                this.addMovableEntity(factory.apply(candidate.getX(), candidate.getY()));
+                spawned++;
+            }
+        }
+        this.monstersCap -= spawned;
+        this.spawnAttempts += attempts;
+        commitSpawn(event, type, spawned, attempts);
+        return number - spawned;
+    }
 
-        for (int nMonsters = 0; nMonsters < number; nMonsters++) {
-            do {
-                randomPos = this.gameArena.getPositionInside(CharactersSettings.INVISIBLE_ENEMY);
-                tmpMonster = Factory.EnemiesFactory.generateStillInvisibleEnemy(randomPos.getX(), randomPos.getY());
-                final InvisibleMonster finalMonster = tmpMonster;
-                monsterConfilicts = this.movableList.stream().filter(x -> x.intersecate(finalMonster))
-                        .filter(x -> x instanceof AbstractEnemy).count();
-                distanceCondition = Position.pointsDistance(this.getMainChar().get().getPosition(),
-                        tmpMonster.getPosition()) > INVISIBLE_DISTANCE ? false : true;
-            } while (monsterConfilicts != 0 || distanceCondition);
-            this.addMovableEntity(tmpMonster);
+    private static void commitSpawn(final FlightEvents.Event event, final String type, final int number,
+            final int attempts) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit(type, number, attempts);
         }
     }
 
     /**
      * Spawns a random {@link HealthBonus} and puts it in the stable
-     * {@link List}
+     * {@link List}, if there's a free position
      */
     private void spawnRandomHealthCollectable() {
-        final Position randomPos = this.getArena().getPositionInside(CharactersSettings.BONUS);
-        this.addStableEntity(new HealthBonus(randomPos.getX(), randomPos.getY()));
+        this.getArena().getPositionInside(CharactersSettings.BONUS)
+                .ifPresent(p -> this.addStableEntity(new HealthBonus(p.getX(), p.getY())));
     }
 
     /**
-     * Spawns a random {@link ScoreBonus} and puts it in the stable {@link List}
+     * Spawns a random {@link ScoreBonus} and puts it in the stable
+     * {@link List}, if there's a free position
      */
     private void spawnRandomScoreCollectable() {
-        final Position randomPos = this.getArena().getPositionInside(CharactersSettings.BONUS);
-        this.addStableEntity(new ScoreBonus(randomPos.getX(), randomPos.getY()));
+        this.getArena().getPositionInside(CharactersSettings.BONUS)
+                .ifPresent(p -> this.addStableEntity(new ScoreBonus(p.getX(), p.getY())));
     }
 
     /**
@@ -161,25 +256,83 @@ public final class GameStateImpl implements GameState {
      * @param isShooting Boolean flag that indicates if the {@link MainCharacter} has to shoot
      */
     public void updatePositions(final Direction newDirection, final boolean isShooting) {
-        this.updatesNumber++;
+        this.johnnyCharacter.ifPresent(c -> this.flowField.update(c.getBounds()));
+        this.crowdGrid.rebuild(this.movableList);
+        this.aiScheduler.beginTick(this.johnnyCharacter.orElse(null));
         movableList.stream().forEach(x -> x.update());
         this.updateHeroPos(newDirection, isShooting);
+        // the timed events: the bullets which expire die before being removed
+        this.timers.advance();
         this.removeDeadEntities();
+        this.publishCounts();
+    }
 
-        final long collectibleCount = this.stableList.stream().filter(x -> x instanceof Collectable).count();
-        if (this.updatesNumber % (COLLECTIBLES_DELAY + randomCollectiblesDelay) == 0
-                && collectibleCount < MAX_COLLECTIBLES) {
-            randomCollectiblesDelay = new Random().nextInt(COLLECTIBLES_DELAY);
-            if (new Random().nextInt(3) == 0) {
+    /**
+     * A delay between the given one and its double.
+     */
+    private int randomDelay(final int delay) {
+        return delay + this.random.nextInt(delay);
+    }
+
+    /**
+     * Timed event: spawns a {@link Collectable}, if they're not too many, and
+     * schedules the next one.
+     */
+    private void spawnCollectable() {
+        final long collectibleCount = this.stableList.stream().filter(x -> x instanceof Collectable && !x.isDead())
+                .count();
+        if (collectibleCount < MAX_COLLECTIBLES) {
+            if (this.random.nextInt(3) == 0) {
                 this.spawnRandomHealthCollectable();
             } else {
                 this.spawnRandomScoreCollectable();
             }
         }
-        if (this.updatesNumber % (MONSTERS_DELAY + randomMonstersDelay) == 0 && this.monstersCap >= 0) {
-            randomMonstersDelay = new Random().nextInt(MONSTERS_DELAY);
-            this.spawnBasicMonsters(BASIC_SCALE);
+        this.timers.schedule(this.collectiblesTimer, this.randomDelay(this.collectiblesDelay));
+    }
+
+    /**
+     * Timed event: spawns the next wave of the {@link WaveDirector}, if the
+     * cap allows it, and schedules the one after.
+     */
+    private void startWave() {
+        final WaveDirector.SpawnPlan plan = this.waveDirector.takeNext();
+        if (this.monstersCap >= 0) {
+            this.spawnWave(plan);
         }
+        this.timers.schedule(this.monstersTimer, this.waveDirector.getNextDelay());
+    }
+
+    /**
+     * Counts the entities for the monitoring tools, which can't read the
+     * lists while they're updated.
+     */
+    private void publishCounts() {
+        int bullets = 0;
+        int basics = 0;
+        int invisibles = 0;
+        int collectables = 0;
+        for (int i = 0; i < this.movableList.size(); i++) {
+            final MovableEntity e = this.movableList.get(i);
+            if (e instanceof Bullet) {
+                bullets++;
+            } else if (e instanceof BasicMonster) {
+                basics++;
+            } else if (e instanceof InvisibleMonster) {
+                invisibles++;
+            }
+        }
+        for (int i = 0; i < this.stableList.size(); i++) {
+            if (this.stableList.get(i) instanceof Collectable) {
+                collectables++;
+            }
+        }
+        this.counts.lazySet(EntityCount.MOVABLES.ordinal(), this.movableList.size());
+        this.counts.lazySet(EntityCount.STABLES.ordinal(), this.stableList.size());
+        this.counts.lazySet(EntityCount.BULLETS.ordinal(), bullets);
+        this.counts.lazySet(EntityCount.BASIC_MONSTERS.ordinal(), basics);
+        this.counts.lazySet(EntityCount.INVISIBLE_MONSTERS.ordinal(), invisibles);
+        this.counts.lazySet(EntityCount.COLLECTABLES.ordinal(), collectables);
     }
 
     /**
@@ -187,10 +340,13 @@ public final class GameStateImpl implements GameState {
      * @param newBullet {@link Bullet} to add
      */
     protected void addShoot(final Bullet newBullet) {
-        final long deltaTime = this.updatesNumber - this.lastShotFrame;
-        if (deltaTime >= 6) {
-            this.lastShotFrame = this.updatesNumber;
+        if (this.shotReady) {
+            this.shotReady = false;
+            this.timers.schedule(this.reloadTimer, SHOT_COOLDOWN);
+            newBullet.startLifetime(this.timers);
             this.movableList.add(newBullet);
+            this.shotsFired++;
+            SoundMixerImpl.getInstance().trigger(SoundEffect.SHOT);
         }
     }
 
@@ -252,6 +408,56 @@ public final class GameStateImpl implements GameState {
         return this.johnnyCharacter;
     }
 
+    /**
+     * Gets the {@link FlowField} that leads the enemies to the
+     * {@link MainCharacter}, updated at the beginning of every update
+     * @return The {@link FlowField} of the game
+     */
+    public FlowField getFlowField() {
+        return this.flowField;
+    }
+
+    /**
+     * Gets the {@link CrowdGrid} of the enemies, rebuilt at the beginning of
+     * every update
+     * @return The {@link CrowdGrid} of the game
+     */
+    public CrowdGrid getCrowdGrid() {
+        return this.crowdGrid;
+    }
+
+    /**
+     * Gets the {@link HierarchicalPathfinder} over the grid of the arena
+     * @return The {@link HierarchicalPathfinder} of the game
+     */
+    public HierarchicalPathfinder getPathfinder() {
+        return this.pathfinder;
+    }
+
+    /**
+     * Gets the {@link LineOfSight} over the grid of the arena
+     * @return The {@link LineOfSight} of the game
+     */
+    public LineOfSight getLineOfSight() {
+        return this.lineOfSight;
+    }
+
+    /**
+     * Gets the {@link AiScheduler} which decides when the enemies think
+     * @return The {@link AiScheduler} of the game
+     */
+    public AiScheduler getAiScheduler() {
+        return this.aiScheduler;
+    }
+
+    /**
+     * Gets the {@link TimerWheel} of the timed events of the game
+     * @return The {@link TimerWheel}, advanced once per update
+     */
+    public TimerWheel getTimers() {
+        return this.timers;
+    }
+
     /**
      * Gets the {@link Arena} of the Game
      * @return The game {@link Arena}
@@ -290,4 +496,117 @@ public final class GameStateImpl implements GameState {
     public Score getScore() {
         return this.johnnyCharacter.get().getScore();
     }
+
+    /**
+     * Gets a count of entities published at the end of the last update
+     * @param count The {@link EntityCount} to read
+     * @return The number of entities
+     */
+    public int getCount(final EntityCount count) {
+        return this.counts.get(count.ordinal());
+    }
+
+    /**
+     * Getter for the bullets fired
+     * @return The number of bullets fired since the application started
+     */
+    public long getShotsFired() {
+        return this.shotsFired;
+    }
+
+    /**
+     * Getter for the random positions tried to spawn monsters, including the
+     * rejected ones
+     * @return The attempts since the application started
+     */
+    public long getSpawnAttempts() {
+        return this.spawnAttempts;
+    }
+
+    /**
+     * Getter for the monsters that can still be spawned in this level
+     * @return The remaining cap, negative when it's been exceeded
+     */
+    public int getMonstersCap() {
+        return this.monstersCap;
+    }
+
+    /**
+     * Getter for the maximum number of monsters spawned in a level
+     * @return The monster cap
+     */
+    public int getMonsterCapSetting() {
+        return this.monsterCapSetting;
+    }
+
+    /**
+     * Sets the maximum number of monsters spawned in a level, used from the
+     * next initialization
+     * @param cap The new monster cap
+     */
+    public void setMonsterCapSetting(final int cap) {
+        this.monsterCapSetting = checkPositive(cap);
+    }
+
+    /**
+     * Getter for the number of {@link BasicMonster} of the repeated wave, the
+     * last one of the {@link WaveSchedule}
+     * @return The basic monsters per wave
+     */
+    public int getBasicScale() {
+        return this.waveDirector.getSchedule().getLastWave().getBasic();
+    }
+
+    /**
+     * Sets the number of {@link BasicMonster} of the repeated wave, from the
+     * next one planned
+     * @param scale The basic monsters per wave
+     */
+    public void setBasicScale(final int scale) {
+        checkPositive(scale);
+        this.waveDirector.changeLastWave(
+                w -> new WaveSchedule.Wave(w.getDelay(), w.getJitter(), scale, w.getInvisible()));
+    }
+
+    /**
+     * Getter for the minimum number of updates before the repeated wave
+     * @return The delay in updates
+     */
+    public int getMonstersDelay() {
+        return this.waveDirector.getSchedule().getLastWave().getDelay();
+    }
+
+    /**
+     * Sets the minimum number of updates before the repeated wave, from the
+     * next one planned
+     * @param delay The delay in updates
+     */
+    public void setMonstersDelay(final int delay) {
+        checkPositive(delay);
+        this.waveDirector.changeLastWave(
+                w -> new WaveSchedule.Wave(delay, w.getJitter(), w.getBasic(), w.getInvisible()));
+    }
+
+    /**
+     * Getter for the minimum number of updates between two collectables
+     * @return The delay in updates
+     */
+    public int getCollectiblesDelay() {
+        return this.collectiblesDelay;
+    }
+
+    /**
+     * Sets the minimum number of updates between two collectables
+     * @param delay The delay in updates
+     */
+    public void setCollectiblesDelay(final int delay) {
+        this.collectiblesDelay = checkPositive(delay);
+    }
+
+    private static int checkPositive(final int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("The value must be positive: " + value);
+        }
+        return value;
+    }
 }
\ No newline at end of file
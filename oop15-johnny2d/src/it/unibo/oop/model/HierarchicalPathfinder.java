@@ -0,0 +1,521 @@
+package it.unibo.oop.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pathfinder over the {@link TileGrid} in the HPA* way: the grid is divided in
+ * square clusters, the walkable passages between two clusters are their
+ * portals, and the distances between the portals of a cluster are computed
+ * once. A path is searched with A* on this small graph of portals, then it's
+ * refined cell by cell only near the entity which follows it, one portal at a
+ * time. The portals crossed to go from a cluster to another one are kept in
+ * a cache shared by all the entities, so the entities in the same area don't
+ * search again the same path.
+ *
+ * <p>
+ * The graph is built at the first query and again when the grid changes. The
+ * moves are the same of the {@link FlowField}: 8 directions, cost 2 for the
+ * straight ones and 3 for the diagonal ones, without cutting the corners.
+ * Everything happens in the game thread.
+ */
+public class HierarchicalPathfinder {
+
+    /**
+     * Side of a cluster, in cells.
+     */
+    public static final int CLUSTER_SIZE = 8;
+    /**
+     * Cost of the paths which don't exist.
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    private static final int STRAIGHT = 2;
+    private static final int DIAGONAL = 3;
+    private static final int LONG_ENTRANCE = 6; // cells: with two portals, one per end
+    private static final int CACHE_SIZE = 512;
+    private static final int[] DX = { 1, -1, 0, 0, 1, 1, -1, -1 };
+    private static final int[] DY = { 0, 0, 1, -1, 1, -1, 1, -1 };
+
+    private final TileGrid grid;
+    private final int clusterColumns;
+    private final int clusterRows;
+    private final Map<Long, int[]> cache = new LinkedHashMap<Long, int[]>(CACHE_SIZE, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Long, int[]> eldest) {
+            return this.size() > CACHE_SIZE;
+        }
+    };
+    private long cacheHits;
+    private long cacheMisses;
+    private int version = -1;
+
+    // graph of the portals, in compressed rows
+    private int nodes;
+    private int[] nodeCells = new int[0];
+    private int[] edgeStart = new int[1];
+    private int[] edgeTo = new int[0];
+    private int[] edgeCost = new int[0];
+    private final int[] nodeOfCell;
+    private int[][] clusterNodes;
+
+    // cell searches, a cell is valid only if it has the current stamp
+    private final int[] cellStamps;
+    private final int[] cellCosts;
+    private final int[] cellParents;
+    private int cellStamp;
+    private final Heap cellHeap = new Heap();
+
+    // portal searches
+    private int[] nodeStamps = new int[0];
+    private int[] nodeCosts = new int[0];
+    private int[] nodeParents = new int[0];
+    private int[] goalCosts = new int[0];
+    private int nodeStamp;
+    private final Heap nodeHeap = new Heap();
+
+    /**
+     * Creates a pathfinder, the graph is built at the first query.
+     *
+     * @param grid
+     *            the {@link TileGrid} to navigate
+     */
+    public HierarchicalPathfinder(final TileGrid grid) {
+        this.grid = grid;
+        this.clusterColumns = (grid.getColumns() + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+        this.clusterRows = (grid.getRows() + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+        this.nodeOfCell = new int[grid.size()];
+        this.cellStamps = new int[grid.size()];
+        this.cellCosts = new int[grid.size()];
+        this.cellParents = new int[grid.size()];
+    }
+
+    /**
+     * @return the {@link TileGrid} navigated
+     */
+    public TileGrid getGrid() {
+        return this.grid;
+    }
+
+    /**
+     * @param cell
+     *            index of a cell
+     * @return the index of the cluster of the cell
+     */
+    public int clusterOf(final int cell) {
+        return cell % this.grid.getColumns() / CLUSTER_SIZE
+                + cell / this.grid.getColumns() / CLUSTER_SIZE * this.clusterColumns;
+    }
+
+    /**
+     * @return the number of portals, building the graph if needed
+     */
+    public int getPortals() {
+        this.checkGraph();
+        return this.nodes;
+    }
+
+    /**
+     * @return the queries answered with the cache
+     */
+    public long getCacheHits() {
+        return this.cacheHits;
+    }
+
+    /**
+     * @return the queries which searched the portals
+     */
+    public long getCacheMisses() {
+        return this.cacheMisses;
+    }
+
+    /**
+     * Searches the way from a cell to another one, as the list of the portals
+     * to cross followed by the goal. The cells between two of them are found
+     * with {@link #refine(int, int)}.
+     *
+     * @param start
+     *            index of the start cell
+     * @param goal
+     *            index of the goal cell
+     * @return the cells to reach in order, goal included, or null if there's
+     *         no path
+     */
+    public int[] findWaypoints(final int start, final int goal) {
+        this.checkGraph();
+        if (!this.grid.isWalkable(start) || !this.grid.isWalkable(goal)) {
+            return null;
+        }
+        final int startCluster = this.clusterOf(start);
+        final int goalCluster = this.clusterOf(goal);
+        if (startCluster == goalCluster && this.search(start, goal, startCluster, startCluster) != UNREACHABLE) {
+            return new int[] { goal };
+        }
+        final Long key = (long) startCluster * this.clusterColumns * this.clusterRows + goalCluster;
+        final int[] cached = this.cache.get(key);
+        if (cached != null && this.search(start, this.nodeCells[cached[0]], startCluster, startCluster) != UNREACHABLE
+                && this.search(this.nodeCells[cached[cached.length - 1]], goal, goalCluster,
+                        goalCluster) != UNREACHABLE) {
+            this.cacheHits++;
+            return this.toWaypoints(cached, goal);
+        }
+        this.cacheMisses++;
+        final int[] portals = this.searchPortals(start, goal);
+        if (portals == null) {
+            return null;
+        }
+        this.cache.put(key, portals);
+        return this.toWaypoints(portals, goal);
+    }
+
+    /**
+     * Searches the cells from a cell to a near one, for example the next
+     * portal, looking only in their clusters.
+     *
+     * @param from
+     *            index of the start cell
+     * @param to
+     *            index of the goal cell
+     * @return the cells to cross in order, goal included and start excluded,
+     *         or null if there's no path in the clusters
+     */
+    public int[] refine(final int from, final int to) {
+        if (!this.grid.isWalkable(from) || !this.grid.isWalkable(to)) {
+            return null;
+        }
+        if (this.search(from, to, this.clusterOf(from), this.clusterOf(to)) == UNREACHABLE) {
+            return null;
+        }
+        int length = 0;
+        for (int cell = to; cell != from; cell = this.cellParents[cell]) {
+            length++;
+        }
+        final int[] path = new int[length];
+        for (int cell = to; cell != from; cell = this.cellParents[cell]) {
+            path[--length] = cell;
+        }
+        return path;
+    }
+
+    private int[] toWaypoints(final int[] portals, final int goal) {
+        final int[] waypoints = new int[portals.length + 1];
+        for (int i = 0; i < portals.length; i++) {
+            waypoints[i] = this.nodeCells[portals[i]];
+        }
+        waypoints[portals.length] = goal;
+        return waypoints;
+    }
+
+    /*
+     * A* over the portals, with two more nodes: the start, linked to the
+     * portals of its cluster, and the goal, linked from the portals of its
+     * cluster.
+     */
+    private int[] searchPortals(final int start, final int goal) {
+        final int startNode = this.nodes;
+        final int goalNode = this.nodes + 1;
+        final int goalCluster = this.clusterOf(goal);
+        final int[] goalClusterNodes = this.clusterNodes[goalCluster];
+        this.search(goal, -1, goalCluster, goalCluster); // the moves cost the same in both ways
+        for (final int node : goalClusterNodes) {
+            this.goalCosts[node] = this.costOf(this.nodeCells[node]);
+        }
+        final int startCluster = this.clusterOf(start);
+        this.search(start, -1, startCluster, startCluster);
+
+        this.nodeStamp++;
+        this.nodeHeap.clear();
+        this.nodeStamps[startNode] = this.nodeStamp;
+        this.nodeCosts[startNode] = 0;
+        for (final int node : this.clusterNodes[startCluster]) {
+            final int cost = this.costOf(this.nodeCells[node]);
+            if (cost != UNREACHABLE) {
+                this.reach(node, startNode, cost, goal);
+            }
+        }
+        while (!this.nodeHeap.isEmpty()) {
+            final int priority = this.nodeHeap.peekPriority();
+            final int node = this.nodeHeap.poll();
+            final int cost = this.nodeCosts[node];
+            if (priority != cost + (node == goalNode ? 0 : this.estimate(this.nodeCells[node], goal))) {
+                continue; // already reached with a shorter path
+            }
+            if (node == goalNode) {
+                return this.portalsTo(goalNode, startNode);
+            }
+            for (int e = this.edgeStart[node]; e < this.edgeStart[node + 1]; e++) {
+                this.reach(this.edgeTo[e], node, cost + this.edgeCost[e], goal);
+            }
+            if (this.clusterOf(this.nodeCells[node]) == goalCluster && this.goalCosts[node] != UNREACHABLE) {
+                this.reach(goalNode, node, cost + this.goalCosts[node], goal);
+            }
+        }
+        return null;
+    }
+
+    private void reach(final int node, final int parent, final int cost, final int goal) {
+        if (this.nodeStamps[node] != this.nodeStamp || cost < this.nodeCosts[node]) {
+            this.nodeStamps[node] = this.nodeStamp;
+            this.nodeCosts[node] = cost;
+            this.nodeParents[node] = parent;
+            this.nodeHeap.add(node,
+                    cost + (node == this.nodes + 1 ? 0 : this.estimate(this.nodeCells[node], goal)));
+        }
+    }
+
+    private int[] portalsTo(final int goalNode, final int startNode) {
+        int length = 0;
+        for (int node = this.nodeParents[goalNode]; node != startNode; node = this.nodeParents[node]) {
+            length++;
+        }
+        final int[] portals = new int[length];
+        for (int node = this.nodeParents[goalNode]; node != startNode; node = this.nodeParents[node]) {
+            portals[--length] = node;
+        }
+        return portals;
+    }
+
+    /* octile distance, never more than the real cost */
+    private int estimate(final int from, final int to) {
+        final int dx = Math.abs(from % this.grid.getColumns() - to % this.grid.getColumns());
+        final int dy = Math.abs(from / this.grid.getColumns() - to / this.grid.getColumns());
+        return STRAIGHT * Math.max(dx, dy) + (DIAGONAL - STRAIGHT) * Math.min(dx, dy);
+    }
+
+    private int costOf(final int cell) {
+        return this.cellStamps[cell] == this.cellStamp ? this.cellCosts[cell] : UNREACHABLE;
+    }
+
+    /*
+     * A* from a cell to another one, or Dijkstra to every cell if the goal is
+     * -1, inside the rectangle of two clusters.
+     */
+    private int search(final int from, final int to, final int clusterA, final int clusterB) {
+        final int columns = this.grid.getColumns();
+        final int minColumn = Math.min(clusterA % this.clusterColumns, clusterB % this.clusterColumns) * CLUSTER_SIZE;
+        final int minRow = Math.min(clusterA / this.clusterColumns, clusterB / this.clusterColumns) * CLUSTER_SIZE;
+        final int maxColumn = Math.min(columns,
+                (Math.max(clusterA % this.clusterColumns, clusterB % this.clusterColumns) + 1) * CLUSTER_SIZE) - 1;
+        final int maxRow = Math.min(this.grid.getRows(),
+                (Math.max(clusterA / this.clusterColumns, clusterB / this.clusterColumns) + 1) * CLUSTER_SIZE) - 1;
+        this.cellStamp++;
+        this.cellHeap.clear();
+        this.cellStamps[from] = this.cellStamp;
+        this.cellCosts[from] = 0;
+        this.cellParents[from] = -1;
+        this.cellHeap.add(from, to < 0 ? 0 : this.estimate(from, to));
+        while (!this.cellHeap.isEmpty()) {
+            final int priority = this.cellHeap.peekPriority();
+            final int cell = this.cellHeap.poll();
+            final int cost = this.cellCosts[cell];
+            if (priority != cost + (to < 0 ? 0 : this.estimate(cell, to))) {
+                continue;
+            }
+            if (cell == to) {
+                return cost;
+            }
+            final int column = cell % columns;
+            final int row = cell / columns;
+            for (int k = 0; k < DX.length; k++) {
+                final int nc = column + DX[k];
+                final int nr = row + DY[k];
+                if (nc < minColumn || nc > maxColumn || nr < minRow || nr > maxRow
+                        || !this.grid.isWalkable(nc, nr)) {
+                    continue;
+                }
+                final boolean diagonal = DX[k] != 0 && DY[k] != 0;
+                if (diagonal && (!this.grid.isWalkable(nc, row) || !this.grid.isWalkable(column, nr))) {
+                    continue;
+                }
+                final int next = nc + nr * columns;
+                final int nextCost = cost + (diagonal ? DIAGONAL : STRAIGHT);
+                if (this.cellStamps[next] != this.cellStamp || nextCost < this.cellCosts[next]) {
+                    this.cellStamps[next] = this.cellStamp;
+                    this.cellCosts[next] = nextCost;
+                    this.cellParents[next] = cell;
+                    this.cellHeap.add(next, nextCost + (to < 0 ? 0 : this.estimate(next, to)));
+                }
+            }
+        }
+        return to < 0 ? 0 : UNREACHABLE;
+    }
+
+    private void checkGraph() {
+        if (this.version != this.grid.getVersion()) {
+            this.version = this.grid.getVersion();
+            this.cache.clear();
+            this.build();
+        }
+    }
+
+    private void build() {
+        final int columns = this.grid.getColumns();
+        final int rows = this.grid.getRows();
+        Arrays.fill(this.nodeOfCell, -1);
+        final List<Integer> cells = new ArrayList<>();
+        final List<int[]> edges = new ArrayList<>();
+        // portals between each cluster and the ones on its right and below it
+        for (int cy = 0; cy < this.clusterRows; cy++) {
+            for (int cx = 0; cx < this.clusterColumns; cx++) {
+                final int right = (cx + 1) * CLUSTER_SIZE;
+                final int bottom = (cy + 1) * CLUSTER_SIZE;
+                if (right < columns) {
+                    this.addEntrances(right - 1, cy * CLUSTER_SIZE, Math.min(rows, bottom), true, cells, edges);
+                }
+                if (bottom < rows) {
+                    this.addEntrances(bottom - 1, cx * CLUSTER_SIZE, Math.min(columns, right), false, cells, edges);
+                }
+            }
+        }
+        this.nodes = cells.size();
+        this.nodeCells = new int[this.nodes];
+        final List<List<Integer>> byCluster = new ArrayList<>();
+        for (int c = 0; c < this.clusterColumns * this.clusterRows; c++) {
+            byCluster.add(new ArrayList<>());
+        }
+        for (int node = 0; node < this.nodes; node++) {
+            this.nodeCells[node] = cells.get(node);
+            byCluster.get(this.clusterOf(cells.get(node))).add(node);
+        }
+        this.clusterNodes = new int[byCluster.size()][];
+        for (int c = 0; c < byCluster.size(); c++) {
+            this.clusterNodes[c] = byCluster.get(c).stream().mapToInt(Integer::intValue).toArray();
+            // distances between the portals of the cluster
+            for (final int node : this.clusterNodes[c]) {
+                this.search(this.nodeCells[node], -1, c, c);
+                for (final int other : this.clusterNodes[c]) {
+                    final int cost = this.costOf(this.nodeCells[other]);
+                    if (other != node && cost != UNREACHABLE) {
+                        edges.add(new int[] { node, other, cost });
+                    }
+                }
+            }
+        }
+        this.edgeStart = new int[this.nodes + 1];
+        this.edgeTo = new int[edges.size()];
+        this.edgeCost = new int[edges.size()];
+        for (final int[] edge : edges) {
+            this.edgeStart[edge[0] + 1]++;
+        }
+        for (int node = 0; node < this.nodes; node++) {
+            this.edgeStart[node + 1] += this.edgeStart[node];
+        }
+        final int[] cursors = Arrays.copyOf(this.edgeStart, this.nodes);
+        for (final int[] edge : edges) {
+            final int e = cursors[edge[0]]++;
+            this.edgeTo[e] = edge[1];
+            this.edgeCost[e] = edge[2];
+        }
+        this.nodeStamps = new int[this.nodes + 2];
+        this.nodeCosts = new int[this.nodes + 2];
+        this.nodeParents = new int[this.nodes + 2];
+        this.goalCosts = new int[this.nodes];
+    }
+
+    /*
+     * The entrances on a border between two clusters: the line of cells
+     * "border" and the next one, from "first" to "last" (excluded) along the
+     * border, which is vertical or horizontal.
+     */
+    private void addEntrances(final int border, final int first, final int last, final boolean vertical,
+            final List<Integer> cells, final List<int[]> edges) {
+        int runStart = -1;
+        for (int i = first; i <= last; i++) {
+            final boolean open = i < last && (vertical
+                    ? this.grid.isWalkable(border, i) && this.grid.isWalkable(border + 1, i)
+                    : this.grid.isWalkable(i, border) && this.grid.isWalkable(i, border + 1));
+            if (open && runStart < 0) {
+                runStart = i;
+            } else if (!open && runStart >= 0) {
+                if (i - runStart >= LONG_ENTRANCE) {
+                    this.addPortal(border, runStart, vertical, cells, edges);
+                    this.addPortal(border, i - 1, vertical, cells, edges);
+                } else {
+                    this.addPortal(border, (runStart + i - 1) / 2, vertical, cells, edges);
+                }
+                runStart = -1;
+            }
+        }
+    }
+
+    private void addPortal(final int border, final int position, final boolean vertical, final List<Integer> cells,
+            final List<int[]> edges) {
+        final int a = vertical ? this.grid.cellOf(border, position) : this.grid.cellOf(position, border);
+        final int b = vertical ? this.grid.cellOf(border + 1, position) : this.grid.cellOf(position, border + 1);
+        final int nodeA = this.nodeOf(a, cells);
+        final int nodeB = this.nodeOf(b, cells);
+        edges.add(new int[] { nodeA, nodeB, STRAIGHT });
+        edges.add(new int[] { nodeB, nodeA, STRAIGHT });
+    }
+
+    private int nodeOf(final int cell, final List<Integer> cells) {
+        if (this.nodeOfCell[cell] < 0) {
+            this.nodeOfCell[cell] = cells.size();
+            cells.add(cell);
+        }
+        return this.nodeOfCell[cell];
+    }
+
+    /*
+     * Binary min-heap of ints with their priorities, which allows duplicates:
+     * the searches skip the stale entries.
+     */
+    private static final class Heap {
+        private int[] values = new int[64];
+        private int[] priorities = new int[64];
+        private int size;
+
+        void clear() {
+            this.size = 0;
+        }
+
+        boolean isEmpty() {
+            return this.size == 0;
+        }
+
+        int peekPriority() {
+            return this.priorities[0];
+        }
+
+        void add(final int value, final int priority) {
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+                this.priorities = Arrays.copyOf(this.priorities, this.size * 2);
+            }
+            int i = this.size++;
+            while (i > 0 && this.priorities[(i - 1) / 2] > priority) {
+                this.values[i] = this.values[(i - 1) / 2];
+                this.priorities[i] = this.priorities[(i - 1) / 2];
+                i = (i - 1) / 2;
+            }
+            this.values[i] = value;
+            this.priorities[i] = priority;
+        }
+
+        int poll() {
+            final int top = this.values[0];
+            final int value = this.values[--this.size];
+            final int priority = this.priorities[this.size];
+            int i = 0;
+            while (2 * i + 1 < this.size) {
+                int child = 2 * i + 1;
+                if (child + 1 < this.size && this.priorities[child + 1] < this.priorities[child]) {
+                    child++;
+                }
+                if (this.priorities[child] >= priority) {
+                    break;
+                }
+                this.values[i] = this.values[child];
+                this.priorities[i] = this.priorities[child];
+                i = child;
+            }
+            this.values[i] = value;
+            this.priorities[i] = priority;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package it.unibo.oop.model;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+import it.unibo.oop.utilities.Position;
+
+/**
+ * Binary format of the designed levels. The tiles are read straight into a
+ * {@link TileGrid}, without building any object for them.
+ *
+ * <p>
+ * Layout, big endian: magic, version, columns and rows of the map, the
+ * background key (unsigned short length and UTF-8 bytes), the spawn points
+ * (count, then column and row of each), the layers (count, then for each
+ * its type and the length of its body). The body of a layer has the offsets
+ * of its chunks of {@value #CHUNK} x {@value #CHUNK} tiles, by rows, and then
+ * the chunks: a chunk is either filled with a single tile or made of runs of
+ * tiles (unsigned short count, then tile and unsigned short length of each
+ * run), reading its tiles by rows. The offsets let the reader skip the
+ * chunks and the layers it doesn't need.
+ */
+public final class LevelFormat {
+
+    /**
+     * Side of a chunk, in tiles.
+     */
+    public static final int CHUNK = 32;
+
+    /**
+     * Layer of the walls, the one used by the game.
+     */
+    public static final byte COLLISION_LAYER = 0;
+
+    static final int MAGIC = 0x4A32_444C; // "J2DL"
+    static final int VERSION = 1;
+    private static final byte FILLED = 0;
+    private static final byte RUNS = 1;
+    private static final int UNSIGNED_SHORT = 0xFFFF;
+    private static final int INITIAL_BUFFER = 64 * 1024;
+
+    private LevelFormat() {
+    }
+
+    /**
+     * Reads a level file, mapping it in memory.
+     *
+     * @param file
+     *            the level file
+     * @param grid
+     *            the {@link TileGrid} where the walls are added, the map
+     *            starting at its first cell
+     * @param spawnPoints
+     *            receives the spawn points inside the grid, in the centre of
+     *            their cell
+     * @return the background key of the level
+     * @throws IOException
+     *             if the file can't be read or it isn't valid
+     */
+    public static String read(final Path file, final TileGrid grid, final Consumer<Position> spawnPoints)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), grid, spawnPoints);
+        }
+    }
+
+    /**
+     * Reads a level from a channel, b.p. of a resource.
+     *
+     * @param channel
+     *            the channel, read to its end
+     * @param grid
+     *            the {@link TileGrid} where the walls are added
+     * @param spawnPoints
+     *            receives the spawn points inside the grid
+     * @return the background key of the level
+     * @throws IOException
+     *             if the channel can't be read or the level isn't valid
+     */
+    public static String read(final ReadableByteChannel channel, final TileGrid grid,
+            final Consumer<Position> spawnPoints) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(INITIAL_BUFFER);
+        while (channel.read(data) >= 0) {
+            if (!data.hasRemaining()) {
+                final ByteBuffer larger = ByteBuffer.allocate(data.capacity() * 2);
+                data.flip();
+                larger.put(data);
+                data = larger;
+            }
+        }
+        data.flip();
+        return read(data, grid, spawnPoints);
+    }
+
+    /**
+     * Reads a level from a buffer, from its position.
+     *
+     * @param data
+     *            the level
+     * @param grid
+     *            the {@link TileGrid} where the walls are added
+     * @param spawnPoints
+     *            receives the spawn points inside the grid
+     * @return the background key of the level
+     * @throws IOException
+     *             if the level isn't valid
+     */
+    public static String read(final ByteBuffer data, final TileGrid grid, final Consumer<Position> spawnPoints)
+            throws IOException {
+        try {
+            if (data.getInt() != MAGIC || data.getInt() != VERSION) {
+                throw new IOException("Not a level file");
+            }
+            final int columns = data.getInt();
+            final int rows = data.getInt();
+            if (columns <= 0 || rows <= 0) {
+                throw new IOException("Empty level");
+            }
+            final byte[] key = new byte[data.getShort() & UNSIGNED_SHORT];
+            data.get(key);
+            final int spawns = data.getInt();
+            for (int i = 0; i < spawns; i++) {
+                final int cell = grid.cellOf(data.getInt(), data.getInt());
+                if (cell >= 0) {
+                    spawnPoints.accept(new Position(grid.getCenterX(cell), grid.getCenterY(cell)));
+                }
+            }
+            final int layers = data.getInt();
+            for (int i = 0; i < layers; i++) {
+                final byte type = data.get();
+                final int length = data.getInt();
+                final int end = data.position() + length;
+                if (type == COLLISION_LAYER) {
+                    readWalls(data, columns, rows, grid);
+                }
+                data.position(end);
+            }
+            return new String(key, StandardCharsets.UTF_8);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Damaged level file", e);
+        }
+    }
+
+    private static void readWalls(final ByteBuffer data, final int columns, final int rows, final TileGrid grid) {
+        final int chunkColumns = (columns + CHUNK - 1) / CHUNK;
+        final int chunkRows = (rows + CHUNK - 1) / CHUNK;
+        final int table = data.position();
+        final int body = table + chunkColumns * chunkRows * Integer.BYTES;
+        for (int chunkRow = 0; chunkRow < chunkRows && chunkRow * CHUNK < grid.getRows(); chunkRow++) {
+            // the chunks outside the grid are skipped
+            for (int chunkColumn = 0; chunkColumn < chunkColumns
+                    && chunkColumn * CHUNK < grid.getColumns(); chunkColumn++) {
+                final int offset = data.getInt(table + (chunkColumn + chunkRow * chunkColumns) * Integer.BYTES);
+                data.position(body + offset);
+                final int left = chunkColumn * CHUNK;
+                final int top = chunkRow * CHUNK;
+                final int width = Math.min(CHUNK, columns - left);
+                final int height = Math.min(CHUNK, rows - top);
+                if (data.get() == FILLED) {
+                    if (data.get() == TileMap.WALL) {
+                        for (int row = 0; row < height; row++) {
+                            grid.setBlocked(left, top + row, width, true);
+                        }
+                    }
+                } else {
+                    final int runs = data.getShort() & UNSIGNED_SHORT;
+                    int tile = 0;
+                    for (int r = 0; r < runs; r++) {
+                        final boolean wall = data.get() == TileMap.WALL;
+                        int length = data.getShort() & UNSIGNED_SHORT;
+                        while (length > 0 && tile < width * height) { // a run can go on in the next rows
+                            final int span = Math.min(length, width - tile % width);
+                            if (wall) {
+                                grid.setBlocked(left + tile % width, top + tile / width, span, true);
+                            }
+                            tile += span;
+                            length -= span;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a level, with its walls in the collision layer.
+     *
+     * @param map
+     *            the {@link TileMap} of the level, with its spawn points
+     * @param background
+     *            the background key
+     * @param channel
+     *            where the level is written
+     * @throws IOException
+     *             if the channel can't be written
+     */
+    public static void write(final TileMap map, final String background, final WritableByteChannel channel)
+            throws IOException {
+        final int columns = map.getColumns();
+        final int rows = map.getRows();
+        final byte[] tiles = map.getTiles();
+        final int chunkColumns = (columns + CHUNK - 1) / CHUNK;
+        final int chunkRows = (rows + CHUNK - 1) / CHUNK;
+        final byte[] key = background.getBytes(StandardCharsets.UTF_8);
+        if (key.length > UNSIGNED_SHORT) {
+            throw new IllegalArgumentException("Background key too long");
+        }
+        final int[] spawns = map.getSpawnPoints();
+        // the worst case is a run for every tile
+        final ByteBuffer layer = ByteBuffer.allocate(chunkColumns * chunkRows * (Integer.BYTES + 3) + tiles.length * 3);
+        final int body = chunkColumns * chunkRows * Integer.BYTES;
+        layer.position(body);
+        for (int chunkRow = 0; chunkRow < chunkRows; chunkRow++) {
+            for (int chunkColumn = 0; chunkColumn < chunkColumns; chunkColumn++) {
+                layer.putInt((chunkColumn + chunkRow * chunkColumns) * Integer.BYTES, layer.position() - body);
+                writeChunk(layer, tiles, columns, chunkColumn * CHUNK, chunkRow * CHUNK,
+                        Math.min(CHUNK, columns - chunkColumn * CHUNK), Math.min(CHUNK, rows - chunkRow * CHUNK));
+            }
+        }
+        layer.flip();
+        final ByteBuffer header = ByteBuffer.allocate(
+                6 * Integer.BYTES + Short.BYTES + key.length + spawns.length * Integer.BYTES + 1 + Integer.BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt(columns).putInt(rows);
+        header.putShort((short) key.length).put(key);
+        header.putInt(spawns.length / 2);
+        for (final int coordinate : spawns) {
+            header.putInt(coordinate);
+        }
+        header.putInt(1).put(COLLISION_LAYER).putInt(layer.limit());
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        while (layer.hasRemaining()) {
+            channel.write(layer);
+        }
+    }
+
+    private static void writeChunk(final ByteBuffer layer, final byte[] tiles, final int columns, final int left,
+            final int top, final int width, final int height) {
+        final int start = layer.position();
+        layer.put(RUNS).putShort((short) 0);
+        int runs = 0;
+        byte current = tiles[left + top * columns];
+        int length = 0;
+        for (int row = top; row < top + height; row++) {
+            for (int column = left; column < left + width; column++) {
+                final byte tile = tiles[column + row * columns];
+                if (tile != current) {
+                    layer.put(current).putShort((short) length);
+                    runs++;
+                    current = tile;
+                    length = 0;
+                }
+                length++;
+            }
+        }
+        if (runs == 0) { // a single run: the chunk is filled
+            layer.position(start);
+            layer.put(FILLED).put(current);
+        } else {
+            layer.put(current).putShort((short) length);
+            layer.putShort(start + 1, (short) (runs + 1));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package it.unibo.oop.model;
+
+/**
+ * Line of sight between the cells of the {@link TileGrid}: a ray from the
+ * centre of a cell to the centre of another one, walked cell by cell with the
+ * DDA algorithm, is blocked by the first cell which isn't walkable. The
+ * positions outside the grid see and are seen, as nothing is known there.
+ *
+ * <p>
+ * Almost all the queries have the same target, the {@link MainCharacter}, so
+ * the results are kept for each start cell until the target cell or the grid
+ * change: the enemies in the same cell share a single ray.
+ */
+public class LineOfSight {
+
+    private final TileGrid grid;
+    private final int[] stamps;
+    private final boolean[] results;
+    private int stamp;
+    private int target = -1;
+    private int version = -1;
+    private long rays;
+
+    /**
+     * Creates the service for a grid.
+     *
+     * @param grid
+     *            the {@link TileGrid} with the obstacles
+     */
+    public LineOfSight(final TileGrid grid) {
+        this.grid = grid;
+        this.stamps = new int[grid.size()];
+        this.results = new boolean[grid.size()];
+    }
+
+    /**
+     * @return the {@link TileGrid} of the obstacles
+     */
+    public TileGrid getGrid() {
+        return this.grid;
+    }
+
+    /**
+     * @return how many rays have been walked
+     */
+    public long getRays() {
+        return this.rays;
+    }
+
+    /**
+     * Checks if a cell sees another one.
+     *
+     * @param from
+     *            index of the first cell, -1 if outside the grid
+     * @param to
+     *            index of the second cell, -1 if outside the grid
+     * @return true if no blocked cell is between the two
+     */
+    public boolean hasSight(final int from, final int to) {
+        if (from < 0 || to < 0 || from == to) {
+            return true;
+        }
+        if (to != this.target || this.grid.getVersion() != this.version) {
+            this.target = to;
+            this.version = this.grid.getVersion();
+            this.stamp++;
+        }
+        if (this.stamps[from] != this.stamp) {
+            this.stamps[from] = this.stamp;
+            this.results[from] = this.castRay(from, to);
+        }
+        return this.results[from];
+    }
+
+    /*
+     * Amanatides and Woo traversal. The distances along the ray are scaled by
+     * 2 * |dx| * |dy|, so they're integers and the corners are found exactly:
+     * the centres are at .5, so the first borders are half a step away. When
+     * the ray crosses a corner both the cells beside it must be free, as for
+     * the moves.
+     */
+    private boolean castRay(final int from, final int to) {
+        this.rays++;
+        final int columns = this.grid.getColumns();
+        int column = from % columns;
+        int row = from / columns;
+        final int lastColumn = to % columns;
+        final int lastRow = to / columns;
+        final int dx = lastColumn - column;
+        final int dy = lastRow - row;
+        final int stepX = Integer.signum(dx);
+        final int stepY = Integer.signum(dy);
+        final long deltaX = dx == 0 ? 0 : 2L * Math.max(1, Math.abs(dy));
+        final long deltaY = dy == 0 ? 0 : 2L * Math.max(1, Math.abs(dx));
+        long maxX = dx == 0 ? Long.MAX_VALUE : deltaX / 2;
+        long maxY = dy == 0 ? Long.MAX_VALUE : deltaY / 2;
+        while (column != lastColumn || row != lastRow) {
+            if (maxX < maxY) {
+                maxX += deltaX;
+                column += stepX;
+            } else if (maxY < maxX) {
+                maxY += deltaY;
+                row += stepY;
+            } else {
+                if (!this.grid.isWalkable(column + stepX, row) || !this.grid.isWalkable(column, row + stepY)) {
+                    return false;
+                }
+                maxX += deltaX;
+                maxY += deltaY;
+                column += stepX;
+                row += stepY;
+            }
+            if ((column != lastColumn || row != lastRow) && !this.grid.isWalkable(column, row)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -7,11 +7,17 @@ import java.util.stream.Collectors;
 
 import it.unibo.oop.exceptions.CollisionHandlingException;
 import it.unibo.oop.utilities.Direction;
+import it.unibo.oop.utilities.Log;
+import it.unibo.oop.utilities.LogImpl;
+import it.unibo.oop.utilities.LogLevel;
 import it.unibo.oop.utilities.Position;
+import it.unibo.oop.utilities.SoundEffect;
+import it.unibo.oop.utilities.SoundMixerImpl;
 import it.unibo.oop.utilities.Vector2;
 
 public class MainCharacter extends MovableEntity implements Shooter {
 
+    private static final Log LOG = LogImpl.getInstance();
     private Health currentHealth;
     private Score currentScore;
 
@@ -97,7 +103,7 @@ public class MainCharacter extends MovableEntity implements Shooter {
             this.setMovement(newMovement);
             this.move();
         } catch (CollisionHandlingException e) {
-            System.out.println("The main character collided");
+            LOG.log(LogLevel.DEBUG, "The main character collided");
         } finally {
             if (isShooting && !this.currentHealth.isDead()) {
                 this.shoot();
@@ -136,13 +142,14 @@ public class MainCharacter extends MovableEntity implements Shooter {
         // If the character collides with a wall in the next move it can't move
         // there
         if (numWallCollisions > 0) {
-            System.out.println("Entrato");
+            LOG.log(LogLevel.DEBUG, "The main character is blocked by a wall");
             throw new CollisionHandlingException("Next move collides a Wall");
         }
         // If it collides with one or more bonus it takes them and apply it;
         if (!collectablesCollided.isEmpty()) {
             collectablesCollided.stream().forEach(x -> x.collect(this));
             collectablesCollided.stream().forEach(x -> ((AbstractEntity) x).killEntity());
+            SoundMixerImpl.getInstance().trigger(SoundEffect.PICKUP);
         }
         // Checks the collision with the collided enemies. Damage the hero and
         // kills the monsters (temporary)
@@ -154,6 +161,7 @@ public class MainCharacter extends MovableEntity implements Shooter {
             this.currentScore.increaseScore(scoreGained);
 
             enemyCollisions.stream().forEach(x -> x.killEntity());
+            SoundMixerImpl.getInstance().trigger(SoundEffect.HIT);
 
             if (this.isDead()) {
                 throw new CollisionHandlingException("The main character died");
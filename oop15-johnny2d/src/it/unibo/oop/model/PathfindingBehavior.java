@@ -0,0 +1,105 @@
+package it.unibo.oop.model;
+
+import it.unibo.oop.utilities.Position;
+import it.unibo.oop.utilities.Vector2;
+
+/**
+ * {@link MovementBehavior} that reaches the target along a path of the
+ * {@link HierarchicalPathfinder} of the game, so it can go around the
+ * obstacles towards any target, not only the {@link MainCharacter}. The path
+ * is searched again only when the target moves to another cluster; otherwise
+ * only its end is moved.
+ */
+public class PathfindingBehavior implements MovementBehavior {
+
+    private final MovableEntity entity;
+    private int[] waypoints;
+    private int waypoint;
+    private int goalCell = -1;
+    private int[] segment;
+    private int segmentStart = -1;
+    private int step;
+    private int failedCluster = -1;
+    private int failedVersion;
+
+    /**
+     * Creates the behavior of an entity.
+     *
+     * @param entity
+     *            the {@link MovableEntity} to move
+     */
+    public PathfindingBehavior(final MovableEntity entity) {
+        this.entity = entity;
+    }
+
+    /**
+     * Returns a {@link Vector2} towards the next cell of the path to the
+     * target, or straight to it if it's in the same cell or there's no path.
+     *
+     * @param targetPosition
+     *            the {@link Position} to reach
+     * @return The next movement vector
+     */
+    public Vector2 getNextMove(final Position targetPosition) {
+        final HierarchicalPathfinder pathfinder = this.entity.getEnvironment().getPathfinder();
+        final TileGrid grid = pathfinder.getGrid();
+        final int from = grid.cellAt(this.entity.getX(), this.entity.getY());
+        final int goal = grid.cellAt(targetPosition.getX(), targetPosition.getY());
+        final int next = from < 0 || goal < 0 || from == goal ? -1 : this.nextCell(pathfinder, from, goal);
+        final double speed = this.entity.getVelocity().getMaxVelocity();
+        if (next < 0) {
+            return new Vector2(targetPosition.getX() - this.entity.getX(), targetPosition.getY() - this.entity.getY())
+                    .setLength(speed);
+        }
+        return new Vector2(grid.getCenterX(next) - this.entity.getX(), grid.getCenterY(next) - this.entity.getY())
+                .setLength(speed);
+    }
+
+    private int nextCell(final HierarchicalPathfinder pathfinder, final int from, final int goal) {
+        if (this.waypoints == null && pathfinder.clusterOf(goal) == this.failedCluster
+                && pathfinder.getGrid().getVersion() == this.failedVersion) {
+            return -1; // no path, until the target or the grid change
+        }
+        if (this.waypoints == null || this.goalCell < 0
+                || pathfinder.clusterOf(goal) != pathfinder.clusterOf(this.goalCell)) {
+            this.replan(pathfinder, from, goal);
+        } else if (goal != this.goalCell) {
+            this.waypoints[this.waypoints.length - 1] = goal;
+            if (this.waypoint == this.waypoints.length - 1) {
+                this.segment = null;
+            }
+        }
+        this.goalCell = goal;
+        if (this.waypoints == null) {
+            return -1;
+        }
+        while (this.waypoint < this.waypoints.length && from == this.waypoints[this.waypoint]) {
+            this.waypoint++;
+            this.segment = null;
+        }
+        if (this.waypoint == this.waypoints.length) {
+            return -1;
+        }
+        if (this.segment != null && this.step < this.segment.length && from == this.segment[this.step]) {
+            this.step++;
+        } else if (this.segment == null || from != (this.step == 0 ? this.segmentStart : this.segment[this.step - 1])) {
+            // pushed off the path: the part to the next portal is searched again
+            this.segment = pathfinder.refine(from, this.waypoints[this.waypoint]);
+            this.segmentStart = from;
+            this.step = 0;
+            if (this.segment == null) {
+                this.replan(pathfinder, from, goal);
+                return -1;
+            }
+        }
+        return this.step < this.segment.length ? this.segment[this.step] : -1;
+    }
+
+    private void replan(final HierarchicalPathfinder pathfinder, final int from, final int goal) {
+        this.waypoints = pathfinder.findWaypoints(from, goal);
+        this.waypoint = 0;
+        this.segment = null;
+        this.failedCluster = this.waypoints == null ? pathfinder.clusterOf(goal) : -1;
+        this.failedVersion = pathfinder.getGrid().getVersion();
+    }
+}
@@ -0,0 +1,237 @@
+package it.unibo.oop.model;
+
+import java.awt.Rectangle;
+import java.util.BitSet;
+
+/**
+ * Grid of tiles, as big as a {@link Wall}, laid over the {@link Arena}: each
+ * cell is walkable or blocked. The cells are numbered by rows, so a cell is
+ * a single int (column + row * columns) and the navigation structures can
+ * be plain arrays.
+ */
+public class TileGrid {
+
+    private final int originX;
+    private final int originY;
+    private final int columns;
+    private final int rows;
+    private final int cellWidth;
+    private final int cellHeight;
+    private final BitSet blocked;
+    private int version;
+
+    /**
+     * Creates a grid with every cell walkable.
+     *
+     * @param originX
+     *            X of the top left corner of the grid
+     * @param originY
+     *            Y of the top left corner of the grid
+     * @param columns
+     *            number of columns
+     * @param rows
+     *            number of rows
+     * @param cellWidth
+     *            width of a cell
+     * @param cellHeight
+     *            height of a cell
+     */
+    public TileGrid(final int originX, final int originY, final int columns, final int rows, final int cellWidth,
+            final int cellHeight) {
+        if (columns <= 0 || rows <= 0 || cellWidth <= 0 || cellHeight <= 0) {
+            throw new IllegalArgumentException("Empty grid");
+        }
+        this.originX = originX;
+        this.originY = originY;
+        this.columns = columns;
+        this.rows = rows;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.blocked = new BitSet(columns * rows);
+    }
+
+    /**
+     * @return the number of columns
+     */
+    public int getColumns() {
+        return this.columns;
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * @return the number of cells
+     */
+    public int size() {
+        return this.columns * this.rows;
+    }
+
+    /**
+     * @return the width of a cell
+     */
+    public int getCellWidth() {
+        return this.cellWidth;
+    }
+
+    /**
+     * @return the height of a cell
+     */
+    public int getCellHeight() {
+        return this.cellHeight;
+    }
+
+    /**
+     * Counter increased at every change of the cells, used to know if the
+     * structures built on the grid are still valid.
+     *
+     * @return the version of the grid
+     */
+    public int getVersion() {
+        return this.version;
+    }
+
+    /**
+     * @param x
+     *            X coordinate
+     * @return the column containing x, possibly outside the grid
+     */
+    public int columnOf(final double x) {
+        return (int) Math.floor((x - this.originX) / this.cellWidth);
+    }
+
+    /**
+     * @param y
+     *            Y coordinate
+     * @return the row containing y, possibly outside the grid
+     */
+    public int rowOf(final double y) {
+        return (int) Math.floor((y - this.originY) / this.cellHeight);
+    }
+
+    /**
+     * @param column
+     *            column of the cell
+     * @param row
+     *            row of the cell
+     * @return the index of the cell, -1 if outside the grid
+     */
+    public int cellOf(final int column, final int row) {
+        if (column < 0 || row < 0 || column >= this.columns || row >= this.rows) {
+            return -1;
+        }
+        return column + row * this.columns;
+    }
+
+    /**
+     * @param x
+     *            X coordinate
+     * @param y
+     *            Y coordinate
+     * @return the index of the cell containing the point, -1 if outside the
+     *         grid
+     */
+    public int cellAt(final double x, final double y) {
+        return this.cellOf(this.columnOf(x), this.rowOf(y));
+    }
+
+    /**
+     * @param cell
+     *            index of the cell
+     * @return the X of the centre of the cell
+     */
+    public double getCenterX(final int cell) {
+        return this.originX + (cell % this.columns + 0.5) * this.cellWidth;
+    }
+
+    /**
+     * @param cell
+     *            index of the cell
+     * @return the Y of the centre of the cell
+     */
+    public double getCenterY(final int cell) {
+        return this.originY + (cell / this.columns + 0.5) * this.cellHeight;
+    }
+
+    /**
+     * @param column
+     *            column of the cell
+     * @param row
+     *            row of the cell
+     * @return true if the cell is inside the grid and not blocked
+     */
+    public boolean isWalkable(final int column, final int row) {
+        final int cell = this.cellOf(column, row);
+        return cell >= 0 && !this.blocked.get(cell);
+    }
+
+    /**
+     * @param cell
+     *            index of the cell
+     * @return true if the cell is inside the grid and not blocked
+     */
+    public boolean isWalkable(final int cell) {
+        return cell >= 0 && cell < this.size() && !this.blocked.get(cell);
+    }
+
+    /**
+     * Blocks or frees a cell; the cells outside the grid are ignored.
+     *
+     * @param column
+     *            column of the cell
+     * @param row
+     *            row of the cell
+     * @param isBlocked
+     *            true to block the cell
+     */
+    public void setBlocked(final int column, final int row, final boolean isBlocked) {
+        final int cell = this.cellOf(column, row);
+        if (cell >= 0 && this.blocked.get(cell) != isBlocked) {
+            this.blocked.set(cell, isBlocked);
+            this.version++;
+        }
+    }
+
+    /**
+     * Blocks or frees a span of cells in a row, at once; the cells outside
+     * the grid are ignored.
+     *
+     * @param column
+     *            first column of the span
+     * @param row
+     *            row of the cells
+     * @param length
+     *            number of cells
+     * @param isBlocked
+     *            true to block the cells
+     */
+    public void setBlocked(final int column, final int row, final int length, final boolean isBlocked) {
+        final int first = Math.max(0, column);
+        final int last = Math.min(this.columns, column + length);
+        if (row >= 0 && row < this.rows && first < last) {
+            this.blocked.set(first + row * this.columns, last + row * this.columns, isBlocked);
+            this.version++;
+        }
+    }
+
+    /**
+     * Blocks the cells whose centre is covered by the {@link Entity}.
+     *
+     * @param entity
+     *            an obstacle like a {@link Wall}
+     */
+    public void block(final Entity entity) {
+        final Rectangle bounds = entity.getBounds();
+        final int lastColumn = this.columnOf(bounds.getMaxX() - this.cellWidth / 2.0);
+        final int lastRow = this.rowOf(bounds.getMaxY() - this.cellHeight / 2.0);
+        for (int row = this.rowOf(bounds.getMinY() + this.cellHeight / 2.0); row <= lastRow; row++) {
+            for (int column = this.columnOf(bounds.getMinX() + this.cellWidth / 2.0); column <= lastColumn; column++) {
+                this.setBlocked(column, row, true);
+            }
+        }
+    }
+}
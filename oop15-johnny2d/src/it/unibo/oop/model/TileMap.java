@@ -0,0 +1,235 @@
+package it.unibo.oop.model;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A map of tiles as big as a {@link Wall}, one byte per tile, with the spawn
+ * points of the level. It's the output of the {@link DungeonGenerator}; the
+ * walls are turned into few large rectangles for the collisions, and the
+ * tiles are copied in the {@link TileGrid} of the {@link Arena} for the
+ * navigation.
+ */
+public final class TileMap {
+
+    /**
+     * A tile where the entities can walk.
+     */
+    public static final byte FLOOR = 0;
+
+    /**
+     * A wall tile.
+     */
+    public static final byte WALL = 1;
+
+    private final int columns;
+    private final int rows;
+    private final byte[] tiles;
+    private int[] spawnPoints = new int[0];
+    private int spawnCount;
+
+    /**
+     * Creates a map of floor tiles.
+     *
+     * @param columns
+     *            number of columns
+     * @param rows
+     *            number of rows
+     */
+    public TileMap(final int columns, final int rows) {
+        if (columns <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("Empty map");
+        }
+        this.columns = columns;
+        this.rows = rows;
+        this.tiles = new byte[columns * rows];
+    }
+
+    /**
+     * @return the number of columns
+     */
+    public int getColumns() {
+        return this.columns;
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * @param column
+     *            column of the tile
+     * @param row
+     *            row of the tile
+     * @return the tile, {@link #WALL} outside the map
+     */
+    public byte get(final int column, final int row) {
+        if (column < 0 || row < 0 || column >= this.columns || row >= this.rows) {
+            return WALL;
+        }
+        return this.tiles[column + row * this.columns];
+    }
+
+    /**
+     * @param column
+     *            column of the tile
+     * @param row
+     *            row of the tile
+     * @param tile
+     *            the new tile
+     */
+    public void set(final int column, final int row, final byte tile) {
+        this.tiles[column + row * this.columns] = tile;
+    }
+
+    /**
+     * Sets a rectangle of tiles, cut to the map.
+     *
+     * @param column
+     *            first column
+     * @param row
+     *            first row
+     * @param width
+     *            number of columns
+     * @param height
+     *            number of rows
+     * @param tile
+     *            the new tile
+     */
+    public void fill(final int column, final int row, final int width, final int height, final byte tile) {
+        final int first = Math.max(0, column);
+        final int last = Math.min(this.columns, column + width);
+        for (int r = Math.max(0, row); r < Math.min(this.rows, row + height); r++) {
+            if (first < last) {
+                Arrays.fill(this.tiles, first + r * this.columns, last + r * this.columns, tile);
+            }
+        }
+    }
+
+    /**
+     * @return the tiles by rows, not copied
+     */
+    byte[] getTiles() {
+        return this.tiles;
+    }
+
+    /**
+     * Adds a spawn point.
+     *
+     * @param column
+     *            column of the tile
+     * @param row
+     *            row of the tile
+     */
+    public void addSpawnPoint(final int column, final int row) {
+        if (this.spawnCount * 2 == this.spawnPoints.length) {
+            this.spawnPoints = Arrays.copyOf(this.spawnPoints, Math.max(8, this.spawnPoints.length * 2));
+        }
+        this.spawnPoints[this.spawnCount * 2] = column;
+        this.spawnPoints[this.spawnCount * 2 + 1] = row;
+        this.spawnCount++;
+    }
+
+    /**
+     * @return the spawn points, as column and row pairs
+     */
+    public int[] getSpawnPoints() {
+        return Arrays.copyOf(this.spawnPoints, this.spawnCount * 2);
+    }
+
+    /**
+     * Copies the tiles in a grid, the map starting at its first cell; the
+     * cells outside the map are left as they are.
+     *
+     * @param grid
+     *            the {@link TileGrid}
+     */
+    public void applyTo(final TileGrid grid) {
+        final int lastColumn = Math.min(this.columns, grid.getColumns());
+        final int lastRow = Math.min(this.rows, grid.getRows());
+        for (int row = 0; row < lastRow; row++) {
+            for (int column = 0; column < lastColumn; column++) {
+                grid.setBlocked(column, row, this.tiles[column + row * this.columns] == WALL);
+            }
+        }
+    }
+
+    /**
+     * Covers the walls with rectangles, in tiles, which don't overlap. Each
+     * rectangle is grown as much as possible from its top left tile, first by
+     * rows and then by columns; the way which gives less rectangles is kept.
+     *
+     * @return the rectangles of the walls, in tiles
+     */
+    public List<Rectangle> getWallRectangles() {
+        final int[] byRows = coalesce(this.tiles, this.columns, this.rows);
+        // by columns: the same on the transposed map
+        final byte[] transposed = new byte[this.tiles.length];
+        for (int row = 0; row < this.rows; row++) {
+            for (int column = 0; column < this.columns; column++) {
+                transposed[row + column * this.rows] = this.tiles[column + row * this.columns];
+            }
+        }
+        final int[] byColumns = coalesce(transposed, this.rows, this.columns);
+        final boolean rowsBetter = byRows.length <= byColumns.length;
+        final int[] best = rowsBetter ? byRows : byColumns;
+        final List<Rectangle> result = new ArrayList<>(best.length / 4);
+        for (int i = 0; i < best.length; i += 4) {
+            result.add(rowsBetter ? new Rectangle(best[i], best[i + 1], best[i + 2], best[i + 3])
+                    : new Rectangle(best[i + 1], best[i], best[i + 3], best[i + 2]));
+        }
+        return result;
+    }
+
+    /*
+     * Greedy meshing: returns x, y, width, height of each rectangle. The
+     * rectangles are grown along the rows and then stacked while the next row
+     * has walls, not covered yet, under the whole span.
+     */
+    private static int[] coalesce(final byte[] tiles, final int width, final int height) {
+        final boolean[] covered = new boolean[tiles.length];
+        int[] result = new int[64];
+        int count = 0;
+        for (int y = 0; y < height; y++) {
+            final int row = y * width;
+            int x = 0;
+            while (x < width) {
+                if (tiles[row + x] != WALL || covered[row + x]) {
+                    x++;
+                    continue;
+                }
+                int end = x + 1;
+                while (end < width && tiles[row + end] == WALL && !covered[row + end]) {
+                    end++;
+                }
+                int depth = 1;
+                stacking: while (y + depth < height) {
+                    final int next = (y + depth) * width;
+                    for (int i = next + x; i < next + end; i++) {
+                        if (tiles[i] != WALL || covered[i]) {
+                            break stacking;
+                        }
+                    }
+                    depth++;
+                }
+                for (int d = 0; d < depth; d++) {
+                    Arrays.fill(covered, (y + d) * width + x, (y + d) * width + end, true);
+                }
+                if (count + 4 > result.length) {
+                    result = Arrays.copyOf(result, result.length * 2);
+                }
+                result[count++] = x;
+                result[count++] = y;
+                result[count++] = end - x;
+                result[count++] = depth;
+                x = end;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,196 @@
+package it.unibo.oop.model;
+
+/**
+ * Hierarchical timer wheel counting the updates of the game: the timed
+ * events (spawns, cooldowns, expirations) are scheduled once instead of
+ * checking a counter at every update. There are 4 wheels of 64 slots: the
+ * first one holds the events of the next 64 updates, one slot per update,
+ * each next one covers 64 times the previous one, and its events go down to
+ * the wheel below when their time gets near. Scheduling and cancelling are
+ * constant time, and each update looks at a single slot (plus, every 64
+ * updates, one slot of the wheels above).
+ *
+ * <p>
+ * It's used only by the game thread, without synchronization.
+ */
+public class TimerWheel {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELAY = (1L << (BITS * LEVELS)) - 1;
+
+    private final Timer[][] wheels = new Timer[LEVELS][SLOTS];
+    private long tick;
+    private int scheduled;
+
+    /**
+     * An event which can be scheduled many times, without allocating.
+     */
+    public static final class Timer {
+        private final Runnable task;
+        private long deadline;
+        private Timer previous;
+        private Timer next;
+        private TimerWheel wheel;
+
+        /**
+         * @param task
+         *            what to do when the time comes
+         */
+        public Timer(final Runnable task) {
+            this.task = task;
+        }
+
+        private Timer() { // head of a slot
+            this.task = null;
+            this.previous = this;
+            this.next = this;
+        }
+
+        /**
+         * @return true if the timer is waiting
+         */
+        public boolean isScheduled() {
+            return this.wheel != null;
+        }
+
+        /**
+         * @return the updates left before the timer goes off, 0 if it isn't
+         *         scheduled
+         */
+        public long getRemaining() {
+            return this.wheel == null ? 0 : this.deadline - this.wheel.tick;
+        }
+
+        /**
+         * Cancels the timer, if it's waiting.
+         *
+         * @return true if the timer was waiting
+         */
+        public boolean cancel() {
+            if (this.wheel == null) {
+                return false;
+            }
+            this.wheel.scheduled--;
+            this.wheel = null;
+            this.previous.next = this.next;
+            this.next.previous = this.previous;
+            this.previous = null;
+            this.next = null;
+            return true;
+        }
+    }
+
+    /**
+     * Creates a wheel at update 0, without events.
+     */
+    public TimerWheel() {
+        for (final Timer[] wheel : this.wheels) {
+            for (int s = 0; s < SLOTS; s++) {
+                wheel[s] = new Timer();
+            }
+        }
+    }
+
+    /**
+     * @return the number of updates counted
+     */
+    public long getTick() {
+        return this.tick;
+    }
+
+    /**
+     * @return the timers waiting
+     */
+    public int getScheduled() {
+        return this.scheduled;
+    }
+
+    /**
+     * Schedules a new event.
+     *
+     * @param delay
+     *            the updates to wait, at least 1
+     * @param task
+     *            what to do when the time comes
+     * @return the {@link Timer}, which can be cancelled
+     */
+    public Timer schedule(final long delay, final Runnable task) {
+        final Timer timer = new Timer(task);
+        this.schedule(timer, delay);
+        return timer;
+    }
+
+    /**
+     * Schedules a timer, moving it if it's already waiting.
+     *
+     * @param timer
+     *            the {@link Timer}
+     * @param delay
+     *            the updates to wait, at least 1; the longer delays are cut
+     *            to the range of the wheels (about 16 million updates)
+     */
+    public void schedule(final Timer timer, final long delay) {
+        timer.cancel();
+        timer.deadline = this.tick + Math.max(1, Math.min(MAX_DELAY, delay));
+        timer.wheel = this;
+        this.scheduled++;
+        this.insert(timer);
+    }
+
+    /**
+     * Counts an update and runs the events of this update, in the order they
+     * have been scheduled (or moved down from the wheels above).
+     */
+    public void advance() {
+        this.tick++;
+        // the events of the wheels above whose time is near go down
+        for (int level = 1; level < LEVELS && (this.tick & ((1L << (BITS * level)) - 1)) == 0; level++) {
+            final Timer head = this.wheels[level][(int) (this.tick >>> (BITS * level)) & MASK];
+            while (head.next != head) {
+                final Timer timer = head.next;
+                this.unlink(timer);
+                this.insert(timer);
+            }
+        }
+        final Timer head = this.wheels[0][(int) this.tick & MASK];
+        while (head.next != head) { // the tasks can schedule other events, even in this slot at the next turn
+            final Timer timer = head.next;
+            timer.cancel();
+            timer.task.run();
+        }
+    }
+
+    /**
+     * Cancels all the events, keeping the count of the updates.
+     */
+    public void clear() {
+        for (final Timer[] wheel : this.wheels) {
+            for (final Timer head : wheel) {
+                while (head.next != head) {
+                    head.next.cancel();
+                }
+            }
+        }
+    }
+
+    private void insert(final Timer timer) {
+        final long delta = timer.deadline - this.tick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+        final Timer head = this.wheels[level][(int) (timer.deadline >>> (BITS * level)) & MASK];
+        timer.previous = head.previous;
+        timer.next = head;
+        head.previous.next = timer;
+        head.previous = timer;
+    }
+
+    private void unlink(final Timer timer) {
+        timer.previous.next = timer.next;
+        timer.next.previous = timer.previous;
+    }
+}
@@ -0,0 +1,55 @@
+package it.unibo.oop.model;
+
+import java.util.function.BooleanSupplier;
+
+import it.unibo.oop.utilities.Position;
+import it.unibo.oop.utilities.Vector2;
+
+/**
+ * {@link MovementBehavior} driven by a {@link BehaviorTree}: at every move the
+ * tree is visited and the movement is the one set by its actions. If the AI
+ * time of the update runs out, the visit ends at the next move and the entity
+ * keeps its last movement meanwhile.
+ */
+public class TreeBehavior implements MovementBehavior {
+
+    private final BehaviorTree tree;
+    private final Blackboard blackboard;
+    private BooleanSupplier outOfTime;
+
+    /**
+     * Creates the behavior of an entity.
+     *
+     * @param entity
+     *            the {@link MovableEntity} to move
+     * @param tree
+     *            the {@link BehaviorTree}, which can be shared
+     */
+    public TreeBehavior(final MovableEntity entity, final BehaviorTree tree) {
+        this.tree = tree;
+        this.blackboard = tree.newBlackboard(entity);
+    }
+
+    /**
+     * @return the state of the entity
+     */
+    public Blackboard getBlackboard() {
+        return this.blackboard;
+    }
+
+    /**
+     * Visits the tree and returns the movement chosen.
+     *
+     * @param targetPosition
+     *            the {@link Position} to reach
+     * @return The next movement vector
+     */
+    public Vector2 getNextMove(final Position targetPosition) {
+        if (this.outOfTime == null) {
+            this.outOfTime = this.blackboard.getEntity().getEnvironment().getAiScheduler()::isOverBudget;
+        }
+        this.blackboard.setTarget(targetPosition);
+        this.tree.tick(this.blackboard, this.outOfTime);
+        return this.blackboard.getMovement();
+    }
+}
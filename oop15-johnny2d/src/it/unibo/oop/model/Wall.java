@@ -7,6 +7,9 @@ import static it.unibo.oop.utilities.CharactersSettings.*;
  */
 public class Wall extends AbstractEntity {
 
+    private final int width;
+    private final int height;
+
     /**
      * Constructor to create a {@link Wall} in the defined position
      * 
@@ -16,7 +19,26 @@ public class Wall extends AbstractEntity {
      *            Starting Y position
      */
     public Wall(final double startingX, final double startingY) {
+        this(startingX, startingY, WALL.getWidth(), WALL.getHeight());
+    }
+
+    /**
+     * Constructor to create a {@link Wall} of many blocks, used to collide
+     * with a whole piece of wall at once
+     * 
+     * @param startingX
+     *            Starting X position, the centre of the wall
+     * @param startingY
+     *            Starting Y position, the centre of the wall
+     * @param width
+     *            Width of the wall
+     * @param height
+     *            Height of the wall
+     */
+    public Wall(final double startingX, final double startingY, final int width, final int height) {
         super(startingX, startingY);
+        this.width = width;
+        this.height = height;
     }
 
     /**
@@ -24,7 +46,7 @@ public class Wall extends AbstractEntity {
      * @return the height
      */
     protected int getEntityHeight() {
-        return WALL.getHeight();
+        return this.height;
     }
 
     /**
@@ -32,6 +54,6 @@ public class Wall extends AbstractEntity {
      * @return the width
      */
     protected int getEntityWidth() {
-        return WALL.getWidth();
+        return this.width;
     }
 }
\ No newline at end of file
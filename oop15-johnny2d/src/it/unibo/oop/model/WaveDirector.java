@@ -0,0 +1,321 @@
+package it.unibo.oop.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.UnaryOperator;
+
+import it.unibo.oop.utilities.CharactersSettings;
+import it.unibo.oop.utilities.LogImpl;
+import it.unibo.oop.utilities.LogLevel;
+
+/**
+ * Spawns the monsters following a {@link WaveSchedule}. When a wave starts,
+ * the positions of the next one are already being chosen by a daemon thread
+ * among the free cells of the {@link TileGrid}, so the game thread only takes
+ * a ready {@link SpawnPlan}. The planner never reads the grid, which the game
+ * thread can change at any time, but a copy of its walkable cells taken by the
+ * game thread when the planning starts. A plan has a few candidate positions for every
+ * monster, because the {@link MainCharacter} and the other enemies move
+ * before the wave starts: the game thread takes the first ones which are
+ * still free.
+ */
+public class WaveDirector {
+
+    private static final int CANDIDATES = 3; // positions per monster
+    private static final int TRIES = 8; // random cells per position
+
+    private final TileGrid grid;
+    private final ExecutorService planner;
+    private final Random random = new Random(); // thread-safe, also used by the planner
+    private volatile WaveSchedule schedule;
+    private FreeCells freeCells = new FreeCells(-1, new int[0], new BitSet());
+    private int nextWave;
+    private int nextDelay;
+    private WaveSchedule.Wave next;
+    private Future<SpawnPlan> pending;
+    private volatile int latePlans;
+
+    /**
+     * The positions of a wave. The positions are x and y pairs, with more
+     * pairs than monsters; the positions of a plan don't intersect each
+     * other.
+     */
+    public static final class SpawnPlan {
+        private final int wave;
+        private final int gridVersion;
+        private final int basic;
+        private final int invisible;
+        private final double[] basicPositions;
+        private final double[] invisiblePositions;
+
+        private SpawnPlan(final int wave, final int gridVersion, final int basic, final int invisible,
+                final double[] basicPositions, final double[] invisiblePositions) {
+            this.wave = wave;
+            this.gridVersion = gridVersion;
+            this.basic = basic;
+            this.invisible = invisible;
+            this.basicPositions = basicPositions;
+            this.invisiblePositions = invisiblePositions;
+        }
+
+        /**
+         * @return the number of the wave in the level, from 0
+         */
+        public int getWave() {
+            return this.wave;
+        }
+
+        /**
+         * @return the {@link BasicMonster} to spawn
+         */
+        public int getBasic() {
+            return this.basic;
+        }
+
+        /**
+         * @return the {@link InvisibleMonster} to spawn
+         */
+        public int getInvisible() {
+            return this.invisible;
+        }
+
+        /**
+         * @return the candidate positions of the {@link BasicMonster}, as x
+         *         and y pairs, not copied
+         */
+        double[] getBasicPositions() {
+            return this.basicPositions;
+        }
+
+        /**
+         * @return the candidate positions of the {@link InvisibleMonster}, as
+         *         x and y pairs, not copied
+         */
+        double[] getInvisiblePositions() {
+            return this.invisiblePositions;
+        }
+    }
+
+    /*
+     * The walkable cells of a version of the grid, never changed after their
+     * creation.
+     */
+    private static final class FreeCells {
+        private final int version;
+        private final int[] cells;
+        private final BitSet walkable;
+
+        private FreeCells(final int version, final int[] cells, final BitSet walkable) {
+            this.version = version;
+            this.cells = cells;
+            this.walkable = walkable;
+        }
+    }
+
+    /**
+     * Creates a director.
+     *
+     * @param schedule
+     *            the {@link WaveSchedule} of the levels
+     * @param grid
+     *            the {@link TileGrid} of the {@link Arena}
+     */
+    public WaveDirector(final WaveSchedule schedule, final TileGrid grid) {
+        this.schedule = schedule;
+        this.grid = grid;
+        this.planner = Executors.newSingleThreadExecutor(r -> {
+            final Thread t = new Thread(r, "WavePlanner");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * @return the {@link WaveSchedule} used
+     */
+    public WaveSchedule getSchedule() {
+        return this.schedule;
+    }
+
+    /**
+     * Changes the last wave of the schedule, the one repeated. It can be
+     * called by any thread; the waves already planned don't change.
+     *
+     * @param change
+     *            the change to the last {@link WaveSchedule.Wave}
+     */
+    public synchronized void changeLastWave(final UnaryOperator<WaveSchedule.Wave> change) {
+        this.schedule = this.schedule.withLastWave(change.apply(this.schedule.getLastWave()));
+    }
+
+    /**
+     * Starts a level: the first wave is planned now, the next one in
+     * background.
+     *
+     * @return the {@link SpawnPlan} of the first wave
+     */
+    public SpawnPlan start() {
+        if (this.pending != null) {
+            this.pending.cancel(false);
+        }
+        final SpawnPlan first = this.plan(0, this.schedule.getWave(0), this.getFreeCells());
+        this.prepare(1);
+        return first;
+    }
+
+    /**
+     * @return the updates to wait before the next wave
+     */
+    public int getNextDelay() {
+        return this.nextDelay;
+    }
+
+    /**
+     * Takes the plan of the next wave and starts planning the one after. The
+     * plan is usually ready; if it isn't, or the grid has changed, it's
+     * computed by the caller.
+     *
+     * @return the {@link SpawnPlan} of the next wave
+     */
+    public SpawnPlan takeNext() {
+        SpawnPlan plan = null;
+        if (!this.pending.isDone()) {
+            this.latePlans++;
+        }
+        try {
+            plan = this.pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LogImpl.getInstance().log(LogLevel.WARN, "Error planning wave " + this.nextWave + ": %s", e.getCause());
+        }
+        if (plan == null || plan.gridVersion != this.grid.getVersion()) {
+            plan = this.plan(this.nextWave, this.next, this.getFreeCells());
+        }
+        this.prepare(this.nextWave + 1);
+        return plan;
+    }
+
+    /**
+     * @return the waves which weren't planned yet when they started
+     */
+    public int getLatePlans() {
+        return this.latePlans;
+    }
+
+    private void prepare(final int wave) {
+        final WaveSchedule.Wave spec = this.schedule.getWave(wave);
+        this.nextWave = wave;
+        this.next = spec;
+        this.nextDelay = spec.getDelay() + (spec.getJitter() > 0 ? this.random.nextInt(spec.getJitter()) : 0);
+        final FreeCells free = this.getFreeCells();
+        this.pending = this.planner.submit(() -> this.plan(wave, spec, free));
+    }
+
+    private SpawnPlan plan(final int wave, final WaveSchedule.Wave spec, final FreeCells free) {
+        final int basicCount = spec.getBasic() * CANDIDATES;
+        final int invisibleCount = spec.getInvisible() * CANDIDATES;
+        // left, top, right, bottom of all the positions chosen
+        final int[] taken = new int[(basicCount + invisibleCount) * 4];
+        final double[] basicPositions = new double[basicCount * 2];
+        final int basicFound = this.choose(free, CharactersSettings.BASIC_ENEMY, basicPositions, taken, 0);
+        final double[] invisiblePositions = new double[invisibleCount * 2];
+        final int invisibleFound = this.choose(free, CharactersSettings.INVISIBLE_ENEMY, invisiblePositions,
+                taken, basicFound);
+        return new SpawnPlan(wave, free.version, spec.getBasic(), spec.getInvisible(),
+                Arrays.copyOf(basicPositions, basicFound * 2),
+                Arrays.copyOf(invisiblePositions, invisibleFound * 2));
+    }
+
+    /*
+     * Fills the positions with random free ones, returns how many have been
+     * found.
+     */
+    private int choose(final FreeCells free, final CharactersSettings type, final double[] positions,
+            final int[] taken, final int alreadyTaken) {
+        final int[] cells = free.cells;
+        if (cells.length == 0) {
+            return 0;
+        }
+        final int width = type.getWidth();
+        final int height = type.getHeight();
+        int found = 0;
+        int used = alreadyTaken;
+        for (int p = 0; p < positions.length / 2; p++) {
+            for (int t = 0; t < TRIES; t++) {
+                final int cell = cells[this.random.nextInt(cells.length)];
+                final int x = (int) this.grid.getCenterX(cell) + this.random.nextInt(this.grid.getCellWidth())
+                        - this.grid.getCellWidth() / 2;
+                final int y = (int) this.grid.getCenterY(cell) + this.random.nextInt(this.grid.getCellHeight())
+                        - this.grid.getCellHeight() / 2;
+                final int left = x - width / 2;
+                final int top = y - height / 2;
+                if (this.isFree(free, left, top, left + width, top + height)
+                        && !intersects(taken, used, left, top, left + width, top + height)) {
+                    positions[found * 2] = x;
+                    positions[found * 2 + 1] = y;
+                    taken[used * 4] = left;
+                    taken[used * 4 + 1] = top;
+                    taken[used * 4 + 2] = left + width;
+                    taken[used * 4 + 3] = top + height;
+                    found++;
+                    used++;
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+
+    /* all the cells under the area are walkable; only the geometry of the grid is read */
+    private boolean isFree(final FreeCells free, final int left, final int top, final int right,
+            final int bottom) {
+        final int lastColumn = this.grid.columnOf(right - 1);
+        final int lastRow = this.grid.rowOf(bottom - 1);
+        for (int row = this.grid.rowOf(top); row <= lastRow; row++) {
+            for (int column = this.grid.columnOf(left); column <= lastColumn; column++) {
+                final int cell = this.grid.cellOf(column, row);
+                if (cell < 0 || !free.walkable.get(cell)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean intersects(final int[] taken, final int count, final int left, final int top,
+            final int right, final int bottom) {
+        for (int i = 0; i < count * 4; i += 4) {
+            if (left < taken[i + 2] && taken[i] < right && top < taken[i + 3] && taken[i + 1] < bottom) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Called only by the threads which change the grid, never by the planner;
+     * the copy is reused until the grid changes.
+     */
+    private FreeCells getFreeCells() {
+        final int version = this.grid.getVersion();
+        if (this.freeCells.version != version) {
+            int count = 0;
+            final int[] cells = new int[this.grid.size()];
+            final BitSet walkable = new BitSet(this.grid.size());
+            for (int cell = 0; cell < this.grid.size(); cell++) {
+                if (this.grid.isWalkable(cell)) {
+                    cells[count++] = cell;
+                    walkable.set(cell);
+                }
+            }
+            this.freeCells = new FreeCells(version, Arrays.copyOf(cells, count), walkable);
+        }
+        return this.freeCells;
+    }
+}
@@ -0,0 +1,261 @@
+package it.unibo.oop.model;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The waves of monsters of a level, read from a text file. Every line is a
+ * setting, the empty ones and the ones starting with # are skipped:
+ *
+ * <pre>
+ * cap &lt;monsters&gt;                                 most monsters spawned in a level
+ * ramp &lt;percent&gt;                                 growth of the repeated wave
+ * wave &lt;delay&gt; &lt;jitter&gt; &lt;basic&gt; &lt;invisible&gt;       a wave
+ * </pre>
+ *
+ * The first wave is spawned when the level starts, every next one after its
+ * delay (in updates) plus a random part up to its jitter. After the last wave
+ * the last one is repeated, and each time its monsters grow by the ramp
+ * percent of the ones written.
+ *
+ * <p>
+ * The schedule is read from the file in the property
+ * {@value #SCHEDULE_PROPERTY}, or from the resource {@value #DEFAULT_SCHEDULE}.
+ */
+public final class WaveSchedule {
+
+    /**
+     * System property with the path of a schedule file.
+     */
+    public static final String SCHEDULE_PROPERTY = "johnny2d.waves";
+
+    /**
+     * Resource with the schedule used by default.
+     */
+    public static final String DEFAULT_SCHEDULE = "/waves.txt";
+
+    /* the waves of the original game, used if the schedule can't be read */
+    private static final int DEFAULT_CAP = 50;
+    private static final int DEFAULT_BASIC = 17;
+    private static final int DEFAULT_INVISIBLE = 3;
+    private static final int DEFAULT_DELAY = 130;
+    private static final int DEFAULT_WAVE = 4;
+    private static final double PERCENT = 100;
+
+    /**
+     * A wave of the schedule.
+     */
+    public static final class Wave {
+        private final int delay;
+        private final int jitter;
+        private final int basic;
+        private final int invisible;
+
+        /**
+         * @param delay
+         *            the updates after the previous wave
+         * @param jitter
+         *            the greatest random updates added to the delay
+         * @param basic
+         *            the {@link BasicMonster} of the wave
+         * @param invisible
+         *            the {@link InvisibleMonster} of the wave
+         */
+        public Wave(final int delay, final int jitter, final int basic, final int invisible) {
+            if (delay < 0 || jitter < 0 || basic < 0 || invisible < 0) {
+                throw new IllegalArgumentException("The values of a wave can't be negative");
+            }
+            this.delay = delay;
+            this.jitter = jitter;
+            this.basic = basic;
+            this.invisible = invisible;
+        }
+
+        /**
+         * @return the updates after the previous wave
+         */
+        public int getDelay() {
+            return this.delay;
+        }
+
+        /**
+         * @return the greatest random updates added to the delay
+         */
+        public int getJitter() {
+            return this.jitter;
+        }
+
+        /**
+         * @return the {@link BasicMonster} of the wave
+         */
+        public int getBasic() {
+            return this.basic;
+        }
+
+        /**
+         * @return the {@link InvisibleMonster} of the wave
+         */
+        public int getInvisible() {
+            return this.invisible;
+        }
+    }
+
+    private static WaveSchedule defaultSchedule;
+
+    private final List<Wave> waves;
+    private final int cap;
+    private final double ramp;
+
+    /**
+     * Creates a schedule.
+     *
+     * @param waves
+     *            the waves, at least one
+     * @param cap
+     *            most monsters spawned in a level
+     * @param ramp
+     *            growth in percent of the repeated wave
+     */
+    public WaveSchedule(final List<Wave> waves, final int cap, final double ramp) {
+        if (waves.isEmpty() || cap <= 0 || ramp < 0) {
+            throw new IllegalArgumentException("A schedule needs a wave, a positive cap and a ramp not negative");
+        }
+        this.waves = Collections.unmodifiableList(new ArrayList<>(waves));
+        this.cap = cap;
+        this.ramp = ramp;
+    }
+
+    /**
+     * Reads a schedule.
+     *
+     * @param input
+     *            the text of the schedule, in UTF-8
+     * @return the {@link WaveSchedule}
+     * @throws IOException
+     *             if it can't be read or it isn't valid
+     */
+    public static WaveSchedule read(final InputStream input) throws IOException {
+        final List<Wave> waves = new ArrayList<>();
+        int cap = DEFAULT_CAP;
+        double ramp = 0;
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line = reader.readLine();
+        for (int number = 1; line != null; number++, line = reader.readLine()) {
+            final String[] words = line.trim().split("\\s+");
+            try {
+                if (words[0].isEmpty() || words[0].startsWith("#")) {
+                    continue;
+                } else if ("cap".equals(words[0]) && words.length == 2) {
+                    cap = Integer.parseInt(words[1]);
+                } else if ("ramp".equals(words[0]) && words.length == 2) {
+                    ramp = Double.parseDouble(words[1]);
+                } else if ("wave".equals(words[0]) && words.length == 5) {
+                    waves.add(new Wave(Integer.parseInt(words[1]), Integer.parseInt(words[2]),
+                            Integer.parseInt(words[3]), Integer.parseInt(words[4])));
+                } else {
+                    throw new IOException("Unknown setting at line " + number + ": " + line);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Wrong value at line " + number + ": " + line, e);
+            }
+        }
+        try {
+            return new WaveSchedule(waves, cap, ramp);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets the schedule of the game, reading it the first time. If it can't
+     * be read, the waves are the ones of the original game.
+     *
+     * @return the {@link WaveSchedule}
+     */
+    public static synchronized WaveSchedule getDefault() {
+        if (defaultSchedule == null) {
+            final String path = System.getProperty(SCHEDULE_PROPERTY);
+            try (InputStream input = path == null ? WaveSchedule.class.getResourceAsStream(DEFAULT_SCHEDULE)
+                    : new FileInputStream(new File(path))) {
+                if (input == null) {
+                    throw new IOException("Missing " + DEFAULT_SCHEDULE);
+                }
+                defaultSchedule = read(input);
+            } catch (IOException e) {
+                System.out.println("Error loading the wave schedule, using the default waves: " + e.getMessage());
+                defaultSchedule = new WaveSchedule(Arrays.asList(new Wave(0, 0, DEFAULT_BASIC, DEFAULT_INVISIBLE),
+                        new Wave(DEFAULT_DELAY, DEFAULT_DELAY, DEFAULT_WAVE, 0)), DEFAULT_CAP, 0);
+            }
+        }
+        return defaultSchedule;
+    }
+
+    /**
+     * @return the waves in the schedule, the last one is repeated
+     */
+    public List<Wave> getWaves() {
+        return this.waves;
+    }
+
+    /**
+     * @return most monsters spawned in a level
+     */
+    public int getCap() {
+        return this.cap;
+    }
+
+    /**
+     * @return growth in percent of the repeated wave, at each repetition
+     */
+    public double getRamp() {
+        return this.ramp;
+    }
+
+    /**
+     * Creates a copy of the schedule with another last wave, the one
+     * repeated.
+     *
+     * @param wave
+     *            the new last {@link Wave}
+     * @return the new {@link WaveSchedule}
+     */
+    public WaveSchedule withLastWave(final Wave wave) {
+        final List<Wave> copy = new ArrayList<>(this.waves);
+        copy.set(copy.size() - 1, wave);
+        return new WaveSchedule(copy, this.cap, this.ramp);
+    }
+
+    /**
+     * @return the last wave, the one repeated
+     */
+    public Wave getLastWave() {
+        return this.waves.get(this.waves.size() - 1);
+    }
+
+    /**
+     * Gets a wave, computing the repetitions of the last one.
+     *
+     * @param index
+     *            the number of the wave in the level, from 0
+     * @return the {@link Wave}
+     */
+    public Wave getWave(final int index) {
+        final int last = this.waves.size() - 1;
+        if (index <= last) {
+            return this.waves.get(index);
+        }
+        final Wave repeated = this.waves.get(last);
+        final double growth = 1 + this.ramp / PERCENT * (index - last);
+        return new Wave(repeated.delay, repeated.jitter, (int) Math.round(repeated.basic * growth),
+                (int) Math.round(repeated.invisible * growth));
+    }
+}
@@ -0,0 +1,94 @@
+package it.unibo.oop.test;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import it.unibo.oop.model.DungeonGenerator;
+import it.unibo.oop.model.LevelFormat;
+import it.unibo.oop.model.TileGrid;
+import it.unibo.oop.model.TileMap;
+
+/**
+ * Benchmark of the {@link DungeonGenerator}: the time to generate a dungeon
+ * and to turn its walls into collision rectangles, the first time (with the
+ * code not compiled yet) and on average after the warm-up, and the time to
+ * load it from a {@link LevelFormat} file. Run it as a Java
+ * application, the arguments are the side of the map (default 512) and the
+ * number of dungeons (default 50).
+ */
+public final class DungeonBenchmark {
+
+    private static final int WARM_UP = 20;
+    private static final double TO_MILLIS = 1e6;
+
+    private DungeonBenchmark() {
+    }
+
+    /**
+     * @param args
+     *            side of the map and number of dungeons
+     * @throws IOException
+     *             if the level file can't be written or read
+     */
+    public static void main(final String[] args) throws IOException {
+        final int side = args.length > 0 ? Integer.parseInt(args[0]) : 512;
+        final int runs = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        long time = System.nanoTime();
+        TileMap map = new DungeonGenerator(0).generate(side, side);
+        final long firstGeneration = System.nanoTime() - time;
+        time = System.nanoTime();
+        List<Rectangle> walls = map.getWallRectangles();
+        System.out.println(String.format("%dx%d dungeon, first run: generated in %.2f ms, %d rectangles in %.2f ms",
+                side, side, firstGeneration / TO_MILLIS, walls.size(), (System.nanoTime() - time) / TO_MILLIS));
+
+        for (int i = 1; i <= WARM_UP; i++) {
+            new DungeonGenerator(-i).generate(side, side).getWallRectangles();
+        }
+        long generation = 0;
+        long coalescing = 0;
+        long rectangles = 0;
+        long wallTiles = 0;
+        long rooms = 0;
+        for (int i = 1; i <= runs; i++) {
+            time = System.nanoTime();
+            map = new DungeonGenerator(i).generate(side, side);
+            generation += System.nanoTime() - time;
+            time = System.nanoTime();
+            walls = map.getWallRectangles();
+            coalescing += System.nanoTime() - time;
+            rectangles += walls.size();
+            for (final Rectangle wall : walls) {
+                wallTiles += wall.width * wall.height;
+            }
+            rooms += map.getSpawnPoints().length / 2;
+        }
+        System.out.println(String.format("%d dungeons: generated in %.3f ms, rectangles in %.3f ms, "
+                + "%d rooms, %d rectangles for %d wall tiles (averages)", runs, generation / TO_MILLIS / runs,
+                coalescing / TO_MILLIS / runs, rooms / runs, rectangles / runs, wallTiles / runs));
+
+        // the last dungeon saved as a level and loaded again
+        final Path file = Files.createTempFile("dungeon", ".j2l");
+        try {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                LevelFormat.write(map, "", channel);
+            }
+            final TileGrid grid = new TileGrid(0, 0, side, side, 32, 32);
+            for (int i = 0; i < WARM_UP; i++) {
+                LevelFormat.read(file, grid, p -> { });
+            }
+            time = System.nanoTime();
+            for (int i = 0; i < runs; i++) {
+                LevelFormat.read(file, grid, p -> { });
+            }
+            System.out.println(String.format("Level file of %d bytes loaded in %.3f ms (average)", Files.size(file),
+                    (System.nanoTime() - time) / TO_MILLIS / runs));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package it.unibo.oop.test;
+
+import java.awt.Rectangle;
+import java.util.Random;
+
+import it.unibo.oop.model.FlowField;
+import it.unibo.oop.model.HierarchicalPathfinder;
+import it.unibo.oop.model.TileGrid;
+
+/**
+ * Benchmark of the {@link HierarchicalPathfinder} on large random maps,
+ * compared with a search over the whole grid (a {@link FlowField} computed
+ * for each query). The queries are between random cells, all different, and
+ * then from a horde in an area of the map to a single goal, the case of the
+ * game, which uses the cache. Run it as a Java application, the arguments are
+ * the side of the map (default 512) and the number of queries (default 2000).
+ */
+public final class PathfindingBenchmark {
+
+    private static final int CELL = 32;
+    private static final long SEED = 42;
+    private static final double OBSTACLES = 0.004; // rectangles per cell
+    private static final int MAX_OBSTACLE = 12;
+    private static final int FLAT_QUERIES = 50;
+    private static final int HORDE_AREA = 64; // cells
+    private static final double TO_MILLIS = 1e6;
+
+    private PathfindingBenchmark() {
+    }
+
+    /**
+     * @param args
+     *            side of the map and number of queries
+     */
+    public static void main(final String[] args) {
+        final int side = args.length > 0 ? Integer.parseInt(args[0]) : 512;
+        final int queries = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        final Random random = new Random(SEED);
+        final TileGrid grid = new TileGrid(0, 0, side, side, CELL, CELL);
+        for (int i = 0; i < side * side * OBSTACLES; i++) {
+            final int x = random.nextInt(side);
+            final int y = random.nextInt(side);
+            final int w = 1 + random.nextInt(MAX_OBSTACLE);
+            final int h = 1 + random.nextInt(MAX_OBSTACLE);
+            for (int row = y; row < y + h; row++) {
+                for (int column = x; column < x + w; column++) {
+                    grid.setBlocked(column, row, true);
+                }
+            }
+        }
+        final int[] starts = new int[queries];
+        final int[] goals = new int[queries];
+        for (int i = 0; i < queries; i++) {
+            starts[i] = randomWalkable(grid, random);
+            goals[i] = randomWalkable(grid, random);
+        }
+
+        final HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(grid);
+        long time = System.nanoTime();
+        final int portals = pathfinder.getPortals();
+        System.out.println(String.format("%dx%d map: graph of %d portals built in %.1f ms", side, side, portals,
+                (System.nanoTime() - time) / TO_MILLIS));
+
+        run("random", pathfinder, starts, goals);
+        final FlowField flat = new FlowField(grid);
+        final int flatQueries = Math.min(queries, FLAT_QUERIES);
+        time = System.nanoTime();
+        for (int i = 0; i < flatQueries; i++) {
+            flat.update(new Rectangle((int) grid.getCenterX(goals[i]), (int) grid.getCenterY(goals[i]), 1, 1));
+        }
+        System.out.println(String.format("Whole grid search: %.3f ms per query",
+                (System.nanoTime() - time) / TO_MILLIS / flatQueries));
+
+        final int goal = randomWalkable(grid, random);
+        for (int i = 0; i < queries; i++) {
+            do {
+                starts[i] = grid.cellOf(random.nextInt(Math.min(side, HORDE_AREA)),
+                        random.nextInt(Math.min(side, HORDE_AREA)));
+            } while (!grid.isWalkable(starts[i]));
+            goals[i] = goal;
+        }
+        run("horde", pathfinder, starts, goals);
+    }
+
+    private static void run(final String name, final HierarchicalPathfinder pathfinder, final int[] starts,
+            final int[] goals) {
+        final long hits = pathfinder.getCacheHits();
+        final long misses = pathfinder.getCacheMisses();
+        int found = 0;
+        final long time = System.nanoTime();
+        for (int i = 0; i < starts.length; i++) {
+            final int[] waypoints = pathfinder.findWaypoints(starts[i], goals[i]);
+            if (waypoints != null) {
+                found++;
+                pathfinder.refine(starts[i], waypoints[0]);
+            }
+        }
+        System.out.println(String.format("HPA* %s: %d queries, %d paths, %.3f ms per query (cache %d hits, "
+                + "%d misses)", name, starts.length, found, (System.nanoTime() - time) / TO_MILLIS / starts.length,
+                pathfinder.getCacheHits() - hits, pathfinder.getCacheMisses() - misses));
+    }
+
+    private static int randomWalkable(final TileGrid grid, final Random random) {
+        int cell;
+        do {
+            cell = random.nextInt(grid.size());
+        } while (!grid.isWalkable(cell));
+        return cell;
+    }
+}
@@ -1,21 +1,46 @@
 package it.unibo.oop.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Rectangle;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.Test;
 
 import it.unibo.oop.model.BasicEnemyBehavior;
 import it.unibo.oop.model.BasicMonster;
+import it.unibo.oop.model.BehaviorTree;
+import it.unibo.oop.model.Blackboard;
 import it.unibo.oop.model.Bullet;
+import it.unibo.oop.model.DungeonGenerator;
+import it.unibo.oop.model.FlowField;
 import it.unibo.oop.model.Factory;
 import it.unibo.oop.model.GameStateImpl;
 import it.unibo.oop.model.Health;
 import it.unibo.oop.model.HealthBonus;
 import it.unibo.oop.model.InvisibleEnemyBehavior;
 import it.unibo.oop.model.InvisibleMonster;
+import it.unibo.oop.model.LevelFormat;
+import it.unibo.oop.model.LineOfSight;
 import it.unibo.oop.model.MainCharacter;
 import it.unibo.oop.model.ScoreBonus;
+import it.unibo.oop.model.TileGrid;
+import it.unibo.oop.model.TileMap;
+import it.unibo.oop.model.TimerWheel;
+import it.unibo.oop.model.WaveDirector;
+import it.unibo.oop.model.WaveSchedule;
 import it.unibo.oop.utilities.Direction;
+import it.unibo.oop.utilities.Histogram;
 import it.unibo.oop.utilities.Position;
 import it.unibo.oop.utilities.Vector2;
 
@@ -110,4 +135,226 @@ public class TestClass {
     	testHero.getHealth().decreaseHealth(3);
     	assertEquals(testHero.isDead(), true);
     }
+
+    @Test
+    public void testHistogram() {
+        final Histogram histogram = new Histogram();
+        assertEquals(histogram.getValueAtPercentile(50), 0);
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(histogram.getCount(), 1000);
+        assertEquals(histogram.getMax(), 1000);
+        assertEquals(histogram.getCountAtOrBelow(15), 15); // small values are exact
+        assertTrue(Math.abs(histogram.getValueAtPercentile(50) - 500) <= 500 / 16);
+        assertTrue(Math.abs(histogram.getValueAtPercentile(99) - 990) <= 990 / 16);
+        assertEquals(histogram.getValueAtPercentile(100), 1000);
+        histogram.reset();
+        assertEquals(histogram.getCount(), 0);
+    }
+
+    @Test
+    public void testFlowField() {
+        final TileGrid grid = new TileGrid(0, 0, 10, 10, 32, 32);
+        for (int row = 0; row < 9; row++) {
+            grid.setBlocked(5, row, true); // wall with a gap at the bottom
+        }
+        final FlowField field = new FlowField(grid);
+        field.update(new Rectangle(8 * 32 + 4, 32 + 4, 20, 20));
+        assertEquals(field.getDistance(grid.cellOf(8, 1)), 0);
+        assertEquals(field.getDistance(grid.cellOf(5, 0)), FlowField.UNREACHABLE);
+        int cell = grid.cellOf(1, 1);
+        int steps = 0;
+        while (field.getNextCell(cell) >= 0) {
+            cell = field.getNextCell(cell);
+            assertTrue(grid.isWalkable(cell));
+            steps++;
+        }
+        assertTrue(field.isTargetCell(cell));
+        assertTrue(steps > 7); // it goes around the wall
+        field.update(new Rectangle(8 * 32 + 8, 32 + 8, 20, 20));
+        assertEquals(field.getComputations(), 1); // same cells
+        final Vector2 move = field.getNextMove(new Position(1 * 32 + 16, 1 * 32 + 16), new Position(8 * 32 + 10,
+                32 + 10), 5);
+        assertTrue(move.getY() > 0);
+    }
+
+    @Test
+    public void testLineOfSight() {
+        final TileGrid grid = new TileGrid(0, 0, 10, 10, 32, 32);
+        final LineOfSight sight = new LineOfSight(grid);
+        assertTrue(sight.hasSight(grid.cellOf(0, 0), grid.cellOf(5, 0)));
+        assertTrue(sight.hasSight(grid.cellOf(0, 0), grid.cellOf(7, 3)));
+        // a blocked cell on the ray; the cache is dropped when the grid changes
+        grid.setBlocked(3, 0, true);
+        assertTrue(!sight.hasSight(grid.cellOf(0, 0), grid.cellOf(5, 0)));
+        assertTrue(sight.hasSight(grid.cellOf(0, 1), grid.cellOf(5, 1)));
+        // a corner is crossed only if both the cells beside it are free
+        assertTrue(sight.hasSight(grid.cellOf(5, 5), grid.cellOf(7, 7)));
+        grid.setBlocked(6, 5, true);
+        assertTrue(!sight.hasSight(grid.cellOf(5, 5), grid.cellOf(7, 7)));
+        grid.setBlocked(6, 5, false);
+        grid.setBlocked(5, 6, true);
+        assertTrue(!sight.hasSight(grid.cellOf(5, 5), grid.cellOf(7, 7)));
+        // the same start and target share the ray, another target needs a new one
+        final long rays = sight.getRays();
+        assertTrue(sight.hasSight(grid.cellOf(0, 2), grid.cellOf(9, 2)));
+        assertTrue(sight.hasSight(grid.cellOf(0, 2), grid.cellOf(9, 2)));
+        assertEquals(sight.getRays(), rays + 1);
+        assertTrue(!sight.hasSight(grid.cellOf(0, 2), grid.cellOf(5, 7)));
+        assertEquals(sight.getRays(), rays + 2);
+        assertTrue(sight.hasSight(grid.cellOf(0, 2), grid.cellOf(9, 2)));
+        assertEquals(sight.getRays(), rays + 3);
+    }
+
+    @Test
+    public void testBehaviorTree() {
+        // slots: runs of the condition and of the three actions
+        final BehaviorTree tree = new BehaviorTree(BehaviorTree.selector(
+                BehaviorTree.sequence(BehaviorTree.condition(b -> {
+                    b.setInt(0, b.getInt(0) + 1);
+                    return true;
+                }), counting(1, BehaviorTree.Status.SUCCESS), counting(2, BehaviorTree.Status.FAILURE)),
+                counting(3, BehaviorTree.Status.SUCCESS)), 4, 0);
+        final Blackboard blackboard = tree.newBlackboard(null);
+        // out of time: one leaf per tick, the visit goes on where it stopped
+        for (int leaf = 0; leaf < 3; leaf++) {
+            assertTrue(!tree.tick(blackboard, () -> true));
+            for (int slot = 0; slot < 4; slot++) {
+                assertEquals(blackboard.getInt(slot), slot <= leaf ? 1 : 0);
+            }
+        }
+        assertTrue(tree.tick(blackboard, () -> true));
+        assertEquals(blackboard.getInt(3), 1);
+        assertEquals(blackboard.getStatus(), BehaviorTree.Status.SUCCESS);
+        // with time the next visit starts from the root and ends in a tick
+        assertTrue(tree.tick(blackboard, () -> false));
+        for (int slot = 0; slot < 4; slot++) {
+            assertEquals(blackboard.getInt(slot), 2);
+        }
+        // a running child stops its sequence and the selector too
+        final BehaviorTree running = new BehaviorTree(BehaviorTree.selector(
+                BehaviorTree.sequence(BehaviorTree.action(b -> BehaviorTree.Status.RUNNING)),
+                counting(0, BehaviorTree.Status.SUCCESS)), 1, 0);
+        final Blackboard state = running.newBlackboard(null);
+        assertTrue(running.tick(state, () -> false));
+        assertEquals(state.getStatus(), BehaviorTree.Status.RUNNING);
+        assertEquals(state.getInt(0), 0);
+    }
+
+    /* an action which counts its runs in a slot */
+    private static BehaviorTree.Node counting(final int slot, final BehaviorTree.Status status) {
+        return BehaviorTree.action(b -> {
+            b.setInt(slot, b.getInt(slot) + 1);
+            return status;
+        });
+    }
+
+    @Test
+    public void testTimerWheel() {
+        final TimerWheel wheel = new TimerWheel();
+        final long[] fired = new long[3];
+        wheel.schedule(5, () -> fired[0] = wheel.getTick());
+        wheel.schedule(70000, () -> fired[1] = wheel.getTick()); // on the third wheel
+        final TimerWheel.Timer cancelled = wheel.schedule(10, () -> fired[2] = wheel.getTick());
+        assertEquals(wheel.getScheduled(), 3);
+        assertTrue(cancelled.cancel());
+        for (int i = 0; i < 70000; i++) {
+            wheel.advance();
+        }
+        assertEquals(fired[0], 5);
+        assertEquals(fired[1], 70000);
+        assertEquals(fired[2], 0);
+        assertEquals(wheel.getScheduled(), 0);
+    }
+
+    @Test
+    public void testWaveDirector() throws IOException {
+        final WaveSchedule schedule = WaveSchedule.read(new ByteArrayInputStream(
+                "cap 40\nramp 50\n# comment\nwave 0 0 5 1\nwave 100 20 2 0\n".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(schedule.getCap(), 40);
+        assertEquals(schedule.getWave(1).getBasic(), 2);
+        assertEquals(schedule.getWave(3).getBasic(), 4); // two repetitions of the last wave
+        final TileGrid grid = new TileGrid(0, 0, 20, 20, 32, 32);
+        final WaveDirector director = new WaveDirector(schedule, grid);
+        final WaveDirector.SpawnPlan first = director.start();
+        assertEquals(first.getWave(), 0);
+        assertEquals(first.getBasic(), 5);
+        assertTrue(director.getNextDelay() >= 100 && director.getNextDelay() < 120);
+        final WaveDirector.SpawnPlan second = director.takeNext();
+        assertEquals(second.getWave(), 1);
+        assertEquals(second.getInvisible(), 0);
+        assertEquals(director.takeNext().getBasic(), 3);
+    }
+
+    @Test
+    public void testDungeon() {
+        final TileMap map = new DungeonGenerator(7).generate(100, 80);
+        final TileMap same = new DungeonGenerator(7).generate(100, 80);
+        int walls = 0;
+        for (int row = 0; row < map.getRows(); row++) {
+            for (int column = 0; column < map.getColumns(); column++) {
+                assertEquals(map.get(column, row), same.get(column, row));
+                walls += map.get(column, row) == TileMap.WALL ? 1 : 0;
+            }
+        }
+        assertEquals(map.get(0, 40), TileMap.WALL);
+        final int[] spawns = map.getSpawnPoints();
+        assertTrue(spawns.length > 2);
+        assertEquals(map.get(spawns[0], spawns[1]), TileMap.FLOOR);
+        // the rectangles cover all the walls, once
+        int area = 0;
+        for (final Rectangle rectangle : map.getWallRectangles()) {
+            for (int row = rectangle.y; row < rectangle.y + rectangle.height; row++) {
+                for (int column = rectangle.x; column < rectangle.x + rectangle.width; column++) {
+                    assertEquals(map.get(column, row), TileMap.WALL);
+                }
+            }
+            area += rectangle.width * rectangle.height;
+        }
+        assertEquals(area, walls);
+        assertTrue(map.getWallRectangles().size() < walls / 10);
+        // every room can be reached
+        final TileGrid grid = new TileGrid(0, 0, 100, 80, 32, 32);
+        map.applyTo(grid);
+        final FlowField field = new FlowField(grid);
+        field.update(new Rectangle(spawns[0] * 32 + 8, spawns[1] * 32 + 8, 16, 16));
+        for (int i = 2; i < spawns.length; i += 2) {
+            assertTrue(field.getDistance(grid.cellOf(spawns[i], spawns[i + 1])) != FlowField.UNREACHABLE);
+        }
+    }
+
+    /**
+     * Test of the {@link LevelFormat}.
+     * @throws IOException if the level can't be read
+     */
+    @Test
+    public void testLevelFormat() throws IOException {
+        final TileMap map = new DungeonGenerator(3).generate(100, 80);
+        final ByteArrayOutputStream file = new ByteArrayOutputStream();
+        LevelFormat.write(map, "/arena/test.jpg", Channels.newChannel(file));
+        final TileGrid grid = new TileGrid(0, 0, 100, 80, 32, 32);
+        final List<Position> spawns = new ArrayList<>();
+        assertEquals(LevelFormat.read(Channels.newChannel(new ByteArrayInputStream(file.toByteArray())), grid,
+                spawns::add), "/arena/test.jpg");
+        for (int row = 0; row < map.getRows(); row++) {
+            for (int column = 0; column < map.getColumns(); column++) {
+                assertEquals(grid.isWalkable(column, row), map.get(column, row) == TileMap.FLOOR);
+            }
+        }
+        assertEquals(spawns.size(), map.getSpawnPoints().length / 2);
+        assertEquals(spawns.get(0).getX(), map.getSpawnPoints()[0] * 32 + 16, 0);
+        // a smaller grid takes only the part of the level inside it
+        final TileGrid small = new TileGrid(0, 0, 40, 30, 32, 32);
+        LevelFormat.read(ByteBuffer.wrap(file.toByteArray()), small, p -> { });
+        assertEquals(small.isWalkable(39, 29), map.get(39, 29) == TileMap.FLOOR);
+        // a damaged file isn't read
+        final byte[] damaged = Arrays.copyOf(file.toByteArray(), file.size() / 2);
+        try {
+            LevelFormat.read(ByteBuffer.wrap(damaged), grid, p -> { });
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Damaged"));
+        }
+    }
 }
\ No newline at end of file
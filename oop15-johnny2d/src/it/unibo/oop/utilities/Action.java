@@ -8,5 +8,5 @@ public enum Action {
     /**
      * Actions that main character can perform.
      */
-    SHOOT, PAUSE, NONE;
+    SHOOT, PAUSE, DEBUG, NONE;
 }
@@ -0,0 +1,227 @@
+package it.unibo.oop.utilities;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+
+/**
+ * A pack of pre-decoded resources generated by {@link AssetPacker}. The pack
+ * file is memory-mapped, so images and sounds are read as raw pixels and PCM
+ * frames without any decoding.
+ *
+ * <p>
+ * Layout: magic, version, number of entries, then for each entry its name,
+ * type, offset and length followed by the type specific header (width, height
+ * and image type for images; sample rate, sample size, channels, signed and
+ * endianness for sounds). Data regions follow the index, aligned to 8 bytes.
+ * Everything is stored in big endian byte order, so a pack built on a machine
+ * can be read on any other.
+ */
+public final class AssetPack {
+
+    /**
+     * Default location of the pack, relative to the working directory.
+     */
+    public static final String DEFAULT_PACK = "johnny2d.pack";
+
+    /**
+     * System property which overrides {@link #DEFAULT_PACK}.
+     */
+    public static final String PACK_PROPERTY = "johnny2d.pack";
+
+    static final int MAGIC = 0x4A32_4450; // "J2DP"
+    static final int VERSION = 2;
+    static final byte IMAGE = 0;
+    static final byte SOUND = 1;
+
+    private static Optional<AssetPack> singleton;
+
+    private final MappedByteBuffer data;
+    private final Map<String, Entry> index;
+
+    private AssetPack(final File packFile) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(packFile, "r");
+                FileChannel channel = raf.getChannel()) {
+            this.data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        this.data.order(ByteOrder.BIG_ENDIAN);
+        if (this.data.getInt() != MAGIC || this.data.getInt() != VERSION) {
+            throw new IOException("Not a valid asset pack: " + packFile);
+        }
+        final int entries = this.data.getInt();
+        this.index = new HashMap<>(entries * 2);
+        for (int i = 0; i < entries; i++) {
+            final Entry entry = new Entry(this.data);
+            this.index.put(entry.name, entry);
+        }
+    }
+
+    /**
+     * Gets the pack found in the default location, opening it the first time.
+     *
+     * @return the {@link AssetPack}, or {@link Optional#empty()} if there
+     *         isn't any valid pack
+     */
+    public static synchronized Optional<AssetPack> getDefault() {
+        if (singleton == null) {
+            final File packFile = new File(System.getProperty(PACK_PROPERTY, DEFAULT_PACK));
+            singleton = Optional.empty();
+            if (packFile.isFile()) {
+                try {
+                    singleton = Optional.of(new AssetPack(packFile));
+                } catch (IOException e) {
+                    System.out.println("Error loading the asset pack, resources will be decoded");
+                }
+            }
+        }
+        return singleton;
+    }
+
+    /**
+     * Gets an image from the pack.
+     *
+     * @param name
+     *            the resource name of the image, b.p. "/wall.png"
+     * @return the image, or {@link Optional#empty()} if it isn't packed
+     */
+    public Optional<BufferedImage> getImage(final String name) {
+        final Entry entry = this.index.get(name);
+        if (entry == null || entry.type != IMAGE) {
+            return Optional.empty();
+        }
+        final int[] pixels = new int[entry.width * entry.height];
+        final IntBuffer region = this.region(entry).asIntBuffer();
+        region.get(pixels);
+        final BufferedImage image = new BufferedImage(entry.width, entry.height, entry.imageType);
+        // setDataElements keeps the image managed (hardware accelerated)
+        image.getRaster().setDataElements(0, 0, entry.width, entry.height, pixels);
+        return Optional.of(image);
+    }
+
+    /**
+     * Gets a sound from the pack. The returned stream reads the PCM frames
+     * directly from the mapped file.
+     *
+     * @param name
+     *            the resource name of the sound, b.p. "/audio/GameOver.wav"
+     * @return the sound, or {@link Optional#empty()} if it isn't packed
+     */
+    public Optional<AudioInputStream> getSound(final String name) {
+        final Entry entry = this.index.get(name);
+        if (entry == null || entry.type != SOUND) {
+            return Optional.empty();
+        }
+        final AudioFormat format = entry.getAudioFormat();
+        return Optional.of(new AudioInputStream(new BufferInputStream(this.region(entry)), format,
+                entry.length / format.getFrameSize()));
+    }
+
+    private ByteBuffer region(final Entry entry) {
+        final ByteBuffer dup = this.data.duplicate();
+        dup.position((int) entry.offset);
+        dup.limit((int) (entry.offset + entry.length));
+        return dup.slice().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /*
+     * Entry of the index.
+     */
+    private static final class Entry {
+        private final String name;
+        private final byte type;
+        private final long offset;
+        private final long length;
+        private int width;
+        private int height;
+        private int imageType;
+        private float sampleRate;
+        private int sampleSize;
+        private int channels;
+        private boolean signed;
+        private boolean bigEndian;
+
+        private Entry(final ByteBuffer in) {
+            final byte[] nameBytes = new byte[in.getShort()];
+            in.get(nameBytes);
+            this.name = new String(nameBytes, StandardCharsets.UTF_8);
+            this.type = in.get();
+            this.offset = in.getLong();
+            this.length = in.getLong();
+            if (this.type == IMAGE) {
+                this.width = in.getInt();
+                this.height = in.getInt();
+                this.imageType = in.getInt();
+            } else {
+                this.sampleRate = in.getFloat();
+                this.sampleSize = in.getInt();
+                this.channels = in.getInt();
+                this.signed = in.get() != 0;
+                this.bigEndian = in.get() != 0;
+            }
+        }
+
+        private AudioFormat getAudioFormat() {
+            return new AudioFormat(this.sampleRate, this.sampleSize, this.channels, this.signed, this.bigEndian);
+        }
+    }
+
+    /*
+     * InputStream reading from a ByteBuffer without copying it.
+     */
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private BufferInputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (!this.buffer.hasRemaining()) {
+                return -1;
+            }
+            final int n = Math.min(len, this.buffer.remaining());
+            this.buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return this.buffer.remaining();
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(final int readlimit) {
+            this.buffer.mark();
+        }
+
+        @Override
+        public synchronized void reset() {
+            this.buffer.reset();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package it.unibo.oop.utilities;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Build-time tool which decodes every image and sound of the resources folder
+ * and writes them in a single {@link AssetPack}.
+ *
+ * <p>
+ * Usage: {@code java it.unibo.oop.utilities.AssetPacker [resFolder] [packFile]}
+ */
+public final class AssetPacker {
+
+    private static final int ALIGNMENT = 8;
+    private static final int HEADER_SIZE = 12;
+
+    private final List<PackedAsset> assets = new ArrayList<>();
+
+    private AssetPacker() {
+    }
+
+    /**
+     * @param args
+     *            the resources folder (default "res") and the pack file
+     *            (default {@link AssetPack#DEFAULT_PACK}).
+     * @throws IOException
+     *             if the resources can't be read or the pack can't be written
+     */
+    public static void main(final String... args) throws IOException {
+        final Path resFolder = Paths.get(args.length > 0 ? args[0] : "res");
+        final File packFile = new File(args.length > 1 ? args[1] : AssetPack.DEFAULT_PACK);
+        final long start = System.nanoTime();
+        final AssetPacker packer = new AssetPacker();
+        final List<Path> files;
+        try (Stream<Path> walk = Files.walk(resFolder)) {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        for (final Path file : files) {
+            packer.add(resFolder, file);
+        }
+        packer.write(packFile);
+        System.out.println("Packed " + packer.assets.size() + " assets in " + packFile + " ("
+                + packFile.length() / 1024 + " KB, " + (System.nanoTime() - start) / 1_000_000 + " ms)");
+    }
+
+    private void add(final Path resFolder, final Path file) throws IOException {
+        final String name = "/" + resFolder.relativize(file).toString().replace(File.separatorChar, '/');
+        final String lower = name.toLowerCase();
+        if (lower.endsWith(".png") || lower.endsWith(".jpg")) {
+            this.addImage(name, ImageIO.read(file.toFile()));
+        } else if (lower.endsWith(".wav")) {
+            try (AudioInputStream ais = AudioSystem.getAudioInputStream(file.toFile())) {
+                this.addSound(name, ais);
+            } catch (UnsupportedAudioFileException e) {
+                System.out.println("Skipping unsupported sound " + name);
+            }
+        }
+    }
+
+    private void addImage(final String name, final BufferedImage source) {
+        final int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB
+                : BufferedImage.TYPE_INT_RGB;
+        final int width = source.getWidth();
+        final int height = source.getHeight();
+        final int[] pixels = source.getRGB(0, 0, width, height, null, 0, width);
+        final ByteBuffer data = ByteBuffer.allocate(pixels.length * Integer.BYTES).order(ByteOrder.BIG_ENDIAN);
+        data.asIntBuffer().put(pixels);
+        final PackedAsset asset = new PackedAsset(name, AssetPack.IMAGE, data);
+        asset.header.putInt(width).putInt(height).putInt(type);
+        this.assets.add(asset);
+    }
+
+    private void addSound(final String name, final AudioInputStream source) throws IOException {
+        final AudioFormat in = source.getFormat();
+        final AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, in.getSampleRate(),
+                in.getSampleSizeInBits() > 0 ? in.getSampleSizeInBits() : 16, in.getChannels(),
+                in.getChannels() * (in.getSampleSizeInBits() > 0 ? in.getSampleSizeInBits() : 16) / 8,
+                in.getSampleRate(), false);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (AudioInputStream decoded = in.matches(pcm) ? source : AudioSystem.getAudioInputStream(pcm, source)) {
+            final byte[] buf = new byte[1 << 16];
+            int n;
+            while ((n = decoded.read(buf)) > 0) {
+                out.write(buf, 0, n);
+            }
+        }
+        final PackedAsset asset = new PackedAsset(name, AssetPack.SOUND, ByteBuffer.wrap(out.toByteArray()));
+        asset.header.putFloat(pcm.getSampleRate()).putInt(pcm.getSampleSizeInBits()).putInt(pcm.getChannels())
+                .put((byte) 1).put((byte) (pcm.isBigEndian() ? 1 : 0));
+        this.assets.add(asset);
+    }
+
+    private void write(final File packFile) throws IOException {
+        long indexSize = HEADER_SIZE;
+        for (final PackedAsset asset : this.assets) {
+            indexSize += asset.indexSize();
+        }
+        final ByteBuffer index = ByteBuffer.allocate((int) indexSize).order(ByteOrder.BIG_ENDIAN);
+        index.putInt(AssetPack.MAGIC).putInt(AssetPack.VERSION).putInt(this.assets.size());
+        long offset = align(indexSize);
+        for (final PackedAsset asset : this.assets) {
+            asset.writeIndex(index, offset);
+            offset = align(offset + asset.data.capacity());
+        }
+        index.flip();
+        try (FileOutputStream fos = new FileOutputStream(packFile); FileChannel channel = fos.getChannel()) {
+            channel.write(index);
+            for (final PackedAsset asset : this.assets) {
+                channel.position(asset.offset);
+                asset.data.rewind();
+                while (asset.data.hasRemaining()) {
+                    channel.write(asset.data);
+                }
+            }
+        }
+    }
+
+    private static long align(final long offset) {
+        return (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /*
+     * A decoded asset waiting to be written.
+     */
+    private static final class PackedAsset {
+        private static final int FIXED_INDEX_SIZE = Short.BYTES + 1 + 2 * Long.BYTES;
+        private final byte[] name;
+        private final byte type;
+        private final ByteBuffer data;
+        private final ByteBuffer header = ByteBuffer.allocate(16).order(ByteOrder.BIG_ENDIAN);
+        private long offset;
+
+        private PackedAsset(final String name, final byte type, final ByteBuffer data) {
+            this.name = name.getBytes(StandardCharsets.UTF_8);
+            this.type = type;
+            this.data = data;
+        }
+
+        private int indexSize() {
+            return FIXED_INDEX_SIZE + this.name.length + this.header.position();
+        }
+
+        private void writeIndex(final ByteBuffer index, final long dataOffset) {
+            this.offset = dataOffset;
+            index.putShort((short) this.name.length).put(this.name).put(this.type).putLong(dataOffset)
+                    .putLong(this.data.capacity());
+            index.put(this.header.array(), 0, this.header.position());
+        }
+    }
+}
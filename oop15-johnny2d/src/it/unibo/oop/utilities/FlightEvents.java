@@ -0,0 +1,278 @@
+package it.unibo.oop.utilities;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Custom JDK Flight Recorder events of the game, used to correlate the
+ * stutters with GC pauses and other JVM activity. They are all disabled by
+ * default, so they cost only a check when no recording asks for them: enable
+ * them with a JFR settings file or from Mission Control (category
+ * "Johnny2D").
+ *
+ * <p>
+ * JFR is available only from OpenJDK 8u262, so the events are defined at
+ * runtime through the jdk.jfr API, looked up by reflection: the game builds
+ * against any Java 8 and, where JFR is missing, the events are never
+ * recorded.
+ *
+ * <p>
+ * Usage: {@link Type#begin()} before the measured work, {@link Event#end()}
+ * after it and, if {@link Event#shouldCommit()}, {@link Event#commit} with the
+ * values of the fields of the type. Nothing is allocated while the event isn't
+ * recorded.
+ */
+public final class FlightEvents {
+
+    private static final String CATEGORY = "Johnny2D";
+
+    /**
+     * A tick of the game loop, without sleeping. Fields: movables, stables,
+     * enemies, bullets, bullets fired during the tick (all int).
+     */
+    public static final Type TICK = new Type("it.unibo.oop.Tick", "Game Tick", false,
+            new Field(int.class, "movables", "Movables", null),
+            new Field(int.class, "stables", "Stables", null),
+            new Field(int.class, "enemies", "Enemies", null),
+            new Field(int.class, "bullets", "Bullets", null),
+            new Field(int.class, "bulletsFired", "Bullets Fired",
+                    "Bullets fired by the main character during the tick"));
+
+    /**
+     * A group of monsters spawned together. Fields: monster type (String),
+     * monsters, attempts (int).
+     */
+    public static final Type SPAWN_BATCH = new Type("it.unibo.oop.SpawnBatch", "Spawn Batch", false,
+            new Field(String.class, "monsterType", "Monster Type", null),
+            new Field(int.class, "monsters", "Monsters", null),
+            new Field(int.class, "attempts", "Attempts", "Random positions tried, including the ones rejected"));
+
+    /**
+     * The loading of the field of a level. Fields: level (int), resource
+     * (String).
+     */
+    public static final Type LEVEL_LOAD = new Type("it.unibo.oop.LevelLoad", "Level Load", true,
+            new Field(int.class, "level", "Level", null),
+            new Field(String.class, "resource", "Resource", null));
+
+    /**
+     * A read or a write of the high-score file. Fields: path (String), write,
+     * success (boolean).
+     */
+    public static final Type HIGH_SCORE_IO = new Type("it.unibo.oop.HighScoreIO", "High-Score I/O", true,
+            new Field(String.class, "path", "Path", null),
+            new Field(boolean.class, "write", "Write", null),
+            new Field(boolean.class, "success", "Success", null));
+
+    private FlightEvents() {
+    }
+
+    /**
+     * A type of event, registered in the Flight Recorder if it's available.
+     */
+    public static final class Type {
+        private final Object factory; // jdk.jfr.EventFactory, null without JFR
+        private final Object eventType; // jdk.jfr.EventType
+        private final int fields;
+
+        private Type(final String name, final String label, final boolean stackTrace, final Field... fields) {
+            this.fields = fields.length;
+            Object f = null;
+            Object t = null;
+            if (Jfr.API != null) {
+                try {
+                    final List<Object> annotations = Arrays.asList(Jfr.API.annotation("Name", name),
+                            Jfr.API.annotation("Label", label),
+                            Jfr.API.annotation("Category", new String[] { CATEGORY }),
+                            Jfr.API.annotation("Enabled", false),
+                            Jfr.API.annotation("StackTrace", stackTrace));
+                    final List<Object> descriptors = new ArrayList<>();
+                    for (final Field field : fields) {
+                        descriptors.add(field.describe());
+                    }
+                    f = Jfr.API.create.invoke(annotations, descriptors);
+                    t = Jfr.API.getEventType.invoke(f);
+                } catch (Throwable e) {
+                    System.out.println("Flight event " + name + " not registered: " + e);
+                    f = null;
+                    t = null;
+                }
+            }
+            this.factory = f;
+            this.eventType = t;
+        }
+
+        /**
+         * Starts measuring an event of this type.
+         *
+         * @return the event, which does nothing if no recording asks for it
+         */
+        public Event begin() {
+            if (this.factory == null) {
+                return Event.NONE;
+            }
+            try {
+                if (!(boolean) Jfr.API.isEnabled.invokeExact(this.eventType)) {
+                    return Event.NONE;
+                }
+                final Object event = Jfr.API.newEvent.invokeExact(this.factory);
+                Jfr.API.begin.invokeExact(event);
+                return new Event(event, this.fields);
+            } catch (Throwable e) {
+                return Event.NONE;
+            }
+        }
+    }
+
+    /**
+     * An event being measured.
+     */
+    public static final class Event {
+        private static final Event NONE = new Event(null, 0);
+        private final Object event; // jdk.jfr.Event
+        private final int fields;
+
+        private Event(final Object event, final int fields) {
+            this.event = event;
+            this.fields = fields;
+        }
+
+        /**
+         * Ends the measure.
+         */
+        public void end() {
+            if (this.event != null) {
+                try {
+                    Jfr.API.end.invokeExact(this.event);
+                } catch (Throwable e) {
+                    System.out.println("Flight event failed: " + e);
+                }
+            }
+        }
+
+        /**
+         * @return true if the event has to be committed, i.e. a recording
+         *         asks for it and it lasted enough
+         */
+        public boolean shouldCommit() {
+            try {
+                return this.event != null && (boolean) Jfr.API.shouldCommit.invokeExact(this.event);
+            } catch (Throwable e) {
+                return false;
+            }
+        }
+
+        /**
+         * Writes the event in the recordings.
+         *
+         * @param values
+         *            the values of the fields, in the order of the type
+         */
+        public void commit(final Object... values) {
+            if (this.event == null) {
+                return;
+            }
+            if (values.length != this.fields) {
+                throw new IllegalArgumentException("Expected " + this.fields + " values");
+            }
+            try {
+                for (int i = 0; i < values.length; i++) {
+                    Jfr.API.set.invokeExact(this.event, i, values[i]);
+                }
+                Jfr.API.commit.invokeExact(this.event);
+            } catch (Throwable e) {
+                System.out.println("Flight event failed: " + e);
+            }
+        }
+    }
+
+    /*
+     * A field of a type of event.
+     */
+    private static final class Field {
+        private final Class<?> type;
+        private final String name;
+        private final String label;
+        private final String description;
+
+        private Field(final Class<?> type, final String name, final String label, final String description) {
+            this.type = type;
+            this.name = name;
+            this.label = label;
+            this.description = description;
+        }
+
+        private Object describe() throws Throwable {
+            final List<Object> annotations = new ArrayList<>();
+            annotations.add(Jfr.API.annotation("Label", this.label));
+            if (this.description != null) {
+                annotations.add(Jfr.API.annotation("Description", this.description));
+            }
+            return Jfr.API.descriptor.invoke(this.type, this.name, Collections.unmodifiableList(annotations));
+        }
+    }
+
+    /*
+     * The jdk.jfr API, looked up once; API is null if it's missing.
+     */
+    private static final class Jfr {
+        private static final String PACKAGE = "jdk.jfr.";
+        private static final MethodType OBJECT_TO_VOID = MethodType.methodType(void.class, Object.class);
+        private static final MethodType OBJECT_TO_BOOLEAN = MethodType.methodType(boolean.class, Object.class);
+        private static final Jfr API = load();
+
+        private final MethodHandle annotation;
+        private final MethodHandle create;
+        private final MethodHandle getEventType;
+        private final MethodHandle descriptor;
+        private final MethodHandle isEnabled;
+        private final MethodHandle newEvent;
+        private final MethodHandle begin;
+        private final MethodHandle end;
+        private final MethodHandle shouldCommit;
+        private final MethodHandle set;
+        private final MethodHandle commit;
+
+        private Jfr() throws ReflectiveOperationException {
+            final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            final Class<?> factory = Class.forName(PACKAGE + "EventFactory");
+            final Class<?> eventType = Class.forName(PACKAGE + "EventType");
+            final Class<?> event = Class.forName(PACKAGE + "Event");
+            this.annotation = lookup.findConstructor(Class.forName(PACKAGE + "AnnotationElement"),
+                    MethodType.methodType(void.class, Class.class, Object.class));
+            this.create = lookup.findStatic(factory, "create", MethodType.methodType(factory, List.class, List.class));
+            this.getEventType = lookup.findVirtual(factory, "getEventType", MethodType.methodType(eventType));
+            this.descriptor = lookup.findConstructor(Class.forName(PACKAGE + "ValueDescriptor"),
+                    MethodType.methodType(void.class, Class.class, String.class, List.class));
+            this.isEnabled = lookup.findVirtual(eventType, "isEnabled", MethodType.methodType(boolean.class))
+                    .asType(OBJECT_TO_BOOLEAN);
+            this.newEvent = lookup.findVirtual(factory, "newEvent", MethodType.methodType(event))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            this.begin = lookup.findVirtual(event, "begin", MethodType.methodType(void.class)).asType(OBJECT_TO_VOID);
+            this.end = lookup.findVirtual(event, "end", MethodType.methodType(void.class)).asType(OBJECT_TO_VOID);
+            this.shouldCommit = lookup.findVirtual(event, "shouldCommit", MethodType.methodType(boolean.class))
+                    .asType(OBJECT_TO_BOOLEAN);
+            this.set = lookup.findVirtual(event, "set", MethodType.methodType(void.class, int.class, Object.class))
+                    .asType(MethodType.methodType(void.class, Object.class, int.class, Object.class));
+            this.commit = lookup.findVirtual(event, "commit", MethodType.methodType(void.class))
+                    .asType(OBJECT_TO_VOID);
+        }
+
+        private static Jfr load() {
+            try {
+                return new Jfr();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return null; // a runtime without the Flight Recorder
+            }
+        }
+
+        private Object annotation(final String name, final Object value) throws Throwable {
+            return this.annotation.invoke(Class.forName(PACKAGE + name), value);
+        }
+    }
+}
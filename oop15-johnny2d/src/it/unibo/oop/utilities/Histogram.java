@@ -0,0 +1,150 @@
+package it.unibo.oop.utilities;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size log-linear histogram of non-negative long values, e.g.
+ * durations in nanoseconds. Each power of two is split in 16 linear buckets,
+ * so a value is stored with a relative error below 1/16 and recording never
+ * allocates.
+ *
+ * <p>
+ * The histogram must be written by a single thread; any thread can read it
+ * at the same time, getting a slightly stale but consistent enough view.
+ */
+public final class Histogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BITS) * SUB_BUCKETS;
+    private static final double TO_PERCENT = 100.0;
+
+    private final long[] counts = new long[BUCKETS];
+    private long sum;
+    private long max;
+    private volatile long total; // written after the buckets, to publish them
+
+    /**
+     * @param value
+     *            the value to record, negative values are recorded as 0.
+     */
+    public void record(final long value) {
+        final long v = Math.max(0, value);
+        this.counts[index(v)]++;
+        this.sum += v;
+        if (v > this.max) {
+            this.max = v;
+        }
+        this.total = this.total + 1;
+    }
+
+    /**
+     * Forgets every value. To be called by the writer thread.
+     */
+    public void reset() {
+        this.total = 0;
+        Arrays.fill(this.counts, 0);
+        this.sum = 0;
+        this.max = 0;
+    }
+
+    /**
+     * @return the number of values recorded.
+     */
+    public long getCount() {
+        return this.total;
+    }
+
+    /**
+     * @return the mean of the values, or 0 if empty.
+     */
+    public double getMean() {
+        final long n = this.total;
+        return n == 0 ? 0 : (double) this.sum / n;
+    }
+
+    /**
+     * @return the sum of the values recorded.
+     */
+    public long getSum() {
+        return this.sum;
+    }
+
+    /**
+     * @return the maximum value recorded.
+     */
+    public long getMax() {
+        return this.max;
+    }
+
+    /**
+     * @param percentile
+     *            between 0 and 100.
+     * @return the highest value of the bucket which contains the percentile, or
+     *         0 if empty.
+     */
+    public long getValueAtPercentile(final double percentile) {
+        final long n = this.total;
+        if (n == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / TO_PERCENT * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), this.max);
+            }
+        }
+        return this.max;
+    }
+
+    /**
+     * @param value
+     *            an upper bound.
+     * @return how many values are less than or equal to the bound, with the
+     *         precision of the buckets.
+     */
+    public long getCountAtOrBelow(final long value) {
+        if (value < 0) {
+            return 0;
+        }
+        final int last = index(value);
+        long seen = 0;
+        for (int i = 0; i <= last; i++) {
+            seen += this.counts[i];
+        }
+        return seen;
+    }
+
+    /**
+     * @return a one-line description of the histogram with the main
+     *         percentiles, in milliseconds.
+     */
+    public String toMillisString() {
+        final double toMillis = 1e6;
+        return String.format("count %d mean %.2f p50 %.2f p90 %.2f p99 %.2f p99.9 %.2f max %.2f", this.getCount(),
+                this.getMean() / toMillis, this.getValueAtPercentile(50) / toMillis,
+                this.getValueAtPercentile(90) / toMillis, this.getValueAtPercentile(99) / toMillis,
+                this.getValueAtPercentile(99.9) / toMillis, this.getMax() / toMillis);
+    }
+
+    private static int index(final long v) {
+        if (v < SUB_BUCKETS) {
+            return (int) v;
+        }
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(v);
+        final int mantissa = (int) (v >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BITS) * SUB_BUCKETS + mantissa;
+    }
+
+    private static long highestValue(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int exponent = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BITS;
+        final long mantissa = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        final int shift = exponent - SUB_BITS;
+        return ((SUB_BUCKETS + mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,68 @@
+package it.unibo.oop.utilities;
+
+import java.util.function.Supplier;
+
+/**
+ * An interface for a logger which can be used in the hot paths of the game:
+ * the messages of a disabled level cost only a comparison, and the enabled
+ * ones are written by another thread.
+ */
+public interface Log {
+
+    /**
+     * @param level
+     *            the level of a message
+     * @return true if the messages of the level are written
+     */
+    boolean isEnabled(LogLevel level);
+
+    /**
+     * Logs a constant message.
+     *
+     * @param level
+     *            the level of the message
+     * @param message
+     *            the message
+     */
+    void log(LogLevel level, String message);
+
+    /**
+     * Logs a message formatted only if the level is enabled, by the writing
+     * thread: the argument must not change after the call.
+     *
+     * @param level
+     *            the level of the message
+     * @param format
+     *            the format of the message, as in
+     *            {@link String#format(String, Object...)}
+     * @param arg
+     *            the argument of the format
+     */
+    void log(LogLevel level, String format, Object arg);
+
+    /**
+     * Logs a message built only if the level is enabled.
+     *
+     * @param level
+     *            the level of the message
+     * @param message
+     *            the supplier of the message
+     */
+    void log(LogLevel level, Supplier<String> message);
+
+    /**
+     * @param level
+     *            the lowest level written from now on
+     */
+    void setLevel(LogLevel level);
+
+    /**
+     * @return the lowest level written
+     */
+    LogLevel getLevel();
+
+    /**
+     * @return the messages dropped because too many were waiting to be written
+     */
+    long getDropped();
+}
@@ -0,0 +1,166 @@
+package it.unibo.oop.utilities;
+
+import java.io.PrintStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.IllegalFormatException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * A singleton class implementing {@link Log}. The messages are put in a
+ * bounded multi-producer ring buffer, where each slot has a sequence number
+ * telling if it's free or written, and a daemon thread drains it to the
+ * standard output. When the ring is full the message is dropped, so the
+ * callers never wait. The initial level is read from the property
+ * {@value #LEVEL_PROPERTY}, INFO by default.
+ */
+public final class LogImpl implements Log {
+
+    /**
+     * System property with the initial level.
+     */
+    public static final String LEVEL_PROPERTY = "johnny2d.log.level";
+    private static final int CAPACITY = 1024; // power of 2
+    private static final long IDLE_WAIT = TimeUnit.MILLISECONDS.toNanos(10);
+    // last, the constructor uses the constants above
+    private static final LogImpl SINGLETON = new LogImpl();
+
+    private final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+    private final LogLevel[] levels = new LogLevel[CAPACITY];
+    private final String[] texts = new String[CAPACITY];
+    private final Object[][] args = new Object[CAPACITY][];
+    private final String[] threads = new String[CAPACITY];
+    private final long[] times = new long[CAPACITY];
+    private final AtomicLong tail = new AtomicLong(); // next slot to claim
+    private long head; // writer thread only
+    private final AtomicLong dropped = new AtomicLong();
+    private final PrintStream out = System.out;
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS", Locale.ROOT);
+    private volatile LogLevel level;
+
+    private LogImpl() {
+        for (int i = 0; i < CAPACITY; i++) {
+            this.sequences.set(i, i);
+        }
+        final String initial = System.getProperty(LEVEL_PROPERTY, LogLevel.INFO.name());
+        LogLevel parsed;
+        try {
+            parsed = LogLevel.valueOf(initial.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            parsed = LogLevel.INFO;
+        }
+        this.level = parsed;
+        final Thread writer = new Thread(this::write, "Logger");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Getter for the singleton pattern.
+     *
+     * @return the singleton instance of the {@link LogImpl}
+     */
+    public static Log getInstance() {
+        return SINGLETON;
+    }
+
+    @Override
+    public boolean isEnabled(final LogLevel messageLevel) {
+        return messageLevel.compareTo(this.level) >= 0 && messageLevel != LogLevel.OFF;
+    }
+
+    @Override
+    public void log(final LogLevel messageLevel, final String message) {
+        if (this.isEnabled(messageLevel)) {
+            this.offer(messageLevel, message, null);
+        }
+    }
+
+    @Override
+    public void log(final LogLevel messageLevel, final String format, final Object arg) {
+        if (this.isEnabled(messageLevel)) {
+            this.offer(messageLevel, format, new Object[] { arg });
+        }
+    }
+
+    @Override
+    public void log(final LogLevel messageLevel, final Supplier<String> message) {
+        if (this.isEnabled(messageLevel)) {
+            this.offer(messageLevel, message.get(), null);
+        }
+    }
+
+    @Override
+    public void setLevel(final LogLevel newLevel) {
+        this.level = newLevel;
+    }
+
+    @Override
+    public LogLevel getLevel() {
+        return this.level;
+    }
+
+    @Override
+    public long getDropped() {
+        return this.dropped.get();
+    }
+
+    private void offer(final LogLevel messageLevel, final String text, final Object[] formatArgs) {
+        while (true) {
+            final long pos = this.tail.get();
+            final int slot = (int) pos & (CAPACITY - 1);
+            final long diff = this.sequences.get(slot) - pos;
+            if (diff < 0) { // full: the slot hasn't been written yet
+                this.dropped.incrementAndGet();
+                return;
+            }
+            if (diff == 0 && this.tail.compareAndSet(pos, pos + 1)) {
+                this.levels[slot] = messageLevel;
+                this.texts[slot] = text;
+                this.args[slot] = formatArgs;
+                this.threads[slot] = Thread.currentThread().getName();
+                this.times[slot] = System.currentTimeMillis();
+                this.sequences.lazySet(slot, pos + 1); // publishes the slot
+                return;
+            }
+        }
+    }
+
+    /*
+     * Body of the writing thread.
+     */
+    private void write() {
+        final Date date = new Date();
+        while (true) {
+            final int slot = (int) this.head & (CAPACITY - 1);
+            if (this.sequences.get(slot) != this.head + 1) {
+                this.out.flush();
+                LockSupport.parkNanos(this, IDLE_WAIT);
+                continue;
+            }
+            date.setTime(this.times[slot]);
+            this.out.println(this.timeFormat.format(date) + " " + this.levels[slot] + " [" + this.threads[slot] + "] "
+                    + format(this.texts[slot], this.args[slot]));
+            this.texts[slot] = null;
+            this.args[slot] = null;
+            this.sequences.lazySet(slot, this.head + CAPACITY); // frees the slot
+            this.head++;
+        }
+    }
+
+    private static String format(final String text, final Object[] formatArgs) {
+        if (formatArgs == null) {
+            return text;
+        }
+        try {
+            return String.format(text, formatArgs);
+        } catch (IllegalFormatException e) {
+            return text;
+        }
+    }
+}
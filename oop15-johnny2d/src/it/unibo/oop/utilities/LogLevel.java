@@ -0,0 +1,32 @@
+package it.unibo.oop.utilities;
+
+/**
+ * Levels of the messages of a {@link Log}, from the most verbose.
+ */
+public enum LogLevel {
+
+    /**
+     * Details useful only when debugging, e.g. every collision.
+     */
+    DEBUG,
+
+    /**
+     * Normal events of the application.
+     */
+    INFO,
+
+    /**
+     * Unexpected events which don't stop the game.
+     */
+    WARN,
+
+    /**
+     * Errors.
+     */
+    ERROR,
+
+    /**
+     * Nothing is logged.
+     */
+    OFF;
+}
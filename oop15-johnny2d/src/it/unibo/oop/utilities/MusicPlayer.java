@@ -21,7 +21,7 @@ public interface MusicPlayer {
     boolean isMusicOn();
 
     /**
-     * Plays the audio file.
+     * Plays the audio file, cross-fading it with the one currently played.
      * 
      * @param musicName
      *            the audio file to reproduce
@@ -29,7 +29,8 @@ public interface MusicPlayer {
     void play(final String musicName);
 
     /**
-     * Plays the audio file in loop.
+     * Plays the audio file in loop, cross-fading it with the one currently
+     * played. If it's already played in loop it goes on without restarting.
      * 
      * @param musicName
      *            the audio file to reproduce
@@ -37,7 +38,7 @@ public interface MusicPlayer {
     void playLoop(final String musicName);
 
     /**
-     * Stops the reproduction of the audio file.
+     * Stops the reproduction of the audio file, fading it out.
      * 
      * @param musicName
      *            the audio file to stop
@@ -45,7 +46,7 @@ public interface MusicPlayer {
     void stop(final String musicName);
 
     /**
-     * Stops the reproduction of all the audio files.
+     * Stops immediately the reproduction of all the audio files.
      */
     void stopAll();
 
@@ -2,55 +2,96 @@ package it.unibo.oop.utilities;
 
 import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
+import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
 import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
 import javax.sound.sampled.UnsupportedAudioFileException;
 
 /**
  * A singleton class that represents a music player used to play the game's
  * music. The music is taken from OpenGameArt.
- * 
+ *
+ * <p>
+ * Tracks are never loaded in memory: a daemon thread reads them block by block
+ * from their streams, mixes them (cross-fading when a track replaces another
+ * one) and writes the result to a single {@link SourceDataLine}. The memory
+ * used is the same whatever the length of the tracks.
+ *
  * @see <a href="http://opengameart.org/">OpenGameArt</a>
  */
 public final class MusicPlayerImpl implements MusicPlayer {
 
-    private static final MusicPlayerImpl SINGLETON = new MusicPlayerImpl();
     public static final String LEVEL_BACKGROUND = "LevelBackground";
     public static final String GAME_OVER = "GameOver";
 
-    private final Map<String, Clip> musicLibrary;
-    private boolean musicOn;
+    private static final AudioFormat OUTPUT = new AudioFormat(44_100f, 16, 2, true, false);
+    private static final int FRAME_SIZE = 4;
+    private static final int BLOCK_FRAMES = 2048;
+    private static final int LINE_BLOCKS = 4;
+    private static final int FADE_MILLIS = 1500;
+    private static final float FADE_STEP = 1000f / (FADE_MILLIS * OUTPUT.getSampleRate());
+    // last, the constructor uses the constants above
+    private static final MusicPlayerImpl SINGLETON = new MusicPlayerImpl();
+
+    private final Map<String, String> musicLibrary;
+    private final List<Track> playing; // guarded by this
+    private final Optional<SourceDataLine> line;
+    private final byte[] trackBlock = new byte[BLOCK_FRAMES * FRAME_SIZE];
+    private final byte[] mixBlock = new byte[BLOCK_FRAMES * FRAME_SIZE];
+    private final int[] accumulator = new int[BLOCK_FRAMES * 2];
+    private volatile boolean musicOn;
+    private volatile boolean closed;
 
     private MusicPlayerImpl() {
         this.musicLibrary = new HashMap<>();
-        this.musicLibrary.put(LEVEL_BACKGROUND, this.loadMusic("/audio/LevelBackground.wav"));
-        this.musicLibrary.put(GAME_OVER, this.loadMusic("/audio/GameOver.wav"));
-    }
-
-    private Clip loadMusic(final String path) {
-        Clip clip = null;
-        try (final AudioInputStream ais = AudioSystem
-                .getAudioInputStream(new BufferedInputStream(this.getClass().getResourceAsStream(path)))) {
-            clip = AudioSystem.getClip();
-            clip.open(ais);
-        } catch (IOException | UnsupportedAudioFileException | LineUnavailableException e) {
-            e.printStackTrace();
+        this.musicLibrary.put(LEVEL_BACKGROUND, "/audio/LevelBackground.wav");
+        this.musicLibrary.put(GAME_OVER, "/audio/GameOver.wav");
+        this.playing = new ArrayList<>();
+        this.line = this.openLine();
+        final Thread streamer = new Thread(this::stream, "MusicStreamer");
+        streamer.setDaemon(true);
+        streamer.start();
+    }
+
+    private Optional<SourceDataLine> openLine() {
+        try {
+            final SourceDataLine sdl = AudioSystem.getSourceDataLine(OUTPUT);
+            sdl.open(OUTPUT, BLOCK_FRAMES * FRAME_SIZE * LINE_BLOCKS);
+            sdl.start();
+            return Optional.of(sdl);
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            System.out.println("No audio line available, the music is disabled");
+            return Optional.empty();
         }
-        return clip;
     }
 
-    private Clip getMusic(final String musicName) {
-        return this.musicLibrary.get(musicName);
+    /* the PCM frames of the asset pack are preferred to the decoding of the WAV */
+    private static AudioInputStream openMusic(final String path) throws IOException, UnsupportedAudioFileException {
+        final Optional<AudioInputStream> packed = AssetPack.getDefault().flatMap(p -> p.getSound(path));
+        if (packed.isPresent()) {
+            return packed.get();
+        }
+        final InputStream resource = MusicPlayerImpl.class.getResourceAsStream(path);
+        if (resource == null) {
+            throw new IOException("Missing audio resource " + path);
+        }
+        return AudioSystem.getAudioInputStream(new BufferedInputStream(resource));
     }
 
     /**
      * Getter for the singleton pattern.
-     * 
+     *
      * @return the singleton instance of the {@link MusicPlayerImpl}
      */
     public static MusicPlayer getInstance() {
@@ -69,37 +110,187 @@ public final class MusicPlayerImpl implements MusicPlayer {
 
     @Override
     public void play(final String musicName) {
-        if (this.musicOn) {
-            this.getMusic(musicName).setFramePosition(0);
-            this.getMusic(musicName).start();
-        }
+        this.start(musicName, false);
     }
 
     @Override
     public void playLoop(final String musicName) {
-        if (this.musicOn) {
-            this.getMusic(musicName).setFramePosition(0);
-            this.getMusic(musicName).loop(Clip.LOOP_CONTINUOUSLY);
+        this.start(musicName, true);
+    }
+
+    private synchronized void start(final String musicName, final boolean loop) {
+        if (!this.musicOn || !this.line.isPresent()) {
+            return;
         }
+        final boolean alreadyLooping = this.playing.stream()
+                .anyMatch(t -> t.name.equals(musicName) && t.loop && t.step >= 0);
+        if (loop && alreadyLooping) {
+            return;
+        }
+        final boolean crossFade = !this.playing.isEmpty();
+        this.playing.forEach(Track::fadeOut);
+        this.playing.add(new Track(musicName, this.musicLibrary.get(musicName), loop, crossFade));
+        this.notifyAll();
     }
 
     @Override
-    public void stop(final String musicName) {
-        this.getMusic(musicName).stop();
+    public synchronized void stop(final String musicName) {
+        this.playing.stream().filter(t -> t.name.equals(musicName)).forEach(Track::fadeOut);
     }
 
     @Override
-    public void stopAll() {
-        this.musicLibrary.values().forEach(e -> {
-            e.stop();
-        });
+    public synchronized void stopAll() {
+        this.playing.forEach(Track::close);
+        this.playing.clear();
+        this.line.ifPresent(SourceDataLine::flush);
     }
 
     @Override
-    public void closeMusicPlayer() {
-        this.musicLibrary.values().forEach(e -> {
-            e.stop();
-            e.close();
-        });
+    public synchronized void closeMusicPlayer() {
+        this.stopAll();
+        this.closed = true;
+        this.notifyAll();
+        this.line.ifPresent(SourceDataLine::close);
+    }
+
+    /*
+     * Body of the streaming thread: mixes a block and writes it to the line,
+     * which blocks until there is room, so the thread runs at the pace of the
+     * audio device.
+     */
+    private void stream() {
+        while (!this.closed) {
+            final int length;
+            synchronized (this) {
+                while (this.playing.isEmpty() && !this.closed) {
+                    try {
+                        this.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                length = this.mixBlock();
+            }
+            if (length > 0 && !this.closed) {
+                this.line.ifPresent(l -> l.write(this.mixBlock, 0, length));
+            }
+        }
+    }
+
+    /* must be called holding the lock */
+    private int mixBlock() {
+        Arrays.fill(this.accumulator, 0);
+        int mixed = 0;
+        for (final Iterator<Track> it = this.playing.iterator(); it.hasNext();) {
+            final Track track = it.next();
+            final int read = track.read(this.trackBlock);
+            for (int i = 0, s = 0; i < read; i += FRAME_SIZE, s += 2) {
+                final float gain = track.nextGain();
+                this.accumulator[s] += (int) (sample(this.trackBlock, i) * gain);
+                this.accumulator[s + 1] += (int) (sample(this.trackBlock, i + 2) * gain);
+            }
+            mixed = Math.max(mixed, read);
+            if (track.isOver()) {
+                track.close();
+                it.remove();
+            }
+        }
+        for (int i = 0, s = 0; i < mixed; i += 2, s++) {
+            final int value = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, this.accumulator[s]));
+            this.mixBlock[i] = (byte) value;
+            this.mixBlock[i + 1] = (byte) (value >> 8);
+        }
+        return mixed;
+    }
+
+    private static int sample(final byte[] block, final int index) {
+        return (short) ((block[index] & 0xFF) | (block[index + 1] << 8));
+    }
+
+    /*
+     * A track being streamed, with its own gain used for fading.
+     */
+    private static final class Track {
+        private final String name;
+        private final String path;
+        private final boolean loop;
+        private Optional<AudioInputStream> stream;
+        private float gain;
+        private float step;
+        private boolean ended;
+
+        private Track(final String name, final String path, final boolean loop, final boolean fadeIn) {
+            this.name = name;
+            this.path = path;
+            this.loop = loop;
+            this.gain = fadeIn ? 0 : 1;
+            this.step = fadeIn ? FADE_STEP : 0;
+            this.stream = this.open();
+        }
+
+        private Optional<AudioInputStream> open() {
+            try {
+                final AudioInputStream source = openMusic(this.path);
+                return Optional.of(source.getFormat().matches(OUTPUT) ? source
+                        : AudioSystem.getAudioInputStream(OUTPUT, source));
+            } catch (IOException | UnsupportedAudioFileException | IllegalArgumentException e) {
+                System.out.println("Error opening the music " + this.name);
+                this.ended = true;
+                return Optional.empty();
+            }
+        }
+
+        /* fills the block, restarting the stream if the track loops */
+        private int read(final byte[] block) {
+            int read = 0;
+            boolean restarted = false;
+            while (read < block.length && this.stream.isPresent()) {
+                int n;
+                try {
+                    n = this.stream.get().read(block, read, block.length - read);
+                } catch (IOException e) {
+                    n = -1;
+                }
+                if (n > 0) {
+                    read += n;
+                    restarted = false;
+                } else if (n < 0 && this.loop && !restarted) {
+                    this.close();
+                    this.stream = this.open();
+                    restarted = true; // an empty track must not be restarted forever
+                } else {
+                    this.ended = n < 0;
+                    break;
+                }
+            }
+            if (!this.stream.isPresent()) {
+                this.ended = true;
+            }
+            return read - read % FRAME_SIZE;
+        }
+
+        private float nextGain() {
+            this.gain = Math.max(0, Math.min(1, this.gain + this.step));
+            return this.gain;
+        }
+
+        private void fadeOut() {
+            this.step = -FADE_STEP;
+        }
+
+        private boolean isOver() {
+            return this.ended || this.step < 0 && this.gain <= 0;
+        }
+
+        private void close() {
+            this.stream.ifPresent(s -> {
+                try {
+                    s.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            });
+            this.stream = Optional.empty();
+        }
     }
-}
\ No newline at end of file
+}
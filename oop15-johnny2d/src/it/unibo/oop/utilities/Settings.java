@@ -48,6 +48,12 @@ public final class Settings {
     public static final String HIGHSCORE_FOLDER = MY_FOLDER + FILE_SEPARATOR;
     public static final String HIGHSCORE_FILE = "highscores.bin";
 
+    /**
+     * True if the game has been launched with -Djohnny2d.debug=true: the
+     * debugging statistics are printed and logged in {@link #MY_FOLDER}.
+     */
+    public static final boolean DEBUG = Boolean.getBoolean("johnny2d.debug");
+
     private Settings() {
     };
 }
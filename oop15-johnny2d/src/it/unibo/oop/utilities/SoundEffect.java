@@ -0,0 +1,35 @@
+package it.unibo.oop.utilities;
+
+/**
+ * Short sounds played by the {@link SoundMixer} in response to game events.
+ */
+public enum SoundEffect {
+
+    /**
+     * A bullet fired by the main character.
+     */
+    SHOT("/audio/Shot.wav"),
+
+    /**
+     * An enemy hit by a bullet or the main character hit by an enemy.
+     */
+    HIT("/audio/Hit.wav"),
+
+    /**
+     * A collectable taken by the main character.
+     */
+    PICKUP("/audio/Pickup.wav");
+
+    private final String path;
+
+    SoundEffect(final String path) {
+        this.path = path;
+    }
+
+    /**
+     * @return the path of the audio resource, which is synthesized if missing.
+     */
+    public String getPath() {
+        return this.path;
+    }
+}
@@ -0,0 +1,36 @@
+package it.unibo.oop.utilities;
+
+/**
+ * An interface for a mixer of short {@link SoundEffect}s.
+ */
+public interface SoundMixer {
+
+    /**
+     * Requests to play a sound. It never blocks nor allocates, so it can be
+     * called by the game loop; if too many requests are pending it's dropped.
+     *
+     * @param effect
+     *            the sound to play
+     */
+    void trigger(SoundEffect effect);
+
+    /**
+     * Sets the sounds on or off.
+     *
+     * @param soundsOn
+     *            true to set the sounds on, false to set them off
+     */
+    void setSounds(boolean soundsOn);
+
+    /**
+     * Indicates if the sounds are on or not.
+     *
+     * @return true if the sounds are on, false otherwise
+     */
+    boolean isSoundsOn();
+
+    /**
+     * Closes the mixer.
+     */
+    void closeMixer();
+}
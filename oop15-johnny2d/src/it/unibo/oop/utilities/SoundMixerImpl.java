@@ -0,0 +1,266 @@
+package it.unibo.oop.utilities;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * A singleton class implementing {@link SoundMixer}.
+ *
+ * <p>
+ * Every {@link SoundEffect} is decoded (or synthesized, if its resource is
+ * missing) once at construction. The game thread posts requests in a
+ * single-producer/single-consumer ring, without locks nor allocations; the
+ * mixing thread drains it, assigns each request to one of a fixed pool of
+ * voices (stealing the oldest one when all are busy) and mixes the voices in a
+ * single output line with a short buffer, to keep latency low.
+ */
+public final class SoundMixerImpl implements SoundMixer {
+
+    private static final float SAMPLE_RATE = 44_100f;
+    private static final AudioFormat OUTPUT = new AudioFormat(SAMPLE_RATE, 16, 1, true, false);
+    private static final int MAX_VOICES = 8;
+    private static final int BLOCK_FRAMES = 256;
+    private static final int LINE_BLOCKS = 4;
+    private static final int QUEUE_SIZE = 64; // power of 2
+    private static final int NO_EFFECT = -1;
+    private static final float VOICE_GAIN = 0.6f;
+    // last, the constructor uses the constants above
+    private static final SoundMixerImpl SINGLETON = new SoundMixerImpl();
+
+    private final short[][] effects;
+    private final int[] queue = new int[QUEUE_SIZE];
+    private final AtomicLong head = new AtomicLong(); // next request to read
+    private final AtomicLong tail = new AtomicLong(); // next free slot
+    private final int[] voiceEffect = new int[MAX_VOICES];
+    private final int[] voicePosition = new int[MAX_VOICES];
+    private final int[] accumulator = new int[BLOCK_FRAMES];
+    private final byte[] block = new byte[BLOCK_FRAMES * 2];
+    private final Optional<SourceDataLine> line;
+    private final Thread mixer;
+    private volatile boolean idle;
+    private volatile boolean soundsOn = true;
+    private volatile boolean closed;
+
+    private SoundMixerImpl() {
+        this.effects = new short[SoundEffect.values().length][];
+        for (final SoundEffect effect : SoundEffect.values()) {
+            this.effects[effect.ordinal()] = load(effect);
+        }
+        Arrays.fill(this.voiceEffect, NO_EFFECT);
+        this.line = openLine();
+        this.mixer = new Thread(this::mix, "SoundMixer");
+        this.mixer.setDaemon(true);
+        if (this.line.isPresent()) {
+            this.mixer.start();
+        }
+    }
+
+    /**
+     * Getter for the singleton pattern.
+     *
+     * @return the singleton instance of the {@link SoundMixerImpl}
+     */
+    public static SoundMixer getInstance() {
+        return SINGLETON;
+    }
+
+    @Override
+    public void trigger(final SoundEffect effect) {
+        if (!this.soundsOn || !this.line.isPresent()) {
+            return;
+        }
+        final long t = this.tail.get();
+        if (t - this.head.get() >= QUEUE_SIZE) {
+            return; // full: the sound is dropped, the game must not wait
+        }
+        this.queue[(int) t & (QUEUE_SIZE - 1)] = effect.ordinal();
+        this.tail.set(t + 1); // volatile write: pairs with the idle check of the mixer
+        if (this.idle) {
+            LockSupport.unpark(this.mixer);
+        }
+    }
+
+    @Override
+    public void setSounds(final boolean soundsOn) {
+        this.soundsOn = soundsOn;
+    }
+
+    @Override
+    public boolean isSoundsOn() {
+        return this.soundsOn;
+    }
+
+    @Override
+    public void closeMixer() {
+        this.closed = true;
+        LockSupport.unpark(this.mixer);
+        this.line.ifPresent(SourceDataLine::close);
+    }
+
+    /*
+     * Body of the mixing thread.
+     */
+    private void mix() {
+        while (!this.closed) {
+            this.drainRequests();
+            if (this.mixBlock()) {
+                this.line.get().write(this.block, 0, this.block.length);
+            } else {
+                this.idle = true;
+                if (this.head.get() == this.tail.get()) {
+                    LockSupport.park(this);
+                }
+                this.idle = false;
+            }
+        }
+    }
+
+    private void drainRequests() {
+        long h = this.head.get();
+        final long t = this.tail.get();
+        while (h < t) {
+            this.startVoice(this.queue[(int) h & (QUEUE_SIZE - 1)]);
+            h++;
+        }
+        this.head.lazySet(h);
+    }
+
+    /* uses a free voice, or steals the one which has played longer */
+    private void startVoice(final int effect) {
+        int chosen = 0;
+        for (int v = 0; v < MAX_VOICES; v++) {
+            if (this.voiceEffect[v] == NO_EFFECT) {
+                chosen = v;
+                break;
+            }
+            if (this.voicePosition[v] > this.voicePosition[chosen]) {
+                chosen = v;
+            }
+        }
+        this.voiceEffect[chosen] = effect;
+        this.voicePosition[chosen] = 0;
+    }
+
+    /* returns false if there isn't any active voice */
+    private boolean mixBlock() {
+        boolean active = false;
+        Arrays.fill(this.accumulator, 0);
+        for (int v = 0; v < MAX_VOICES; v++) {
+            if (this.voiceEffect[v] != NO_EFFECT) {
+                active = true;
+                final short[] samples = this.effects[this.voiceEffect[v]];
+                final int n = Math.min(BLOCK_FRAMES, samples.length - this.voicePosition[v]);
+                for (int i = 0; i < n; i++) {
+                    this.accumulator[i] += samples[this.voicePosition[v] + i];
+                }
+                this.voicePosition[v] += n;
+                if (this.voicePosition[v] >= samples.length) {
+                    this.voiceEffect[v] = NO_EFFECT;
+                }
+            }
+        }
+        for (int i = 0; i < BLOCK_FRAMES; i++) {
+            final int value = Math.max(Short.MIN_VALUE,
+                    Math.min(Short.MAX_VALUE, (int) (this.accumulator[i] * VOICE_GAIN)));
+            this.block[2 * i] = (byte) value;
+            this.block[2 * i + 1] = (byte) (value >> 8);
+        }
+        return active;
+    }
+
+    private static Optional<SourceDataLine> openLine() {
+        try {
+            final SourceDataLine sdl = AudioSystem.getSourceDataLine(OUTPUT);
+            sdl.open(OUTPUT, BLOCK_FRAMES * 2 * LINE_BLOCKS);
+            sdl.start();
+            return Optional.of(sdl);
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            System.out.println("No audio line available, the sounds are disabled");
+            return Optional.empty();
+        }
+    }
+
+    /* decodes the effect in the output format, or synthesizes it */
+    private static short[] load(final SoundEffect effect) {
+        final Optional<AudioInputStream> packed = AssetPack.getDefault().flatMap(p -> p.getSound(effect.getPath()));
+        final InputStream resource = packed.isPresent() ? null
+                : SoundMixerImpl.class.getResourceAsStream(effect.getPath());
+        if (!packed.isPresent() && resource == null) {
+            return synthesize(effect);
+        }
+        try (AudioInputStream source = packed.isPresent() ? packed.get()
+                : AudioSystem.getAudioInputStream(new BufferedInputStream(resource));
+                AudioInputStream pcm = source.getFormat().matches(OUTPUT) ? source
+                        : AudioSystem.getAudioInputStream(OUTPUT, source)) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buf = new byte[4096];
+            int n;
+            while ((n = pcm.read(buf)) > 0) {
+                out.write(buf, 0, n);
+            }
+            final byte[] bytes = out.toByteArray();
+            final short[] samples = new short[bytes.length / 2];
+            for (int i = 0; i < samples.length; i++) {
+                samples[i] = (short) ((bytes[2 * i] & 0xFF) | (bytes[2 * i + 1] << 8));
+            }
+            return samples;
+        } catch (IOException | UnsupportedAudioFileException | IllegalArgumentException e) {
+            System.out.println("Error loading the sound " + effect + ", it will be synthesized");
+            return synthesize(effect);
+        }
+    }
+
+    /* simple procedural sounds used when the resources are missing */
+    private static short[] synthesize(final SoundEffect effect) {
+        final Random noise = new Random(effect.ordinal());
+        final double duration;
+        switch (effect) {
+        case SHOT:
+            duration = 0.08;
+            break;
+        case HIT:
+            duration = 0.15;
+            break;
+        default:
+            duration = 0.12;
+            break;
+        }
+        final short[] samples = new short[(int) (duration * SAMPLE_RATE)];
+        double phase = 0;
+        for (int i = 0; i < samples.length; i++) {
+            final double progress = (double) i / samples.length;
+            final double envelope = Math.exp(-4 * progress);
+            final double value;
+            switch (effect) {
+            case SHOT: // descending square wave
+                phase += (900 - 600 * progress) / SAMPLE_RATE;
+                value = (phase % 1 < 0.5 ? 1 : -1) * 0.5;
+                break;
+            case HIT: // noise burst over a low tone
+                phase += 120 / SAMPLE_RATE;
+                value = 0.5 * (noise.nextDouble() * 2 - 1) + 0.5 * Math.sin(2 * Math.PI * phase);
+                break;
+            default: // two rising tones
+                phase += (progress < 0.5 ? 880 : 1320) / SAMPLE_RATE;
+                value = 0.6 * Math.sin(2 * Math.PI * phase);
+                break;
+            }
+            samples[i] = (short) (value * envelope * Short.MAX_VALUE);
+        }
+        return samples;
+    }
+}
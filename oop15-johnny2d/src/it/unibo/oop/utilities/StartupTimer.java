@@ -0,0 +1,103 @@
+package it.unibo.oop.utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Utility class which measures the phases of the application startup, both
+ * the ones executed serially and the ones executed in background.
+ */
+public final class StartupTimer {
+
+    private static final double TO_MILLIS = 1e6;
+    private static final long ORIGIN = System.nanoTime();
+    private static final List<String> PHASES = new ArrayList<>();
+
+    private StartupTimer() {
+    }
+
+    /**
+     * Executes a phase in the current thread.
+     *
+     * @param phase
+     *            the name of the phase
+     * @param task
+     *            the task to execute
+     * @param <T>
+     *            the type of the result
+     * @return the result of the task
+     */
+    public static <T> T time(final String phase, final Supplier<T> task) {
+        final long start = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            record(phase, start);
+        }
+    }
+
+    /**
+     * Executes a phase in the current thread.
+     *
+     * @param phase
+     *            the name of the phase
+     * @param task
+     *            the task to execute
+     */
+    public static void time(final String phase, final Runnable task) {
+        time(phase, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Executes a phase in background.
+     *
+     * @param phase
+     *            the name of the phase
+     * @param task
+     *            the task to execute
+     * @param <T>
+     *            the type of the result
+     * @return the future result of the task
+     */
+    public static <T> CompletableFuture<T> async(final String phase, final Supplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> time(phase, task));
+    }
+
+    /**
+     * Executes a phase in background.
+     *
+     * @param phase
+     *            the name of the phase
+     * @param task
+     *            the task to execute
+     * @return the future completion of the task
+     */
+    public static CompletableFuture<Void> async(final String phase, final Runnable task) {
+        return CompletableFuture.runAsync(() -> time(phase, task));
+    }
+
+    /**
+     * Prints the phases measured so far.
+     */
+    public static void report() {
+        synchronized (PHASES) {
+            System.out.println("Startup report (ms from launch):");
+            PHASES.forEach(System.out::println);
+            System.out.println(String.format("  total %.1f", (System.nanoTime() - ORIGIN) / TO_MILLIS));
+        }
+    }
+
+    private static void record(final String phase, final long start) {
+        final long end = System.nanoTime();
+        final String line = String.format("  %-18s %-28s start %7.1f  took %7.1f", phase,
+                "[" + Thread.currentThread().getName() + "]", (start - ORIGIN) / TO_MILLIS, (end - start) / TO_MILLIS);
+        synchronized (PHASES) {
+            PHASES.add(line);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package it.unibo.oop.view;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * Interface for a manager which decodes images in background and keeps them
+ * in a bounded cache.
+ */
+public interface AssetManager {
+
+    /**
+     * Gets the image with the specified name, waiting for its decoding only if
+     * it hasn't been loaded or prefetched yet.
+     *
+     * @param name
+     *            the name of the image
+     * @return the decoded {@link BufferedImage}
+     * @throws IOException
+     *             if the image can't be loaded
+     */
+    BufferedImage get(String name) throws IOException;
+
+    /**
+     * Starts decoding the image with the specified name in background, if it
+     * isn't already cached or being decoded.
+     *
+     * @param name
+     *            the name of the image
+     */
+    void prefetch(String name);
+
+    /**
+     * @return the number of requests served without decoding.
+     */
+    long getHits();
+
+    /**
+     * @return the number of requests not found in the cache, i.e. which had
+     *         to wait for a (possibly prefetched) decoding.
+     */
+    long getMisses();
+
+    /**
+     * @return the number of images removed from the cache.
+     */
+    long getEvictions();
+
+    /**
+     * @return the number of images decoded so far.
+     */
+    long getLoads();
+
+    /**
+     * @return the average decoding time in milliseconds.
+     */
+    double getAverageLoadTime();
+
+    /**
+     * @return the size in bytes of the images currently cached.
+     */
+    long getCachedBytes();
+}
@@ -0,0 +1,164 @@
+package it.unibo.oop.view;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A singleton class implementing {@link AssetManager}. Images are decoded by a
+ * single daemon thread and kept in a LRU cache bounded by the size of the
+ * decoded pixels.
+ */
+public final class AssetManagerImpl implements AssetManager {
+
+    private static final long DEFAULT_CAPACITY = 32L * 1024 * 1024;
+    private static final int BYTES_PER_PIXEL = 4;
+    private static final double TO_MILLIS = 1e6;
+    private static final AssetManagerImpl SINGLETON = new AssetManagerImpl(DEFAULT_CAPACITY);
+
+    private final long capacity;
+    private final ExecutorService loader;
+    private final Map<String, BufferedImage> cache; // guarded by this
+    private final Map<String, Future<BufferedImage>> pending; // guarded by this
+    private long cachedBytes; // guarded by this
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadTime = new AtomicLong();
+
+    private AssetManagerImpl(final long capacity) {
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true); // access-order
+        this.pending = new HashMap<>();
+        this.loader = Executors.newSingleThreadExecutor(r -> {
+            final Thread t = new Thread(r, "AssetLoader");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Getter for the singleton pattern.
+     *
+     * @return the singleton instance of the {@link AssetManagerImpl}
+     */
+    public static AssetManager getInstance() {
+        return SINGLETON;
+    }
+
+    @Override
+    public BufferedImage get(final String name) throws IOException {
+        final Future<BufferedImage> future;
+        synchronized (this) {
+            final BufferedImage cached = this.cache.get(name);
+            if (cached != null) {
+                this.hits.incrementAndGet();
+                return cached;
+            }
+            this.misses.incrementAndGet();
+            future = this.schedule(name);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading " + name, e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+    }
+
+    @Override
+    public synchronized void prefetch(final String name) {
+        if (!this.cache.containsKey(name)) {
+            this.schedule(name);
+        }
+    }
+
+    /* must be called holding the lock */
+    private Future<BufferedImage> schedule(final String name) {
+        Future<BufferedImage> future = this.pending.get(name);
+        if (future == null) {
+            future = this.loader.submit(() -> this.decode(name));
+            this.pending.put(name, future);
+        }
+        return future;
+    }
+
+    private BufferedImage decode(final String name) throws IOException {
+        final long start = System.nanoTime();
+        final BufferedImage image;
+        try {
+            image = ImageLoader.load(name);
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                this.pending.remove(name);
+            }
+            throw e;
+        }
+        this.loadTime.addAndGet(System.nanoTime() - start);
+        this.loads.incrementAndGet();
+        synchronized (this) {
+            this.cache.put(name, image);
+            this.cachedBytes += sizeOf(image);
+            this.pending.remove(name);
+            this.evict();
+        }
+        return image;
+    }
+
+    /* removes the least recently used images until the cache fits its capacity */
+    private void evict() {
+        final Iterator<BufferedImage> it = this.cache.values().iterator();
+        while (this.cachedBytes > this.capacity && this.cache.size() > 1) {
+            this.cachedBytes -= sizeOf(it.next());
+            it.remove();
+            this.evictions.incrementAndGet();
+        }
+    }
+
+    private static long sizeOf(final BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * BYTES_PER_PIXEL;
+    }
+
+    @Override
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    @Override
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    @Override
+    public long getEvictions() {
+        return this.evictions.get();
+    }
+
+    @Override
+    public long getLoads() {
+        return this.loads.get();
+    }
+
+    @Override
+    public double getAverageLoadTime() {
+        final long n = this.loads.get();
+        return n == 0 ? 0 : this.loadTime.get() / TO_MILLIS / n;
+    }
+
+    @Override
+    public synchronized long getCachedBytes() {
+        return this.cachedBytes;
+    }
+}
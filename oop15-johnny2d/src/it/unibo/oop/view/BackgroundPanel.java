@@ -17,14 +17,15 @@ public class BackgroundPanel extends JPanel {
     private Image background;
 
     /**
-     * Builds the {@link javax.swing.JPanel} with the specified background.
+     * Builds the {@link javax.swing.JPanel} with the specified background. The
+     * background is shared with every other panel using it.
      * 
      * @param name
      *            the name of the background to use
      */
     public BackgroundPanel(final String name) {
         try {
-            this.background = ImageLoader.load(name);
+            this.background = AssetManagerImpl.getInstance().get(name);
         } catch (IOException e) {
             System.out.println("Error loading the background");
         }
@@ -0,0 +1,134 @@
+package it.unibo.oop.view;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import it.unibo.oop.controller.LoopPhase;
+import it.unibo.oop.controller.LoopProfiler;
+import it.unibo.oop.model.EntityCount;
+import it.unibo.oop.model.GameState;
+import it.unibo.oop.model.GameStateImpl;
+
+/**
+ * Performance overlay of the level, shown and hidden with the debug key. It
+ * reads only the statistics published by the game loop and the model, and it
+ * draws them in its own image, refreshed a few times per second: every other
+ * frame only copies the image.
+ */
+public class DebugOverlay {
+
+    private static final int WIDTH = 330;
+    private static final int HEIGHT = 290;
+    private static final int MARGIN = 10;
+    private static final int LINE = 18;
+    private static final int GRAPH_HEIGHT = 60;
+    private static final long REFRESH = 250_000_000L; // ns
+    private static final double TO_MILLIS = 1e6;
+    private static final double GRAPH_SCALE_MILLIS = 100;
+    private static final double SLOW = 1.25; // the period includes sleeping, so it's always above the target
+    private static final long MB = 1024 * 1024;
+    private static final Color BACKGROUND = new Color(0, 0, 0, 160);
+    private static final Color BUDGET = new Color(255, 255, 255, 90);
+
+    private final LoopProfiler profiler = LoopProfiler.getInstance();
+    private final GameState gs = GameStateImpl.getInstance();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final Font font = new Font(Font.MONOSPACED, Font.BOLD, 14);
+    private final long[] periods = new long[WIDTH - 2 * MARGIN];
+    private final BufferedImage layer = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+    private volatile boolean visible;
+    private long lastRefresh; // EDT only
+    private long lastPaint; // EDT only
+    private boolean shown; // EDT only
+
+    /**
+     * Shows the overlay if hidden, hides it otherwise.
+     */
+    public void toggle() {
+        this.visible = !this.visible;
+    }
+
+    /**
+     * Draws the overlay, if visible, on the left in the middle of the panel.
+     *
+     * @param g
+     *            graphics of the level.
+     * @param panelHeight
+     *            height of the panel.
+     * @param paintTime
+     *            time spent by the Event Dispatch Thread painting the level,
+     *            in ns.
+     */
+    public void paint(final Graphics g, final int panelHeight, final long paintTime) {
+        this.lastPaint = paintTime;
+        if (!this.visible) {
+            this.shown = false;
+            return;
+        }
+        final long now = System.nanoTime();
+        if (!this.shown || now - this.lastRefresh > REFRESH) {
+            this.shown = true;
+            this.lastRefresh = now;
+            this.refresh();
+        }
+        g.drawImage(this.layer, MARGIN, Math.max(MARGIN, (panelHeight - HEIGHT) / 2), null);
+    }
+
+    private void refresh() {
+        final Graphics2D g = this.layer.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.setColor(BACKGROUND);
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        g.setComposite(AlphaComposite.SrcOver);
+        g.setFont(this.font);
+        g.setColor(Color.GREEN);
+        final Runtime runtime = Runtime.getRuntime();
+        long gcCount = 0;
+        for (final GarbageCollectorMXBean gc : this.collectors) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+        }
+        final String[] lines = {
+            String.format("FPS      %6.1f", this.profiler.getFps()),
+            String.format("tick     %6.2f ms", this.profiler.getLastTick() / TO_MILLIS),
+            String.format("simul.   %6.2f ms", this.profiler.getLastPhase(LoopPhase.SIMULATION) / TO_MILLIS),
+            String.format("paint    %6.2f ms", this.lastPaint / TO_MILLIS),
+            // the game loop only waits for the frame to be handed to the EDT, repaint() is asynchronous
+            String.format("hand-off %6.2f ms", this.profiler.getLastPhase(LoopPhase.RENDER) / TO_MILLIS),
+            String.format("monsters %3d basic %3d invisible", this.gs.getCount(EntityCount.BASIC_MONSTERS),
+                    this.gs.getCount(EntityCount.INVISIBLE_MONSTERS)),
+            String.format("bullets  %3d bonus %3d walls %d", this.gs.getCount(EntityCount.BULLETS),
+                    this.gs.getCount(EntityCount.COLLECTABLES), this.gs.getCount(EntityCount.STABLES)
+                            - this.gs.getCount(EntityCount.COLLECTABLES)),
+            String.format("heap     %4d / %4d MB", (runtime.totalMemory() - runtime.freeMemory()) / MB,
+                    runtime.maxMemory() / MB),
+            String.format("GC       %6d", gcCount),
+        };
+        for (int i = 0; i < lines.length; i++) {
+            g.drawString(lines[i], MARGIN, MARGIN + LINE * (i + 1));
+        }
+        this.drawGraph(g, HEIGHT - MARGIN);
+        g.dispose();
+    }
+
+    /* one bar per frame, the line is the target period of the loop */
+    private void drawGraph(final Graphics2D g, final int bottom) {
+        final int n = this.profiler.copyRecentPeriods(this.periods);
+        final double target = this.profiler.getTargetPeriod() / TO_MILLIS;
+        final int budget = (int) Math.min(GRAPH_HEIGHT, GRAPH_HEIGHT * target / GRAPH_SCALE_MILLIS);
+        g.setColor(BUDGET);
+        g.drawLine(MARGIN, bottom - budget, WIDTH - MARGIN, bottom - budget);
+        for (int i = 0; i < n; i++) {
+            final double millis = this.periods[i] / TO_MILLIS;
+            final int h = (int) Math.min(GRAPH_HEIGHT, millis / GRAPH_SCALE_MILLIS * GRAPH_HEIGHT);
+            g.setColor(millis > 2 * target ? Color.RED : millis > target * SLOW ? Color.YELLOW : Color.GREEN);
+            g.drawLine(MARGIN + i, bottom, MARGIN + i, bottom - h);
+        }
+    }
+}
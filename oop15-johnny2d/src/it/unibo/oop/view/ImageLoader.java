@@ -2,8 +2,12 @@ package it.unibo.oop.view;
 
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.Optional;
+
 import javax.imageio.ImageIO;
 
+import it.unibo.oop.utilities.AssetPack;
+
 /**
  * A simple utility class to load an image.
  */
@@ -13,7 +17,8 @@ public final class ImageLoader {
     }
 
     /**
-     * Loads the image with the specified name.
+     * Loads the image with the specified name. The pre-decoded copy found in
+     * the {@link AssetPack} is preferred, if any.
      * 
      * @param name
      *            the name of the image to load
@@ -22,6 +27,10 @@ public final class ImageLoader {
      *             if the image name is invalid
      */
     public static BufferedImage load(final String name) throws IOException {
+        final Optional<BufferedImage> packed = AssetPack.getDefault().flatMap(p -> p.getImage(name));
+        if (packed.isPresent()) {
+            return packed.get();
+        }
         return ImageIO.read(ImageLoader.class.getResourceAsStream(name));
     }
 }
\ No newline at end of file
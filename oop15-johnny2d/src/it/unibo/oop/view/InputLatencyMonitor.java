@@ -0,0 +1,200 @@
+package it.unibo.oop.view;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.swing.SwingUtilities;
+
+import it.unibo.oop.utilities.Settings;
+
+/**
+ * A singleton class which measures the latency of the input pipeline: every
+ * key press is stamped with {@link System#nanoTime()} by the
+ * {@link MainKeyListener}, then it's followed to the tick of the game loop
+ * which consumes it and to the first frame painted after that tick.
+ *
+ * <p>
+ * The game loop hands the presses of each tick to the Event Dispatch Thread
+ * through a lock-free ring, so neither of them waits for the other. The frame
+ * is considered presented when the {@link LevelPanel} has been painted, i.e.
+ * before Swing copies its back buffer on the screen.
+ */
+public final class InputLatencyMonitor {
+
+    private static final InputLatencyMonitor SINGLETON = new InputLatencyMonitor();
+    private static final int PENDING_SIZE = 64; // power of 2
+    private static final int WINDOW_SIZE = 1024;
+    private static final int LOG_SIZE = 4096;
+    private static final double TO_MILLIS = 1e6;
+    private static final long NONE = Long.MIN_VALUE;
+
+    /* game thread -> EDT: the first press of each tick and when it was consumed */
+    private final long[] pendingFrame = new long[PENDING_SIZE];
+    private final long[] pendingPress = new long[PENDING_SIZE];
+    private final long[] pendingTick = new long[PENDING_SIZE];
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long requestedFrame;
+    private long tickPress = NONE; // game thread only
+    private long tickTime; // game thread only
+
+    private final Window toTick = new Window(WINDOW_SIZE);
+    private final Window toFrame = new Window(WINDOW_SIZE);
+    /* EDT only: the last presses followed until the frame, for the CSV */
+    private final long[][] log = new long[3][LOG_SIZE];
+    private int logged;
+
+    private InputLatencyMonitor() {
+    }
+
+    /**
+     * Getter for the singleton pattern.
+     *
+     * @return the singleton instance of the {@link InputLatencyMonitor}
+     */
+    public static InputLatencyMonitor getInstance() {
+        return SINGLETON;
+    }
+
+    /**
+     * Called by the game loop when it consumes a key press.
+     *
+     * @param pressTime
+     *            the timestamp of the press.
+     */
+    public void keyConsumed(final long pressTime) {
+        final long now = System.nanoTime();
+        this.toTick.record(now - pressTime);
+        if (this.tickPress == NONE || pressTime - this.tickPress < 0) {
+            this.tickPress = pressTime;
+            this.tickTime = now;
+        }
+    }
+
+    /**
+     * Called by the game loop when it has updated the model and asks for a new
+     * frame: the presses consumed in this tick will be presented by the next
+     * frame painted.
+     */
+    public void frameRequested() {
+        final long frame = this.requestedFrame + 1;
+        if (this.tickPress != NONE) {
+            final long t = this.tail.get();
+            if (t - this.head.get() < PENDING_SIZE) { // if full the press isn't measured
+                final int slot = (int) t & (PENDING_SIZE - 1);
+                this.pendingFrame[slot] = frame;
+                this.pendingPress[slot] = this.tickPress;
+                this.pendingTick[slot] = this.tickTime;
+                this.tail.lazySet(t + 1);
+            }
+            this.tickPress = NONE;
+        }
+        this.requestedFrame = frame;
+    }
+
+    /**
+     * Called by the Event Dispatch Thread before painting a frame.
+     *
+     * @return the number of the last frame requested, which will be presented.
+     */
+    public long frameStarted() {
+        return this.requestedFrame;
+    }
+
+    /**
+     * Called by the Event Dispatch Thread after painting a frame.
+     *
+     * @param frame
+     *            the value returned by {@link #frameStarted()} for this frame.
+     */
+    public void framePresented(final long frame) {
+        final long now = System.nanoTime();
+        long h = this.head.get();
+        final long t = this.tail.get();
+        while (h < t && this.pendingFrame[(int) h & (PENDING_SIZE - 1)] <= frame) {
+            final int slot = (int) h & (PENDING_SIZE - 1);
+            this.toFrame.record(now - this.pendingPress[slot]);
+            final int row = this.logged++ % LOG_SIZE;
+            this.log[0][row] = this.pendingPress[slot];
+            this.log[1][row] = this.pendingTick[slot];
+            this.log[2][row] = now;
+            h++;
+        }
+        this.head.lazySet(h);
+    }
+
+    /**
+     * @return a line with the percentiles of the latencies, in milliseconds.
+     */
+    public String summary() {
+        return "Input latency (ms): press->tick " + this.toTick + " | press->frame " + this.toFrame;
+    }
+
+    /**
+     * Prints the summary and writes the presses followed until now in
+     * latency.csv, in the game folder. It does nothing if the game isn't
+     * launched in debug mode. It can be called by any thread: the log belongs
+     * to the Event Dispatch Thread, so it's written there.
+     */
+    public void report() {
+        if (Settings.DEBUG) {
+            SwingUtilities.invokeLater(this::writeReport);
+        }
+    }
+
+    private void writeReport() {
+        System.out.println(this.summary());
+        final File file = new File(Settings.MY_FOLDER + "latency.csv");
+        final int rows = Math.min(this.logged, LOG_SIZE);
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(file)))) {
+            out.println("press_ns,tick_ns,frame_ns,press_to_tick_ms,press_to_frame_ms");
+            for (int i = this.logged - rows; i < this.logged; i++) {
+                final int row = i % LOG_SIZE;
+                out.println(String.format("%d,%d,%d,%.3f,%.3f", this.log[0][row], this.log[1][row], this.log[2][row],
+                        (this.log[1][row] - this.log[0][row]) / TO_MILLIS,
+                        (this.log[2][row] - this.log[0][row]) / TO_MILLIS));
+            }
+        } catch (IOException e) {
+            System.out.println("Error writing " + file);
+        }
+    }
+
+    /*
+     * The last samples of a latency, written by a single thread; the
+     * percentiles are computed on a copy.
+     */
+    private static final class Window {
+        private final long[] samples;
+        private volatile int count;
+
+        private Window(final int size) {
+            this.samples = new long[size];
+        }
+
+        private void record(final long nanos) {
+            final int c = this.count;
+            this.samples[c % this.samples.length] = nanos;
+            this.count = c + 1;
+        }
+
+        @Override
+        public String toString() {
+            final long[] sorted = Arrays.copyOf(this.samples, Math.min(this.count, this.samples.length));
+            if (sorted.length == 0) {
+                return "no samples";
+            }
+            Arrays.sort(sorted);
+            return String.format("p50 %.1f p95 %.1f p99 %.1f (%d samples)", percentile(sorted, 50),
+                    percentile(sorted, 95), percentile(sorted, 99), sorted.length);
+        }
+
+        private static double percentile(final long[] sorted, final int p) {
+            return sorted[Math.min(sorted.length - 1, sorted.length * p / 100)] / TO_MILLIS;
+        }
+    }
+}
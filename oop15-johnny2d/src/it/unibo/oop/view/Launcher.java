@@ -8,6 +8,10 @@ import it.unibo.oop.controller.StateObserver;
  */
 public class Launcher extends MenuPanel {
 
+    /**
+     * Icon of the launcher, prefetched at startup.
+     */
+    public static final String ICON = "/launcher.png";
     private static final long serialVersionUID = 6835079187244547916L;
 
     /**
@@ -18,7 +22,7 @@ public class Launcher extends MenuPanel {
         this.addObserver(stateObs);
 
         /* ICON SETTING */
-        this.setIcon("/launcher.png");
+        this.setIcon(ICON);
 
         /* BUTTONS ADDING */
         this.addStateButton(new MenuPanel.StateButton("Play", AppState.START),
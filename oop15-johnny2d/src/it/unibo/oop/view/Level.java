@@ -2,13 +2,11 @@ package it.unibo.oop.view;
 
 import static it.unibo.oop.utilities.Settings.SCREEN_DIMENSION;
 
+import java.awt.event.KeyListener;
 import java.lang.reflect.InvocationTargetException;
-import java.util.Arrays;
 import javax.swing.JFrame;
 import javax.swing.SwingUtilities;
 
-import it.unibo.oop.view.keyboard.KeyboardObserver;
-
 /**
  * The main frame containing the game's main level.
  */
@@ -22,11 +20,10 @@ public class Level implements LevelInterface {
     private final LevelPanel mainLevel;
 
     /**
-     * @param obs
-     *            observer of the keyboard.
+     * @param keyListener
+     *            listener of the keyboard.
      */
-    public Level(final KeyboardObserver... obs) {
-        final MainKeyListener keyListener;
+    public Level(final KeyListener keyListener) {
         this.frame = new JFrame(TITLE);
         this.frame.setSize(SCREEN_DIMENSION);
         this.frame.setUndecorated(true);
@@ -37,13 +34,13 @@ public class Level implements LevelInterface {
         this.frame.getContentPane().add(mainLevel);
 
         /* per MainKeyListener */
-        keyListener = new MainKeyListener(Arrays.asList(obs));
         this.frame.addKeyListener(keyListener);
         this.frame.setFocusTraversalKeysEnabled(false);
     }
 
     @Override
     public void updateLevel() {
+        InputLatencyMonitor.getInstance().frameRequested();
     	try {
 			SwingUtilities.invokeAndWait(() -> {
 				this.mainLevel.repaint();
@@ -54,7 +51,18 @@ public class Level implements LevelInterface {
 		} 
     }
 
+    @Override
     public void initialize(final int levelNumber) {
         this.mainLevel.setArena(levelNumber);
     }
+
+    @Override
+    public void prefetch(final int levelNumber) {
+        this.mainLevel.prefetchArena(levelNumber);
+    }
+
+    @Override
+    public void toggleOverlay() {
+        this.mainLevel.getOverlay().toggle();
+    }
 }
\ No newline at end of file
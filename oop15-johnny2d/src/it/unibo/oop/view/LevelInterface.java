@@ -15,4 +15,18 @@ public interface LevelInterface {
      *            of initialization.
      */
     void initialize(final int levelNumber);
+
+    /**
+     * Prepares in background the resources of a level which will be probably
+     * initialized next.
+     * 
+     * @param levelNumber
+     *            of the next initialization.
+     */
+    void prefetch(final int levelNumber);
+
+    /**
+     * Shows or hides the performance overlay.
+     */
+    void toggleOverlay();
 }
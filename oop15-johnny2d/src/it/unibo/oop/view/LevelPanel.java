@@ -7,6 +7,7 @@ import java.awt.Color;
 import java.awt.FlowLayout;
 import java.awt.Font;
 import java.awt.Graphics;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.HashMap;
@@ -24,6 +25,7 @@ import it.unibo.oop.model.InvisibleMonster;
 import it.unibo.oop.model.ScoreBonus;
 import it.unibo.oop.model.Wall;
 import it.unibo.oop.utilities.Direction;
+import it.unibo.oop.utilities.FlightEvents;
 
 /**
  * The {@link javax.swing.JPanel} containing the graphics elements of the game's
@@ -35,12 +37,15 @@ public class LevelPanel extends BackgroundPanel {
     private static final int SMALL_SPACING = 10;
     private static final int MEDIUM_SPACING = 20;
     private static final int LONG_SPACING = 30;
+    private static final String BACKGROUND = "/level.jpg";
+    private static final String[] IMAGES = { BACKGROUND, "/mainCharacter.png", "/enemy.png", "/invisibleEnemy.png",
+        "/wall.png", "/coin.png", "/heart.png", "/bullet.png", "/health.png", };
 
     private Map<Direction, BufferedImage> mainCharacterSprites;
     private Map<Direction, BufferedImage> enemySprites;
     private Map<Direction, BufferedImage> invisibleEnemySprites;
     private Map<Integer, String> arenasMap;
-    private BufferedImage arena;
+    private volatile BufferedImage arena;
     private BufferedImage wall;
     private BufferedImage scoreBonus;
     private BufferedImage healthBonus;
@@ -48,13 +53,17 @@ public class LevelPanel extends BackgroundPanel {
     private BufferedImage health;
     private final JLabel stats;
     private final GameState gs;
+    private final AssetManager assets;
+    private final InputLatencyMonitor latency = InputLatencyMonitor.getInstance();
+    private final DebugOverlay overlay = new DebugOverlay();
 
     /**
      * Builds the {@link javax.swing.JPanel} and loads every {@link SpriteSheet}.
      */
     public LevelPanel() {
-        super("/level.jpg");
+        super(BACKGROUND);
         this.gs = GameStateImpl.getInstance();
+        this.assets = AssetManagerImpl.getInstance();
         this.loadArenas();
         this.loadSprites();
         this.stats = MyLabel.createLabel(null, new Font("Verdana", 1, 40), Color.RED);
@@ -62,6 +71,16 @@ public class LevelPanel extends BackgroundPanel {
         this.add(this.stats);
     }
 
+    /**
+     * Starts decoding in background the images of the panel, so it can be
+     * built later without waiting for them.
+     */
+    public static void prefetchImages() {
+        for (final String image : IMAGES) {
+            AssetManagerImpl.getInstance().prefetch(image);
+        }
+    }
+
     private void loadArenas() {
         this.arenasMap = new HashMap<>();
         this.arenasMap.put(0, "/grass_template_straightpath.jpg");
@@ -85,26 +104,64 @@ public class LevelPanel extends BackgroundPanel {
             final SpriteSheet invisibleEnemySheet = new SpriteSheet("/invisibleEnemy.png");
             this.invisibleEnemySprites = invisibleEnemySheet.split(INVISIBLE_ENEMY.getWidth(),
                     INVISIBLE_ENEMY.getHeight());
-            this.wall = ImageLoader.load("/wall.png");
-            this.scoreBonus = ImageLoader.load("/coin.png");
-            this.healthBonus = ImageLoader.load("/heart.png");
-            this.bullet = ImageLoader.load("/bullet.png");
-            this.health = ImageLoader.load("/health.png");
+            this.wall = this.assets.get("/wall.png");
+            this.scoreBonus = this.assets.get("/coin.png");
+            this.healthBonus = this.assets.get("/heart.png");
+            this.bullet = this.assets.get("/bullet.png");
+            this.health = this.assets.get("/health.png");
         } catch (IOException | SpritesNotSplittableException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Sets the field of the level. If it has been prefetched it doesn't wait
+     * for any decoding.
+     *
+     * @param levelNumber
+     *            the number of the level
+     */
     public void setArena(final int levelNumber) {
+        final FlightEvents.Event event = FlightEvents.LEVEL_LOAD.begin();
+        // a designed level has its own field
+        final String path = this.gs.getArena().getBackground().orElse(this.getArenaPath(levelNumber));
         try {
-            this.arena = ImageLoader.load("/field" + this.arenasMap.get(levelNumber));
+            this.arena = this.assets.get(path);
         } catch (IOException e) {
             e.printStackTrace();
         }
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit(levelNumber, path);
+        }
+    }
+
+    /**
+     * Starts decoding in background the field of a level which will be
+     * probably played next.
+     *
+     * @param levelNumber
+     *            the number of the level
+     */
+    public void prefetchArena(final int levelNumber) {
+        this.assets.prefetch(this.getArenaPath(levelNumber));
+    }
+
+    /**
+     * @return the performance overlay drawn over the level.
+     */
+    public DebugOverlay getOverlay() {
+        return this.overlay;
+    }
+
+    private String getArenaPath(final int levelNumber) {
+        return "/field" + this.arenasMap.get(levelNumber);
     }
 
     @Override
     protected void paintComponent(final Graphics g) {
+        final long frame = this.latency.frameStarted();
+        final long start = System.nanoTime();
         super.paintComponent(g);
         g.drawImage(this.arena, this.gs.getArena().getPlayableRectangle().x,
                 this.gs.getArena().getPlayableRectangle().y, this.gs.getArena().getPlayableRectangle().width,
@@ -113,13 +170,15 @@ public class LevelPanel extends BackgroundPanel {
         this.drawMovables(g);
         this.drawMainCharacter(g);
         this.drawStats(g);
+        this.overlay.paint(g, this.getHeight(), System.nanoTime() - start);
+        this.latency.framePresented(frame);
     }
 
     private void drawStables(final Graphics g) {
         if (!this.gs.getStableList().isEmpty()) {
             this.gs.getStableList().forEach(e -> {
                 if (e instanceof Wall) {
-                    g.drawImage(this.wall, e.getTopLeftPos().getIntX(), e.getTopLeftPos().getIntY(), this);
+                    this.drawWall(g, e.getBounds());
                 }
                 if (e instanceof ScoreBonus) {
                     g.drawImage(this.scoreBonus, e.getTopLeftPos().getIntX(), e.getTopLeftPos().getIntY(), this);
@@ -131,6 +190,15 @@ public class LevelPanel extends BackgroundPanel {
         }
     }
 
+    /* the walls of many blocks are drawn block by block */
+    private void drawWall(final Graphics g, final Rectangle bounds) {
+        for (int y = bounds.y; y < bounds.y + bounds.height; y += WALL.getHeight()) {
+            for (int x = bounds.x; x < bounds.x + bounds.width; x += WALL.getWidth()) {
+                g.drawImage(this.wall, x, y, this);
+            }
+        }
+    }
+
     private void drawMovables(final Graphics g) {
         if (!this.gs.getMovableList().isEmpty()) {
             this.gs.getMovableList().forEach(e -> {
@@ -3,19 +3,36 @@ package it.unibo.oop.view;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.function.Consumer;
 
 import it.unibo.oop.controller.ControllerImpl;
+import it.unibo.oop.view.keyboard.KeyEventQueue;
 import it.unibo.oop.view.keyboard.KeyboardObserver;
 
 /**
  * Simple custom class implementing {@link KeyListener} that should be attached
  * to the main view i.e. {@link Level}.
+ *
+ * <p>
+ * The events are only recorded, with their timestamp, in a
+ * {@link KeyEventQueue} by the Event Dispatch Thread; the observers receive
+ * them when the game loop calls {@link #dispatchEvents()}, once per tick. The
+ * resets go through the same queue, so the observers are reset by the game
+ * loop, in order with the key events.
  */
 public class MainKeyListener implements KeyListener, ESource<KeyboardObserver> {
 
+    private static final int RESET = -1; // event id of the resets in the queue
+
     private final List<KeyboardObserver> obsList;
+    private final KeyEventQueue queue = new KeyEventQueue();
+    private final KeyEventQueue.Handler dispatcher = this::dispatch;
+    private volatile long discardBefore = Long.MIN_VALUE;
+    private volatile boolean lateReset; // a reset which didn't fit in the full queue
+    private final BitSet held = new BitSet(); // game thread only, to skip auto-repeat
+    private final InputLatencyMonitor latency = InputLatencyMonitor.getInstance();
 
     /**
      * @param obs
@@ -56,9 +73,63 @@ public class MainKeyListener implements KeyListener, ESource<KeyboardObserver> {
         this.obsList.forEach(action);
     }
 
+    /**
+     * Notifies the observers of the events received since the last call. It
+     * must be always called by the same thread, i.e. the game loop.
+     *
+     * @return the number of events dispatched.
+     */
+    public int dispatchEvents() {
+        if (this.lateReset) {
+            this.lateReset = false;
+            this.resetObservers();
+        }
+        return this.queue.drain(this.dispatcher);
+    }
+
+    /**
+     * Ignores the events received until now which haven't been dispatched yet,
+     * e.g. the keys pressed while the game was paused, and resets the
+     * observers on the game loop. It must be called by the Event Dispatch
+     * Thread, the one producing the events.
+     */
+    public void discardPending() {
+        final long now = System.nanoTime();
+        this.discardBefore = now;
+        if (!this.queue.offer(0, RESET, now)) {
+            this.lateReset = true;
+        }
+    }
+
+    private void resetObservers() {
+        this.held.clear();
+        for (int i = 0; i < this.obsList.size(); i++) {
+            this.obsList.get(i).resetKeys();
+        }
+    }
+
     private void action(final int keyCode, final int eventID) {
-        new Thread(() -> {
-            this.doAction(e -> e.keyAction(keyCode, eventID));
-        }).start();
+        if (!this.queue.offer(keyCode, eventID, System.nanoTime())) {
+            System.out.println("Too many keyboard events, one has been dropped");
+        }
+    }
+
+    /* no lambdas nor iterators, so nothing is allocated per event */
+    private void dispatch(final int keyCode, final int eventID, final long timestamp) {
+        if (eventID == RESET) {
+            this.resetObservers();
+            return;
+        }
+        if (timestamp - this.discardBefore < 0) {
+            this.held.clear(keyCode); // the keys managers have been reset too
+            return;
+        }
+        if (eventID == KeyEvent.KEY_PRESSED && !this.held.get(keyCode)) {
+            this.latency.keyConsumed(timestamp);
+        }
+        this.held.set(keyCode, eventID == KeyEvent.KEY_PRESSED);
+        for (int i = 0; i < this.obsList.size(); i++) {
+            this.obsList.get(i).keyAction(keyCode, eventID);
+        }
     }
 }
\ No newline at end of file
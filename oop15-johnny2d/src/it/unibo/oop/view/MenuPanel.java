@@ -7,7 +7,7 @@ import java.awt.Font;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
-import java.net.URL;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -30,6 +30,10 @@ import it.unibo.oop.utilities.Settings;
  */
 public class MenuPanel extends BackgroundPanel implements MenuInterface {
 
+    /**
+     * Background shared by every menu.
+     */
+    public static final String BACKGROUND = "/background.jpg";
     private static final long serialVersionUID = 1L;
     private static final Color COMPONENTS_COLOR = new Color(255, 220, 130);
     private static final Color FONT_COLOR = Color.WHITE;
@@ -48,7 +52,7 @@ public class MenuPanel extends BackgroundPanel implements MenuInterface {
      * Creates a new panel.
      */
     public MenuPanel() {
-        super("/background.jpg");
+        super(BACKGROUND);
 
         this.cnst.insets = new Insets(TOP_INSET, LEFT_INSET, BOTTOM_INSET, RIGHT_INSET);
         this.cnst.gridy = 0;
@@ -118,9 +122,12 @@ public class MenuPanel extends BackgroundPanel implements MenuInterface {
 
     @Override
     public void setIcon(final String path) {
-        final URL imgURL = MenuPanel.class.getResource(path);
-        final ImageIcon icon = new ImageIcon(imgURL);
-        final JLabel label = new JLabel(icon);
+        final JLabel label = new JLabel();
+        try {
+            label.setIcon(new ImageIcon(AssetManagerImpl.getInstance().get(path)));
+        } catch (IOException e) {
+            System.out.println("Error loading the icon");
+        }
         final JPanel nestedPanel = this.customPanel(PANEL_WIDTH, PANEL_HEIGHT);
         label.setAlignmentX(Component.CENTER_ALIGNMENT);
         nestedPanel.add(label);
@@ -7,6 +7,7 @@ import it.unibo.oop.controller.AppState;
 import it.unibo.oop.controller.StateObserver;
 import it.unibo.oop.model.RecordImpl;
 import it.unibo.oop.utilities.MusicPlayerImpl;
+import it.unibo.oop.utilities.SoundMixerImpl;
 
 /**
  * {@link javax.swing.JPanel} for options Menu-view.
@@ -33,6 +34,14 @@ public class OptionsMenu extends MenuPanel {
         check.addActionListener(e -> MusicPlayerImpl.getInstance().setMusic(check.isSelected()));
         this.addComponents(label, check);
 
+        /* SOUNDS */
+        final JLabel soundsLabel = new JLabel("Sounds");
+        final JCheckBox soundsCheck = new JCheckBox();
+        soundsCheck.setOpaque(false);
+        soundsCheck.setSelected(SoundMixerImpl.getInstance().isSoundsOn());
+        soundsCheck.addActionListener(e -> SoundMixerImpl.getInstance().setSounds(soundsCheck.isSelected()));
+        this.addComponents(soundsLabel, soundsCheck);
+
         /* DELETE RECORD-SCORE */
         final JButton reset = new JButton("Reset Record");
         reset.addActionListener(e -> new Thread(() -> RecordImpl.getInstance().reset()).start());
@@ -28,7 +28,7 @@ public class SpriteSheet {
      */
     public SpriteSheet(final String sheetName) {
         try {
-            this.sheet = ImageLoader.load(sheetName);
+            this.sheet = AssetManagerImpl.getInstance().get(sheetName);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -14,6 +14,13 @@ public interface View {
      */
     LevelInterface getLevelView();
 
+    /**
+     * Delivers to the keys managers the keyboard events received since the
+     * last call. To be called by the game loop before {@link #getAction()} and
+     * {@link #getMovement()}.
+     */
+    void processInput();
+
     /**
      * @return the {@link Direction}
      */
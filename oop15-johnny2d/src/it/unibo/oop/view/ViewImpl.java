@@ -2,6 +2,7 @@ package it.unibo.oop.view;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,6 +11,7 @@ import javax.swing.SwingUtilities;
 import it.unibo.oop.controller.AppState;
 import it.unibo.oop.utilities.Action;
 import it.unibo.oop.utilities.Direction;
+import it.unibo.oop.utilities.StartupTimer;
 import it.unibo.oop.view.keyboard.ActionKey;
 import it.unibo.oop.view.keyboard.ActionKeysManager;
 import it.unibo.oop.view.keyboard.KeyboardObserverImpl;
@@ -28,15 +30,22 @@ public final class ViewImpl implements View {
                                        // menu-views.
     private final KeysManager<MovementKey, Direction> movKeysMan;
     private final KeysManager<ActionKey, Action> actKeysMan;
+    private final MainKeyListener keyListener;
     private List<AppState> history; // stack open-views.
 
     private ViewImpl() {
         this.history = new ArrayList<>();
-        this.mainFrame = new MainFrameImpl();
+        AssetManagerImpl.getInstance().prefetch(MenuPanel.BACKGROUND);
+        AssetManagerImpl.getInstance().prefetch(Launcher.ICON);
         this.movKeysMan = new MovementKeysManager();
         this.actKeysMan = new ActionKeysManager();
-        this.level = new Level(new KeyboardObserverImpl<>(MovementKey.class, this.movKeysMan),
-                new KeyboardObserverImpl<>(ActionKey.class, this.actKeysMan));
+        this.keyListener = new MainKeyListener(
+                Arrays.asList(new KeyboardObserverImpl<>(MovementKey.class, this.movKeysMan),
+                        new KeyboardObserverImpl<>(ActionKey.class, this.actKeysMan)));
+        // the images are decoded in background, the frames are built one at a time
+        LevelPanel.prefetchImages();
+        this.mainFrame = StartupTimer.time("main frame", MainFrameImpl::new);
+        this.level = StartupTimer.time("level", () -> new Level(this.keyListener));
     }
 
     /**
@@ -49,6 +58,11 @@ public final class ViewImpl implements View {
         return singleton.get();
     }
 
+    @Override
+    public void processInput() {
+        this.keyListener.dispatchEvents();
+    }
+
     @Override
     public Direction getMovement() {
         return this.movKeysMan.processKeys();
@@ -104,7 +118,6 @@ public final class ViewImpl implements View {
                                            * per evitare di sovraffollare
                                            * inutilmente la history
                                            */
-        this.movKeysMan.reset();
-        this.actKeysMan.reset();
+        this.keyListener.discardPending(); // the keys managers are reset by the game loop
     }
 }
\ No newline at end of file
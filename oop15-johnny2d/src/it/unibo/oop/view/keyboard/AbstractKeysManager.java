@@ -1,74 +1,99 @@
 package it.unibo.oop.view.keyboard;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.function.IntFunction;
 
 /**
  * Abstract class for a generic KeysManager.
  *
+ * <p>
+ * The state of the keys is kept in two bitmasks indexed by the ordinal of the
+ * keys, so adding, removing and processing keys never allocates; the
+ * subclasses turn the mask of the keys into the output through a table
+ * precomputed with {@link #buildTable}. The manager isn't synchronized: all
+ * its methods, {@link #reset()} included, must be called by the game loop, to
+ * which {@link it.unibo.oop.view.MainKeyListener} delivers the key events and
+ * the resets of the view.
+ *
  * @param <I>
  *            Type of input, b.p. a wrapping type for the keys of keyboard.
  * @param <O>
  *            Type of output after the keys processing.
  */
-public abstract class AbstractKeysManager<I, O> implements KeysManager<I, O> {
+public abstract class AbstractKeysManager<I extends Enum<I>, O> implements KeysManager<I, O> {
 
-    private List<I> keysPressed; // list containing long-pressed keys.
-    private List<I> keysTyped; // list containing typed keys.
+    private int keysPressed; // mask of the long-pressed keys.
+    private int keysTyped; // mask of the keys typed since the last processing.
 
     public AbstractKeysManager() {
         this.reset();
     }
 
     @Override
-    public final synchronized void reset() {
-        this.keysPressed = new ArrayList<>();
-        this.keysTyped = new ArrayList<>();
+    public final void reset() {
+        this.keysPressed = 0;
+        this.keysTyped = 0;
     }
 
     @Override
-    public synchronized void addKey(final I key) {
-        if (!this.keysPressed.contains(key)) {
-            this.keysPressed.add(key);
-        }
-        // in caso di pressione prolungata la key viene inserita
-        // solo la prima volta.
-        if (!this.keysTyped.contains(key)) {
-            this.keysTyped.add(key);
-        }
+    public void addKey(final I key) {
+        // in caso di pressione prolungata la key rimane la stessa.
+        this.keysPressed |= bit(key);
+        this.keysTyped |= bit(key);
     }
 
     @Override
-    public synchronized void removeKey(final I key) {
-        if (this.keysPressed.contains(key)) {
-            this.keysPressed.remove(key);
-        }
+    public void removeKey(final I key) {
+        this.keysPressed &= ~bit(key);
     }
 
     @Override
-    public synchronized boolean isAKeyPressed(final I key) {
-        return this.keysPressed.contains(key) || this.keysTyped.contains(key);
+    public boolean isAKeyPressed(final I key) {
+        return ((this.keysPressed | this.keysTyped) & bit(key)) != 0;
     }
 
     @Override
     public abstract O processKeys();
 
-    protected void processPressed(final int limit, final List<I> outList) {
-        this.process(limit, this.keysPressed, outList);
+    /**
+     * @return the mask of the keys pressed or typed since the last call; the
+     *         typed keys are then forgotten.
+     */
+    protected int processMask() {
+        final int mask = this.keysPressed | this.keysTyped;
+        this.keysTyped = 0; /* resetto i typed */
+        return mask;
     }
 
-    protected synchronized void processTyped(final int limit, final List<I> outList) {
-        this.process(limit, this.keysTyped, outList);
-        this.keysTyped = new ArrayList<>(); /* resetto la keysTyped list */
+    /**
+     * @param key
+     *            a key.
+     * @return the bit of the key in the masks.
+     */
+    protected static int bit(final Enum<?> key) {
+        return 1 << key.ordinal();
     }
 
-    private void process(final int noElem, final List<I> inList, final List<I> outList) {
-        for (final I key : inList) {
-            if (outList.size() <= noElem && !outList.contains(key)) {
-                outList.add(key);
-            } else {
-                break;
-            }
+    /**
+     * Precomputes the output of every combination of keys.
+     *
+     * @param keys
+     *            number of keys of the enumeration.
+     * @param table
+     *            array of 2^keys elements, filled by the resolver.
+     * @param resolver
+     *            function from a mask of keys to the output.
+     * @param <O>
+     *            Type of output.
+     * @return the table.
+     */
+    protected static <O> O[] buildTable(final int keys, final O[] table,
+            final IntFunction<O> resolver) {
+        if (keys >= Integer.SIZE || table.length != 1 << keys) {
+            throw new IllegalArgumentException("Wrong table size for " + keys + " keys");
+        }
+        for (int mask = 0; mask < table.length; mask++) {
+            table[mask] = resolver.apply(mask);
         }
+        return table;
     }
-}
\ No newline at end of file
+}
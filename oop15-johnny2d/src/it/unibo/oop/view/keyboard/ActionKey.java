@@ -18,6 +18,11 @@ public enum ActionKey implements Key {
      */
     PAUSE(KeyEvent.VK_ESCAPE, Action.PAUSE),
 
+    /**
+     * To show/hide the performance overlay.
+     */
+    DEBUG(KeyEvent.VK_F3, Action.DEBUG),
+
     /**
      * When no actions have been performed.
      */
@@ -1,8 +1,5 @@
 package it.unibo.oop.view.keyboard;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import it.unibo.oop.utilities.Action;
 
 /**
@@ -10,19 +7,18 @@ import it.unibo.oop.utilities.Action;
  */
 public final class ActionKeysManager extends AbstractKeysManager<ActionKey, Action> {
 
-    private static final int LIMIT = 0;
+    /* la pausa ha la precedenza sul debug, che ha la precedenza sullo sparo */
+    private static final Action[] ACTIONS = buildTable(ActionKey.values().length,
+            new Action[1 << ActionKey.values().length],
+            mask -> (mask & bit(ActionKey.PAUSE)) != 0 ? Action.PAUSE
+                    : (mask & bit(ActionKey.DEBUG)) != 0 ? Action.DEBUG
+                            : (mask & bit(ActionKey.SHOOT)) != 0 ? Action.SHOOT : Action.NONE);
 
     @Override
-    public synchronized Action processKeys() {
-        final List<ActionKey> tmpList = new ArrayList<>();
-        Action out = Action.NONE;
-
-        this.processPressed(LIMIT, tmpList);
-        this.processTyped(LIMIT, tmpList);
-        if (!tmpList.isEmpty()) {
-            out = tmpList.get(0).getAction();
-        }
+    public Action processKeys() {
+        final Action out = ACTIONS[this.processMask()];
         this.removeKey(ActionKey.PAUSE);
+        this.removeKey(ActionKey.DEBUG);
         return out;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package it.unibo.oop.view.keyboard;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free single-producer/single-consumer ring buffer of timestamped
+ * keyboard events. The producer is the Event Dispatch Thread and the consumer
+ * is the game loop: neither of them ever blocks and no object is allocated per
+ * event.
+ */
+public final class KeyEventQueue {
+
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private final int mask;
+    private final int[] keyCodes;
+    private final int[] eventIDs;
+    private final long[] timestamps;
+    private final AtomicLong head = new AtomicLong(); // next event to read
+    private final AtomicLong tail = new AtomicLong(); // next free slot
+
+    /**
+     * Creates a queue with the default capacity.
+     */
+    public KeyEventQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity
+     *            maximum number of pending events, rounded up to a power of
+     *            two.
+     */
+    public KeyEventQueue(final int capacity) {
+        final int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.keyCodes = new int[size];
+        this.eventIDs = new int[size];
+        this.timestamps = new long[size];
+    }
+
+    /**
+     * Adds an event. To be called only by the producer thread.
+     *
+     * @param keyCode
+     *            VK_Code of the key.
+     * @param eventID
+     *            id that identifies if key has been Pressed/Released.
+     * @param timestamp
+     *            {@link System#nanoTime()} of the event.
+     * @return false if the queue is full and the event has been dropped.
+     */
+    public boolean offer(final int keyCode, final int eventID, final long timestamp) {
+        final long t = this.tail.get();
+        if (t - this.head.get() > this.mask) {
+            return false;
+        }
+        final int slot = (int) t & this.mask;
+        this.keyCodes[slot] = keyCode;
+        this.eventIDs[slot] = eventID;
+        this.timestamps[slot] = timestamp;
+        this.tail.lazySet(t + 1); // publishes the slot
+        return true;
+    }
+
+    /**
+     * Passes every pending event to the handler. To be called only by the
+     * consumer thread.
+     *
+     * @param handler
+     *            receiver of the events.
+     * @return the number of events drained.
+     */
+    public int drain(final Handler handler) {
+        long h = this.head.get();
+        final long t = this.tail.get();
+        final int drained = (int) (t - h);
+        while (h < t) {
+            final int slot = (int) h & this.mask;
+            handler.onKeyEvent(this.keyCodes[slot], this.eventIDs[slot], this.timestamps[slot]);
+            h++;
+        }
+        this.head.lazySet(h); // frees the slots
+        return drained;
+    }
+
+    /**
+     * Receiver of the events drained from a {@link KeyEventQueue}.
+     */
+    @FunctionalInterface
+    public interface Handler {
+
+        /**
+         * @param keyCode
+         *            VK_Code of the key.
+         * @param eventID
+         *            id that identifies if key has been Pressed/Released.
+         * @param timestamp
+         *            {@link System#nanoTime()} of the event.
+         */
+        void onKeyEvent(int keyCode, int eventID, long timestamp);
+    }
+}
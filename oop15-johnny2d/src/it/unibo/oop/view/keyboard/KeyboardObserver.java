@@ -12,4 +12,10 @@ public interface KeyboardObserver {
      *            id that identifies if key has been Pressed/Released or Typed.
      */
     void keyAction(int keyCode, int eventID);
+
+    /**
+     * Forgets the keys pressed until now; called by the same thread as
+     * {@link #keyAction}.
+     */
+    void resetKeys();
 }
@@ -26,7 +26,7 @@ public class KeyboardObserverImpl<T extends Key> implements KeyboardObserver {
     }
 
     @Override
-    public synchronized void keyAction(final int keyCode, final int eventID) {
+    public void keyAction(final int keyCode, final int eventID) {
         final Optional<T> cmd = this.vkCodeToKeyCommand(keyCode);
         if (cmd.isPresent()) { // ignoro eventi provenienti da tasti non
                                // significativi.
@@ -47,6 +47,11 @@ public class KeyboardObserverImpl<T extends Key> implements KeyboardObserver {
         }
     }
 
+    @Override
+    public void resetKeys() {
+        this.man.reset();
+    }
+
     /* per filtrare/mappare i tasti su i comandi */
     private Optional<T> vkCodeToKeyCommand(final int vkCode) {
         return Optional.ofNullable(this.mapVKCodeToKeyCmd.get(vkCode));
@@ -1,7 +1,5 @@
 package it.unibo.oop.view.keyboard;
 
-import java.util.ArrayList;
-import java.util.List;
 import it.unibo.oop.utilities.Direction;
 
 /**
@@ -9,50 +7,34 @@ import it.unibo.oop.utilities.Direction;
  */
 public final class MovementKeysManager extends AbstractKeysManager<MovementKey, Direction> {
 
-    private static final int LIMIT = 1;
-
     /*
-     * FUNZIONAMENTO: Scorro la lista keysPressed e cerco i primi due tasti di
-     * direzione; gli eventuali "posti liberi" vengono riemipi da max 2 tasti di
-     * direzione presi dalla keysTyped list. NOTE: Al massimo vengono
-     * considerati 2 tasti di direzione; i Pressed hanno priorita' maggiore di
-     * quelli Typed; eventuali altri tasti vengono ignorati per il frame da
-     * disegnare; le due direzioni che servono per formare le 8 possibili
-     * direzioni nello spazio vengono inoltre scelte evitando di scegliere per
-     * entrambe la stessa direzione.
+     * FUNZIONAMENTO: per ogni combinazione dei tasti premuti (o typed dall'
+     * ultimo frame) la direzione e' precalcolata: su ciascun asse due tasti
+     * opposti si annullano, mentre un tasto verticale e uno orizzontale
+     * formano una delle direzioni diagonali. I tasti delle diagonali non
+     * hanno un VK_Code e vengono ignorati.
      */
+    private static final MovementKey[][] BY_AXES = {
+        { MovementKey.LEFTUP, MovementKey.UP, MovementKey.RIGHTUP },
+        { MovementKey.LEFT, MovementKey.NONE, MovementKey.RIGHT },
+        { MovementKey.LEFTDOWN, MovementKey.DOWN, MovementKey.RIGHTDOWN },
+    };
+    private static final Direction[] DIRECTIONS = buildTable(MovementKey.values().length,
+            new Direction[1 << MovementKey.values().length], MovementKeysManager::resolve);
 
     @Override
-    public synchronized Direction processKeys() {
-        final List<MovementKey> tmpList = new ArrayList<>();
-        MovementKey out = MovementKey.NONE;
-        this.processPressed(LIMIT, tmpList);
-        this.processTyped(LIMIT, tmpList);
-        switch (tmpList.size()) {
-        case 1:
-            out = tmpList.get(0);
-            break;
-        case 2:
-            if (tmpList.contains(MovementKey.UP) && tmpList.contains(MovementKey.DOWN)) {
-                break;
-            }
-            if (tmpList.contains(MovementKey.UP)) {
-                if (tmpList.contains(MovementKey.RIGHT)) {
-                    out = MovementKey.RIGHTUP;
-                } else {
-                    out = MovementKey.LEFTUP;
-                }
-            } else if (tmpList.contains(MovementKey.DOWN)) {
-                if (tmpList.contains(MovementKey.RIGHT)) {
-                    out = MovementKey.RIGHTDOWN;
-                } else {
-                    out = MovementKey.LEFTDOWN;
-                }
-            }
-            break;
-        default:
-            break;
-        }
-        return out.getDir();
+    public Direction processKeys() {
+        return DIRECTIONS[this.processMask()];
+    }
+
+    private static Direction resolve(final int mask) {
+        final int vertical = axis(mask, MovementKey.UP, MovementKey.DOWN);
+        final int horizontal = axis(mask, MovementKey.LEFT, MovementKey.RIGHT);
+        return BY_AXES[vertical + 1][horizontal + 1].getDir();
+    }
+
+    /* -1, 0 o 1 a seconda di quale dei due tasti opposti e' premuto */
+    private static int axis(final int mask, final MovementKey negative, final MovementKey positive) {
+        return ((mask & bit(positive)) != 0 ? 1 : 0) - ((mask & bit(negative)) != 0 ? 1 : 0);
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,8 @@
 package main;
 
 import it.unibo.oop.controller.ControllerImpl;
+import it.unibo.oop.controller.MetricsServer;
+import it.unibo.oop.utilities.StartupTimer;
 
 /**
  * Entry for the application.
@@ -15,6 +17,7 @@ public final class App {
      *            ignored.
      */
     public static void main(final String... args) {
-        ControllerImpl.getInstance();
+        MetricsServer.startIfEnabled();
+        StartupTimer.time("controller", ControllerImpl::getInstance);
     }
 }